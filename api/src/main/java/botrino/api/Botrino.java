@@ -29,9 +29,11 @@ import botrino.api.annotation.Exclude;
 import botrino.api.config.ConfigContainer;
 import botrino.api.config.ConfigParser;
 import botrino.api.config.ConfigReader;
+import botrino.api.config.ConfigWatcher;
 import botrino.api.config.LoginHandler;
 import botrino.api.config.object.BotConfig;
 import botrino.api.extension.BotrinoExtension;
+import botrino.api.i18n.Translator;
 import botrino.api.util.ConfigUtils;
 import com.github.alex1304.rdi.RdiServiceContainer;
 import com.github.alex1304.rdi.ServiceReference;
@@ -40,6 +42,7 @@ import com.github.alex1304.rdi.config.ServiceDescriptor;
 import com.github.alex1304.rdi.finder.annotation.AnnotationServiceFinder;
 import com.github.alex1304.rdi.finder.annotation.RdiService;
 import discord4j.core.GatewayDiscordClient;
+import discord4j.core.object.presence.ClientPresence;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.Logger;
@@ -59,6 +62,7 @@ import static com.github.alex1304.rdi.config.Injectable.ref;
 import static com.github.alex1304.rdi.config.Injectable.value;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toUnmodifiableSet;
+import static reactor.function.TupleUtils.function;
 
 /**
  * Represents the entry point of an application based on Botrino.
@@ -79,6 +83,7 @@ public final class Botrino {
      *     <li>Reads all classes contained in these modules, and processes them according to the features brought by
      *     these classes (configuration entries, services, commands, etc)</li>
      *     <li>Loads the configuration file using the configuration entries found in previous step</li>
+     *     <li>Preloads the translation bundles declared in the configuration, if any</li>
      *     <li>Loads all services in a {@link RdiServiceContainer} and instantiates all of them, including the
      *     {@link GatewayDiscordClient} which will trigger the login process</li>
      *     <li>The method blocks until the bot disconnects</li>
@@ -133,7 +138,9 @@ public final class Botrino {
 
             final var objectMapper = configReader.createConfigObjectMapper();
             final var configJson = configReader.loadConfigJson(botDir);
-            final var configObjects = ConfigParser.create(objectMapper, configEntries).parse(configJson);
+            final var configParser = ConfigParser.create(objectMapper, configEntries);
+            final var configObjects = configParser.parse(configJson);
+            preloadTranslations(ConfigContainer.of(configObjects).get(BotConfig.class));
             final var configContainerDescriptor =
                     ServiceDescriptor.builder(ServiceReference.ofType(ConfigContainer.class))
                     .setFactoryMethod(staticFactory("of", ConfigContainer.class,
@@ -157,15 +164,19 @@ public final class Botrino {
                     .build());
 
             // Initialize all services and await logout
+            final var configContainerRef = ServiceReference.ofType(ConfigContainer.class);
             Flux.fromIterable(serviceClasses)
                     .flatMap(clazz -> serviceContainer.getService(ServiceReference.ofType(clazz)))
                     .doOnNext(service -> extensions.forEach(ext -> ext.onServiceCreated(service)))
-                    .then(serviceContainer.getService(gatewayRef))
-                    .flatMap(gateway -> gateway.onDisconnect()
+                    .then(Mono.zip(serviceContainer.getService(gatewayRef),
+                            serviceContainer.getService(configContainerRef)))
+                    .flatMap(function((gateway, configContainer) -> gateway.onDisconnect()
                             .and(Mono.when(extensions.stream()
                                             .map(BotrinoExtension::finishAndJoin)
                                             .toList())
-                                    .takeUntilOther(gateway.onDisconnect())))
+                                    .and(watchConfig(configContainer, gateway, configJson,
+                                            ConfigWatcher.create(configReader, configParser, botDir)))
+                                    .takeUntilOther(gateway.onDisconnect()))))
                     .block();
         } catch (Exception e) {
             if (e instanceof RuntimeException) {
@@ -175,6 +186,25 @@ public final class Botrino {
         }
     }
 
+    private static void preloadTranslations(BotConfig botConfig) {
+        botConfig.i18n().ifPresent(i18n -> Translator.preload(i18n.bundles(), i18n.localeList()).block());
+    }
+
+    private static Mono<Void> watchConfig(ConfigContainer configContainer, GatewayDiscordClient gateway,
+                                          String configJson, ConfigWatcher configWatcher) {
+        if (!configContainer.get(BotConfig.class).watchConfig()) {
+            return Mono.empty();
+        }
+        final var presenceUpdates = configContainer.changes(BotConfig.class)
+                .map(config -> config.presence()
+                        .map(BotConfig.StatusConfig::toPresence)
+                        .orElseGet(ClientPresence::online))
+                .distinctUntilChanged()
+                .flatMap(presence -> gateway.updatePresence(presence)
+                        .onErrorResume(e -> Mono.fromRunnable(() -> LOGGER.error("Failed to update presence", e))));
+        return Mono.when(configWatcher.watch(configContainer, configJson), presenceUpdates);
+    }
+
     private static Set<Class<?>> scanBotModules() throws IOException {
         final var classes = new HashSet<Class<?>>();
         final var moduleNames = ModuleLayer.boot().modules()
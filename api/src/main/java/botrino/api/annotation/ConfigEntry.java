@@ -39,5 +39,20 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Target(TYPE)
 public @interface ConfigEntry {
 
+    /**
+     * The name of the field at the root of the configuration JSON that holds this entry.
+     *
+     * @return the name of the entry
+     */
     String value();
+
+    /**
+     * Whether this entry should be deserialized lazily, that is on first access via
+     * {@link botrino.api.config.ConfigContainer#get(Class)} instead of when the configuration is loaded. This is
+     * useful for large entries that are not needed at startup. Note that errors in the JSON structure of a lazy entry
+     * are only detected on first access.
+     *
+     * @return whether the entry is lazy, default false
+     */
+    boolean lazy() default false;
 }
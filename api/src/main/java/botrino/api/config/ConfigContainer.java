@@ -24,20 +24,29 @@
 package botrino.api.config;
 
 import botrino.api.annotation.ConfigEntry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Contains the configuration for the bot.
+ * <p>
+ * The configuration objects are held in an immutable snapshot. If configuration watching is enabled (see
+ * {@link ConfigWatcher}), the snapshot may be replaced atomically when the configuration file changes, and
+ * {@link #changes(Class)} allows to be notified when this happens.
  */
 public final class ConfigContainer {
 
-    private final Map<String, ?> configMap;
+    private final Sinks.Many<Set<String>> updates = Sinks.many().multicast().directBestEffort();
+    private volatile Snapshot snapshot;
 
     private ConfigContainer(Map<String, ?> configMap) {
-        this.configMap = configMap;
+        this.snapshot = new Snapshot(configMap);
     }
 
     /**
@@ -52,27 +61,92 @@ public final class ConfigContainer {
         return new ConfigContainer(configObjects);
     }
 
+    private static String entryName(Class<?> type) {
+        var annotation = type.getAnnotation(ConfigEntry.class);
+        if (annotation == null) {
+            throw new IllegalArgumentException("The class " + type.getName() + " does not have the @ConfigEntry " +
+                    "annotation");
+        }
+        return annotation.value();
+    }
+
+    private static NoSuchElementException noSuchElement(Class<?> type) {
+        return new NoSuchElementException("No configuration object found for '" + entryName(type) + "' " +
+                "(of type " + type.getName() + ")");
+    }
+
     /**
      * Gets the configuration object of the given type. The class given in argument is expected to have a
      * {@link ConfigEntry} annotation, otherwise {@link IllegalArgumentException} will be thrown.
+     * <p>
+     * The entry associated to a given type is resolved once, subsequent calls with the same type do not need to read
+     * the annotation nor to look up the entry by name again.
      *
      * @param type the type of configuration object to get
      * @param <C>  the actual type of the configuration object
      * @return the configuration object associated to the given class
      * @throws IllegalArgumentException if the given class does not have the {@link ConfigEntry} annotation
      * @throws NoSuchElementException   if no configuration exists for the given type
+     * @throws ConfigException          if the entry is lazy and its deserialization fails
      */
     public <C> C get(Class<C> type) {
-        var annotation = type.getAnnotation(ConfigEntry.class);
-        if (annotation == null) {
-            throw new IllegalArgumentException("The class " + type.getName() + " does not have the @ConfigEntry " +
-                    "annotation");
+        return snapshot.get(type);
+    }
+
+    /**
+     * Gets a {@link Flux} emitting the new configuration object of the given type each time it changes. Changes only
+     * happen if configuration watching is enabled, otherwise the returned {@link Flux} never emits. The current value
+     * is not emitted upon subscription, use {@link #get(Class)} to access it.
+     *
+     * @param type the type of configuration object to watch
+     * @param <C>  the actual type of the configuration object
+     * @return a {@link Flux} emitting the updated configuration objects
+     * @throws IllegalArgumentException if the given class does not have the {@link ConfigEntry} annotation
+     */
+    public <C> Flux<C> changes(Class<C> type) {
+        final var name = entryName(type);
+        return updates.asFlux()
+                .filter(changedEntries -> changedEntries.contains(name))
+                .map(changedEntries -> get(type));
+    }
+
+    synchronized void update(Map<String, ?> changedEntries) {
+        if (changedEntries.isEmpty()) {
+            return;
         }
-        var c = configMap.get(annotation.value());
-        if (c == null) {
-            throw new NoSuchElementException("No configuration object found for '" + annotation.value() + "' " +
-                    "(of type " + type.getName() + ")");
+        final var configMap = new HashMap<String, Object>(snapshot.configMap);
+        configMap.putAll(changedEntries);
+        snapshot = new Snapshot(configMap);
+        updates.tryEmitNext(Set.copyOf(changedEntries.keySet()));
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, ?> configMap;
+        private final ClassValue<Object> entriesByType = new ClassValue<>() {
+            @Override
+            protected Object computeValue(Class<?> type) {
+                var c = configMap.get(entryName(type));
+                if (c == null) {
+                    throw noSuchElement(type);
+                }
+                return c;
+            }
+        };
+
+        private Snapshot(Map<String, ?> configMap) {
+            this.configMap = configMap;
+        }
+
+        private <C> C get(Class<C> type) {
+            var c = entriesByType.get(type);
+            if (c instanceof LazyConfigEntry lazy) {
+                c = lazy.get();
+                if (c == null) {
+                    throw noSuchElement(type);
+                }
+            }
+            return type.cast(c);
         }
-        return type.cast(c);
     }
 }
@@ -24,20 +24,25 @@
 package botrino.api.config;
 
 import botrino.api.annotation.ConfigEntry;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import reactor.util.function.Tuple2;
-import reactor.util.function.Tuples;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * A parser that is in charge of instantiating the configuration objects according the the raw JSON input. This class
  * should generally not be used directly as it is already managed by Botrino.
+ * <p>
+ * The JSON input is read in a streaming fashion, each entry being deserialized directly into its target type without
+ * building an intermediate tree. Entries marked with {@link ConfigEntry#lazy()} are not deserialized at parse time:
+ * only their location in the input is recorded, and the {@link ConfigContainer} deserializes them on first access.
  */
 public final class ConfigParser {
 
@@ -52,31 +57,118 @@ public final class ConfigParser {
     public static ConfigParser create(ObjectMapper objectMapper, Set<Class<?>> expectedEntries) {
         return new ConfigParser(objectMapper, expectedEntries.stream()
                 .filter(clazz -> clazz.isAnnotationPresent(ConfigEntry.class))
-                .map(clazz -> Tuples.of(clazz.getAnnotation(ConfigEntry.class).value(), clazz))
-                .collect(Collectors.toMap(Tuple2::getT1, Tuple2::getT2)));
+                .collect(Collectors.toMap(clazz -> clazz.getAnnotation(ConfigEntry.class).value(),
+                        Function.identity())));
     }
 
+    /**
+     * Parses the given JSON input into configuration objects. The returned map is meant to be passed to
+     * {@link ConfigContainer#of(Map)}: values corresponding to entries marked with {@link ConfigEntry#lazy()} are
+     * placeholders that are only resolved by the {@link ConfigContainer}.
+     *
+     * @param rawJson the JSON input
+     * @return a map associating the name of each entry to its configuration object
+     * @throws ConfigException if the JSON is malformed or if an expected entry is missing
+     */
     public Map<String, Object> parse(String rawJson) {
-        try {
+        try (final var parser = objectMapper.createParser(rawJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ConfigException("The configuration must be a JSON object");
+            }
             final var configObjects = new HashMap<String, Object>();
             final var notFound = new HashSet<>(expectedEntries.keySet());
-            final var object = objectMapper.readTree(rawJson);
-            for (final var field : object.properties()) {
-                final var name = field.getKey();
-                final var element = field.getValue();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final var name = parser.currentName();
+                parser.nextToken();
                 final var targetType = expectedEntries.get(name);
-                if (targetType != null) {
-                    notFound.remove(name);
-                    final var configObject = objectMapper.treeToValue(element, targetType);
-                    configObjects.put(name, configObject);
+                if (targetType == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                notFound.remove(name);
+                if (targetType.getAnnotation(ConfigEntry.class).lazy()) {
+                    final var start = (int) parser.currentTokenLocation().getCharOffset();
+                    final var end = skipValue(parser);
+                    configObjects.put(name, new LazyConfigEntry(objectMapper, targetType, name, rawJson, start, end));
+                } else {
+                    configObjects.put(name, objectMapper.readValue(parser, targetType));
                 }
             }
             if (!notFound.isEmpty()) {
                 throw new ConfigException("The following entries are missing in the configuration: " + notFound);
             }
             return configObjects;
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
+            throw new ConfigException("Something went wrong when parsing configuration file", e);
+        }
+    }
+
+    /**
+     * Parses the given JSON input, only deserializing the entries which JSON differ from the ones in the previous
+     * input. This is used to reload the configuration without recreating the objects that did not change. The returned
+     * map is meant to be applied on top of the configuration objects resulting from the parsing of the previous input.
+     * Changed entries are deserialized even if they are marked with {@link ConfigEntry#lazy()}, so that the whole
+     * reload fails if one of them is invalid.
+     *
+     * @param previousJson the previous JSON input
+     * @param rawJson      the new JSON input
+     * @return a map associating the name of each changed entry to its new configuration object, or an empty map if
+     * nothing changed
+     * @throws ConfigException if the new JSON is malformed, if an expected entry is missing or if a changed entry
+     *                         could not be deserialized
+     */
+    public Map<String, Object> parseChanges(String previousJson, String rawJson) {
+        final var previousRegions = scanEntries(previousJson);
+        final var changes = new HashMap<String, Object>();
+        scanEntries(rawJson).forEach((name, region) -> {
+            final var previous = previousRegions.get(name);
+            if (previous != null && previous.length() == region.length() &&
+                    rawJson.regionMatches(region.start(), previousJson, previous.start(), region.length())) {
+                return;
+            }
+            // Lazy entries are deserialized too, so that an invalid change is rejected now rather than on access
+            changes.put(name, new LazyConfigEntry(objectMapper, expectedEntries.get(name), name, rawJson,
+                    region.start(), region.end()).get());
+        });
+        return changes;
+    }
+
+    private Map<String, Region> scanEntries(String rawJson) {
+        try (final var parser = objectMapper.createParser(rawJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ConfigException("The configuration must be a JSON object");
+            }
+            final var regions = new HashMap<String, Region>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final var name = parser.currentName();
+                parser.nextToken();
+                final var start = (int) parser.currentTokenLocation().getCharOffset();
+                final var end = skipValue(parser);
+                if (expectedEntries.containsKey(name)) {
+                    regions.put(name, new Region(start, end));
+                }
+            }
+            if (!regions.keySet().containsAll(expectedEntries.keySet())) {
+                final var notFound = new HashSet<>(expectedEntries.keySet());
+                notFound.removeAll(regions.keySet());
+                throw new ConfigException("The following entries are missing in the configuration: " + notFound);
+            }
+            return regions;
+        } catch (IOException e) {
             throw new ConfigException("Something went wrong when parsing configuration file", e);
         }
     }
+
+    private static int skipValue(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        parser.finishToken();
+        return (int) parser.currentLocation().getCharOffset();
+    }
+
+    private record Region(int start, int end) {
+
+        private int length() {
+            return end - start;
+        }
+    }
 }
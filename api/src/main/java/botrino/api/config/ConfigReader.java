@@ -29,6 +29,7 @@ import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Set;
 
 /**
  * Allows to customize the way Botrino reads the configuration.
@@ -51,6 +52,22 @@ public interface ConfigReader {
         return Files.readString(botDirectory.resolve("config.json"));
     }
 
+    /**
+     * Gets the files from which {@link #loadConfigJson(Path)} reads the configuration. This is used to determine which
+     * files to watch when configuration watching is enabled, so that the configuration is reloaded when one of them is
+     * modified. If {@link #loadConfigJson(Path)} is overridden to read from a different source, this method should be
+     * overridden accordingly.
+     *
+     * <p>
+     * By default, returns the file named config.json at the root of the bot's directory.
+     *
+     * @param botDirectory the bot's home directory
+     * @return the set of files to watch
+     */
+    default Set<Path> configFiles(Path botDirectory) {
+        return Set.of(botDirectory.resolve("config.json"));
+    }
+
     /**
      * Creates the object mapper instance to use to parse the configuration JSON.
      *
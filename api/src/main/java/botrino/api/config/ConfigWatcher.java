@@ -0,0 +1,160 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2026 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.config;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Watches the configuration files for changes and reloads the configuration when they are modified. Only the entries
+ * which JSON has changed are deserialized again, then the snapshot held by the {@link ConfigContainer} is replaced
+ * atomically. Services can be notified of the changes via {@link ConfigContainer#changes(Class)}.
+ * <p>
+ * If the new configuration is invalid, the error is logged and the current configuration is kept.
+ */
+public final class ConfigWatcher {
+
+    private static final Logger LOGGER = Loggers.getLogger(ConfigWatcher.class);
+    private static final Duration DEBOUNCE = Duration.ofMillis(250);
+
+    private final ConfigReader configReader;
+    private final ConfigParser configParser;
+    private final Path botDirectory;
+
+    private ConfigWatcher(ConfigReader configReader, ConfigParser configParser, Path botDirectory) {
+        this.configReader = configReader;
+        this.configParser = configParser;
+        this.botDirectory = botDirectory;
+    }
+
+    /**
+     * Creates a new {@link ConfigWatcher}.
+     *
+     * @param configReader the reader used to load the configuration and to determine the files to watch
+     * @param configParser the parser used to parse the configuration
+     * @param botDirectory the bot's home directory
+     * @return a new {@link ConfigWatcher}
+     */
+    public static ConfigWatcher create(ConfigReader configReader, ConfigParser configParser, Path botDirectory) {
+        Objects.requireNonNull(configReader);
+        Objects.requireNonNull(configParser);
+        Objects.requireNonNull(botDirectory);
+        return new ConfigWatcher(configReader, configParser, botDirectory);
+    }
+
+    /**
+     * Starts watching the configuration files. The watching happens on a dedicated thread and stops when the returned
+     * {@link Mono} is cancelled.
+     *
+     * @param configContainer the container to update when the configuration changes
+     * @param initialJson     the JSON the container was initially created from
+     * @return a {@link Mono} that never completes unless cancelled or if the watching could not start
+     */
+    public Mono<Void> watch(ConfigContainer configContainer, String initialJson) {
+        return Mono.using(() -> FileSystems.getDefault().newWatchService(),
+                watchService -> Mono.<Void>fromRunnable(() -> watchLoop(watchService, configContainer, initialJson))
+                        .subscribeOn(Schedulers.boundedElastic()),
+                watchService -> {
+                    try {
+                        watchService.close();
+                    } catch (IOException e) {
+                        LOGGER.warn("Failed to close config watch service", e);
+                    }
+                });
+    }
+
+    private void watchLoop(WatchService watchService, ConfigContainer configContainer, String initialJson) {
+        final var files = configReader.configFiles(botDirectory).stream()
+                .map(Path::toAbsolutePath)
+                .collect(Collectors.toUnmodifiableSet());
+        try {
+            for (final var dir : files.stream().map(Path::getParent).collect(Collectors.toSet())) {
+                dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            // The bot keeps running with its current configuration
+            LOGGER.error("Unable to watch configuration files, changes will not be reloaded", e);
+            return;
+        }
+        LOGGER.info("Watching configuration files for changes: {}", files);
+        var currentJson = initialJson;
+        try {
+            while (true) {
+                var changed = consumeEvents(watchService.take(), files);
+                // Editors often trigger several events for a single save, wait for them to settle
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    changed |= consumeEvents(next, files);
+                }
+                if (!changed) {
+                    continue;
+                }
+                try {
+                    final var newJson = configReader.loadConfigJson(botDirectory);
+                    final var changes = configParser.parseChanges(currentJson, newJson);
+                    if (changes.isEmpty()) {
+                        currentJson = newJson;
+                        LOGGER.debug("Configuration files modified but no entry has changed");
+                        continue;
+                    }
+                    configContainer.update(changes);
+                    // Only once applied, so that entries that failed to apply are diffed again on the next change
+                    currentJson = newJson;
+                    LOGGER.info("Configuration reloaded, changed entries: {}", changes.keySet());
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.error("Failed to reload configuration, keeping the current one", e);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Config watch service closed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean consumeEvents(WatchKey key, Set<Path> files) {
+        final var dir = (Path) key.watchable();
+        final var changed = key.pollEvents().stream()
+                .anyMatch(event -> event.context() instanceof Path p && files.contains(dir.resolve(p)));
+        key.reset();
+        return changed;
+    }
+}
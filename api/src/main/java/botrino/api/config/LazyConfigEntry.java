@@ -0,0 +1,77 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2026 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Holds the raw JSON of a configuration entry marked as lazy, and deserializes it on first access.
+ */
+final class LazyConfigEntry {
+
+    private final ObjectMapper objectMapper;
+    private final Class<?> type;
+    private final String name;
+    private final int start;
+    private final int end;
+    private @Nullable String rawJson;
+    private @Nullable Object value;
+    private volatile boolean resolved;
+
+    LazyConfigEntry(ObjectMapper objectMapper, Class<?> type, String name, String rawJson, int start, int end) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.name = name;
+        this.rawJson = rawJson;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Nullable Object get() {
+        if (!resolved) {
+            synchronized (this) {
+                if (!resolved) {
+                    try {
+                        value = objectMapper.readValue(rawJson.substring(start, end), type);
+                    } catch (IOException e) {
+                        throw new ConfigException("Something went wrong when parsing configuration entry '" +
+                                name + "'", e);
+                    }
+                    // Release the reference to the full JSON once the entry is resolved
+                    rawJson = null;
+                    resolved = true;
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyConfigEntry{name=" + name + ", type=" + type.getName() + ", resolved=" + resolved + "}";
+    }
+}
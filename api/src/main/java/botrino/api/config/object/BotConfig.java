@@ -32,6 +32,8 @@ import discord4j.core.object.presence.ClientPresence;
 import discord4j.core.object.presence.Status;
 import org.immutables.value.Value;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.OptionalLong;
 
@@ -47,6 +49,27 @@ public interface BotConfig {
     @JsonProperty("enabled_intents")
     OptionalLong enabledIntents();
 
+    @JsonProperty("watch_config")
+    @Value.Default
+    default boolean watchConfig() {
+        return false;
+    }
+
+    Optional<I18nConfig> i18n();
+
+    @Value.Immutable
+    @JsonDeserialize(as = ImmutableI18nConfig.class)
+    interface I18nConfig {
+
+        List<String> bundles();
+
+        List<String> locales();
+
+        default List<Locale> localeList() {
+            return locales().stream().map(Locale::forLanguageTag).toList();
+        }
+    }
+
     @Value.Immutable
     @JsonDeserialize(as = ImmutableStatusConfig.class)
     interface StatusConfig {
@@ -0,0 +1,181 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.i18n;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches the resource bundles and the compiled {@link MessageFormat} instances used by
+ * {@link Translator#translate(String, String, Object...)}, so that translating a string doesn't need to look up the
+ * bundle and parse the pattern every time.
+ */
+final class TranslationCache {
+
+    private static final ConcurrentHashMap<BundleKey, CachedBundle> BUNDLES = new ConcurrentHashMap<>();
+
+    private TranslationCache() {
+        throw new AssertionError();
+    }
+
+    static String translate(String bundle, Locale locale, String key, Object @Nullable ... args) {
+        var bundleKey = new BundleKey(bundle, locale);
+        var cached = BUNDLES.get(bundleKey);
+        if (cached == null) {
+            cached = BUNDLES.computeIfAbsent(bundleKey,
+                    k -> new CachedBundle(ResourceBundle.getBundle(k.bundle, k.locale)));
+        }
+        return cached.format(key, args);
+    }
+
+    /**
+     * Creates an empty table of compiled patterns indexed by their source string, to share between calls to
+     * {@link #preload(String, Locale, Map)}. The table is safe to use from multiple threads.
+     *
+     * @return a new table
+     */
+    static Map<String, CachedPattern> newPatternTable() {
+        return new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Loads the given bundle for the given locale and compiles all of its strings. Patterns that are identical across
+     * bundles and locales share the same compiled instance via the given table.
+     *
+     * @param bundle   the name of the bundle
+     * @param locale   the locale
+     * @param interned the table of compiled patterns indexed by their source string, see {@link #newPatternTable()}
+     * @return the locale and the keys of the bundle that was found
+     */
+    static PreloadedBundle preload(String bundle, Locale locale, Map<String, CachedPattern> interned) {
+        var cached = BUNDLES.computeIfAbsent(new BundleKey(bundle, locale),
+                k -> new CachedBundle(ResourceBundle.getBundle(k.bundle, k.locale)));
+        for (var key : cached.resourceBundle.keySet()) {
+            // A pattern already compiled by a translation is shared rather than compiled again
+            cached.patterns.compute(key, (k, existing) -> interned.computeIfAbsent(cached.resourceBundle.getString(k),
+                    source -> existing != null ? existing : CachedPattern.compile(source)));
+        }
+        return new PreloadedBundle(cached.resourceBundle.getLocale(), ownKeys(bundle, cached.resourceBundle));
+    }
+
+    /**
+     * Gets the keys defined by the given bundle itself. {@link ResourceBundle#keySet()} includes the keys of the parent
+     * bundles and {@link ResourceBundle#handleKeySet()} is not accessible, so the properties file of the bundle is read
+     * again on its own. If the bundle is not backed by a properties file, all of its keys are returned.
+     */
+    private static Set<String> ownKeys(String bundle, ResourceBundle resourceBundle) {
+        var locale = resourceBundle.getLocale();
+        if (locale.equals(Locale.ROOT)) {
+            // The base bundle has no parent
+            return resourceBundle.keySet();
+        }
+        var control = ResourceBundle.Control.getControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+        var resourceName = control.toResourceName(control.toBundleName(bundle, locale), "properties");
+        try (var in = openResource(resourceName)) {
+            return in == null ? resourceBundle.keySet() : new PropertyResourceBundle(in).keySet();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static @Nullable InputStream openResource(String name) throws IOException {
+        // Same lookup as ResourceBundle.getBundle from this module: this module first, then the class loader
+        var in = TranslationCache.class.getModule().getResourceAsStream(name);
+        return in != null ? in : TranslationCache.class.getClassLoader().getResourceAsStream(name);
+    }
+
+    private record BundleKey(String bundle, Locale locale) {}
+
+    /**
+     * The bundle found when preloading a bundle for a locale.
+     *
+     * @param locale  the locale of the bundle, which differs from the requested one if there is no translation file for
+     *                it, {@link Locale#ROOT} for the base bundle
+     * @param ownKeys the keys defined in the bundle for this locale, excluding those only inherited from a parent bundle
+     */
+    record PreloadedBundle(Locale locale, Set<String> ownKeys) {}
+
+    private static final class CachedBundle {
+
+        private final ResourceBundle resourceBundle;
+        private final ConcurrentHashMap<String, CachedPattern> patterns = new ConcurrentHashMap<>();
+
+        private CachedBundle(ResourceBundle resourceBundle) {
+            this.resourceBundle = resourceBundle;
+        }
+
+        private String format(String key, Object @Nullable ... args) {
+            var pattern = patterns.get(key);
+            if (pattern == null) {
+                pattern = patterns.computeIfAbsent(key, k -> CachedPattern.compile(resourceBundle.getString(k)));
+            }
+            return pattern.format(args);
+        }
+    }
+
+    static final class CachedPattern {
+
+        private final String withoutArgs;
+        private final @Nullable MessageFormat prototype;
+        // MessageFormat is not thread-safe, this keeps one instance that threads can borrow without locking
+        private final AtomicReference<@Nullable MessageFormat> pooled;
+
+        private CachedPattern(String withoutArgs, @Nullable MessageFormat prototype) {
+            this.withoutArgs = withoutArgs;
+            this.prototype = prototype;
+            this.pooled = new AtomicReference<>(prototype == null ? null : (MessageFormat) prototype.clone());
+        }
+
+        private static CachedPattern compile(String pattern) {
+            if (pattern.indexOf('{') == -1 && pattern.indexOf('\'') == -1) {
+                // Formatting would return the pattern unchanged regardless of the arguments
+                return new CachedPattern(pattern, null);
+            }
+            var prototype = new MessageFormat(pattern);
+            return new CachedPattern(prototype.format(new Object[0]), prototype);
+        }
+
+        private String format(Object @Nullable ... args) {
+            if (prototype == null || args == null || args.length == 0) {
+                return withoutArgs;
+            }
+            var format = pooled.getAndSet(null);
+            if (format == null) {
+                format = (MessageFormat) prototype.clone();
+            }
+            try {
+                return format.format(args);
+            } finally {
+                pooled.set(format);
+            }
+        }
+    }
+}
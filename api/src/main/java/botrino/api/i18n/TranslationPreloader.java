@@ -0,0 +1,107 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.i18n;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toCollection;
+
+final class TranslationPreloader {
+
+    private static final Logger LOGGER = Loggers.getLogger(TranslationPreloader.class);
+
+    private TranslationPreloader() {
+        throw new AssertionError();
+    }
+
+    static Mono<Void> preload(Collection<String> bundles, Collection<Locale> locales) {
+        final var interned = TranslationCache.newPatternTable();
+        return Flux.fromIterable(bundles)
+                .flatMap(bundle -> Flux.fromIterable(locales)
+                        .flatMap(locale -> Mono.fromCallable(() -> Tuples.of(locale,
+                                        TranslationCache.preload(bundle, locale, interned)))
+                                .subscribeOn(Schedulers.boundedElastic()))
+                        .collectMap(Tuple2::getT1, Tuple2::getT2)
+                        .doOnNext(preloaded -> report(bundle, preloaded)))
+                .then(Mono.fromRunnable(() -> LOGGER.debug("Preloaded {} bundle(s) for {} locale(s), {} distinct " +
+                        "string(s)", bundles.size(), locales.size(), interned.size())));
+    }
+
+    private static void report(String bundle, Map<Locale, TranslationCache.PreloadedBundle> preloaded) {
+        final var fallbacks = fallbacks(preloaded);
+        fallbacks.forEach((locale, fallback) -> LOGGER.warn("Bundle '{}' has no translation file for locale '{}', " +
+                "it falls back to {}", bundle, locale.toLanguageTag(), fallback.equals(Locale.ROOT)
+                ? "the base bundle" : "locale '" + fallback.toLanguageTag() + "'"));
+        // Keys of a locale that falls back to another one are those of the other one, they are only compared once
+        final var keysByLocale = new HashMap<Locale, Set<String>>();
+        preloaded.forEach((locale, bundleFound) -> {
+            if (!fallbacks.containsKey(locale)) {
+                keysByLocale.put(locale, bundleFound.ownKeys());
+            }
+        });
+        reportMissingKeys(bundle, keysByLocale);
+    }
+
+    /**
+     * Finds the locales for which another locale's bundle was found, most likely because their translation file is
+     * missing. As the base bundle is usually written in one of the supported languages, a single locale using it is
+     * not reported, but all of them are if several locales do.
+     *
+     * @param preloaded the bundles found for each locale
+     * @return the locale of the bundle found for each reported locale
+     */
+    static Map<Locale, Locale> fallbacks(Map<Locale, TranslationCache.PreloadedBundle> preloaded) {
+        final var usingBase = preloaded.values().stream()
+                .filter(bundleFound -> bundleFound.locale().equals(Locale.ROOT))
+                .count();
+        final var fallbacks = new HashMap<Locale, Locale>();
+        preloaded.forEach((locale, bundleFound) -> {
+            if (!bundleFound.locale().equals(locale) && (usingBase > 1 || !bundleFound.locale().equals(Locale.ROOT))) {
+                fallbacks.put(locale, bundleFound.locale());
+            }
+        });
+        return fallbacks;
+    }
+
+    private static void reportMissingKeys(String bundle, Map<Locale, Set<String>> keysByLocale) {
+        final var allKeys = keysByLocale.values().stream()
+                .flatMap(Set::stream)
+                .collect(toCollection(TreeSet::new));
+        keysByLocale.forEach((locale, keys) -> {
+            final var missing = allKeys.stream().filter(key -> !keys.contains(key)).toList();
+            if (!missing.isEmpty()) {
+                LOGGER.warn("Bundle '{}' is missing the following key(s) for locale '{}': {}", bundle,
+                        locale.toLanguageTag(), String.join(", ", missing));
+            }
+        });
+    }
+}
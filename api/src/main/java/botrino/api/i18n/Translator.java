@@ -23,8 +23,12 @@
  */
 package botrino.api.i18n;
 
+import reactor.core.publisher.Mono;
+
 import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.Locale;
+import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 
 /**
@@ -44,15 +48,31 @@ public interface Translator {
     }
 
     /**
-     * Translates a string.
+     * Loads the given bundles for the given locales in parallel, and compiles all of their strings in advance, so that
+     * the first translations don't need to load them. Keys that are defined for some locales but not for others are
+     * reported in the logs.
+     *
+     * @param bundles the names of the bundles to load
+     * @param locales the locales to load the bundles for
+     * @return a Mono completing when all bundles are loaded. It will error with {@link MissingResourceException} if a
+     * bundle cannot be found.
+     */
+    static Mono<Void> preload(Collection<String> bundles, Collection<Locale> locales) {
+        return TranslationPreloader.preload(bundles, locales);
+    }
+
+    /**
+     * Translates a string. The string is formatted using {@link MessageFormat}. Resource bundles and compiled formats
+     * are cached, so that translating the same string again doesn't need to look up the bundle and parse the pattern.
      *
      * @param bundle the name of the bundle where to find the strings
      * @param key    the key identifying the string
      * @param args   the arguments of the string, if any
      * @return the translated string
+     * @see ResourceBundle#getBundle(String, Locale)
      */
     default String translate(String bundle, String key, Object... args) {
-        return MessageFormat.format(ResourceBundle.getBundle(bundle, getLocale()).getString(key), args);
+        return TranslationCache.translate(bundle, getLocale(), key, args);
     }
 
     /**
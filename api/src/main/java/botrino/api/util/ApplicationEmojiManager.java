@@ -23,36 +23,40 @@
  */
 package botrino.api.util;
 
+import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
 import discord4j.core.object.entity.ApplicationEmoji;
 import discord4j.core.object.entity.ApplicationInfo;
+import discord4j.core.spec.ApplicationEmojiCreateSpec;
+import discord4j.core.spec.ApplicationEmojiEditSpec;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.Logger;
-import reactor.util.Loggers;
+import reactor.core.publisher.Sinks;
 
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Function;
-
-import static java.util.stream.Collectors.toUnmodifiableMap;
+import java.util.*;
 
 /**
  * Convenience class to load application emojis and cache them for synchronous use.
  * <p>
- * The cache indexes emojis by case-insensitive names. If multiple emojis with the same name are found, it will accept
- * one of them (often the first one but no guarantee) and a warning will be logged.
+ * The cache indexes emojis by case-insensitive names, and stores the mention string of each emoji so that it can be
+ * inserted in messages without being formatted again, see {@link #mention(String)} and {@link #render(String)}. If
+ * multiple emojis with the same name are found, the first one is kept and a warning is logged.
+ * <p>
+ * The cache is an immutable snapshot, so reading it costs a single volatile read, and each change builds a new
+ * snapshot, which is linear in the number of emojis (at most 2000 per application). Discord does not send gateway
+ * events when application emojis change, so the snapshot is kept fresh in two ways: emojis created, edited or deleted
+ * via this manager are applied to the cache without requesting the full list again, and {@link #reload()} requests the
+ * full list but only builds a new snapshot if it differs from the cached one. In both cases, only the emojis that
+ * changed are published to {@link #changes()}.
  */
 public final class ApplicationEmojiManager {
 
-    private static final Logger LOGGER = Loggers.getLogger(ApplicationEmojiManager.class);
-
-    private final AtomicReference<Map<String, ApplicationEmoji>> emojiCache;
     private final GatewayDiscordClient gateway;
+    private final Sinks.Many<Change> changeSink = Sinks.many().multicast().directBestEffort();
+    private volatile Snapshot snapshot;
 
-    private ApplicationEmojiManager(Map<String, ApplicationEmoji> emojiCache, GatewayDiscordClient gateway) {
-        this.emojiCache = new AtomicReference<>(emojiCache);
+    ApplicationEmojiManager(Collection<ApplicationEmoji> emojis, GatewayDiscordClient gateway) {
+        this.snapshot = Snapshot.of(emojis);
         this.gateway = gateway;
     }
 
@@ -67,17 +71,68 @@ public final class ApplicationEmojiManager {
      */
     public static Mono<ApplicationEmojiManager> load(GatewayDiscordClient gateway) {
         Objects.requireNonNull(gateway);
-        return loadApplicationEmojis(gateway).map(emojis -> new ApplicationEmojiManager(emojis, gateway));
+        return loadApplicationEmojis(gateway)
+                .map(emojis -> new ApplicationEmojiManager(emojis, gateway));
     }
 
     /**
-     * Reloads application emojis with the latest data from the API and updates the cache. In case of error during
-     * reload, the cache is left untouched.
+     * Reloads application emojis with the latest data from the API and updates the cache. The API has no way to only
+     * return the emojis that changed, so all of them are requested and compared to the cached ones. If nothing changed,
+     * the cache is left as is, otherwise a new snapshot is built and only the emojis that were created, modified or
+     * deleted since the last load are published to {@link #changes()}. In case of error during reload, the cache is
+     * left untouched.
      *
      * @return a Mono completing empty after the cache is updated.
      */
     public Mono<Void> reload() {
-        return loadApplicationEmojis(gateway).doOnNext(emojiCache::set).then();
+        return loadApplicationEmojis(gateway).doOnNext(this::applyAll).then();
+    }
+
+    /**
+     * Creates a new application emoji and adds it to the cache.
+     *
+     * @param spec the spec of the emoji to create
+     * @return a Mono emitting the created emoji
+     */
+    public Mono<ApplicationEmoji> createEmoji(ApplicationEmojiCreateSpec spec) {
+        Objects.requireNonNull(spec);
+        return gateway.getApplicationInfo()
+                .flatMap(app -> app.createEmoji(spec))
+                .doOnNext(this::put);
+    }
+
+    /**
+     * Edits an application emoji and updates it in the cache.
+     *
+     * @param emoji the emoji to edit
+     * @param spec  the spec of the modifications
+     * @return a Mono emitting the edited emoji
+     */
+    public Mono<ApplicationEmoji> editEmoji(ApplicationEmoji emoji, ApplicationEmojiEditSpec spec) {
+        Objects.requireNonNull(emoji);
+        Objects.requireNonNull(spec);
+        return emoji.edit(spec).doOnNext(this::put);
+    }
+
+    /**
+     * Deletes an application emoji and removes it from the cache.
+     *
+     * @param emoji the emoji to delete
+     * @return a Mono completing when the emoji is deleted
+     */
+    public Mono<Void> deleteEmoji(ApplicationEmoji emoji) {
+        Objects.requireNonNull(emoji);
+        return emoji.delete().then(Mono.fromRunnable(() -> remove(emoji.getId())));
+    }
+
+    /**
+     * Gets a Flux emitting the changes applied to the cache from the moment of subscription. Changes applied while no
+     * subscriber is ready to receive them are dropped.
+     *
+     * @return a Flux of changes
+     */
+    public Flux<Change> changes() {
+        return changeSink.asFlux();
     }
 
     /**
@@ -89,20 +144,165 @@ public final class ApplicationEmojiManager {
      * @throws NoSuchElementException if an emoji with the given name does not exist
      */
     public ApplicationEmoji get(String emojiName) {
+        var table = snapshot.table;
+        return table.emoji(indexOf(table, emojiName));
+    }
+
+    /**
+     * Gets the mention string (<code>&lt;:name:id&gt;</code>, or <code>&lt;a:name:id&gt;</code> if animated) of an
+     * emoji with the given name, allowing to display it in a message. The mention string is computed once when the
+     * emoji is cached.
+     *
+     * @param emojiName the name of the emoji to get (case-insensitive)
+     * @return the mention string of the emoji
+     * @throws NoSuchElementException if an emoji with the given name does not exist
+     */
+    public String mention(String emojiName) {
+        var table = snapshot.table;
+        return table.mention(indexOf(table, emojiName));
+    }
+
+    /**
+     * Replaces all <code>:name:</code> tokens of the given template with the mention string of the emoji with that
+     * name, in a single pass. Tokens that don't match the name of a cached emoji are left as is. For example, if an
+     * emoji named "gold" exists, <code>"1. :gold: Alice"</code> is rendered as
+     * <code>"1. &lt;:gold:123&gt; Alice"</code>.
+     *
+     * @param template the template to render
+     * @return the rendered string, or the template itself if it contains no known emoji
+     */
+    public String render(String template) {
+        Objects.requireNonNull(template);
+        var table = snapshot.table;
+        StringBuilder sb = null;
+        var copied = 0;
+        var start = template.indexOf(':');
+        while (start >= 0) {
+            var end = start + 1;
+            while (end < template.length() && isEmojiNameChar(template.charAt(end))) {
+                end++;
+            }
+            if (end == template.length() || template.charAt(end) != ':') {
+                start = end == template.length() ? -1 : template.indexOf(':', end);
+                continue;
+            }
+            var index = end > start + 1 ? table.indexOf(template, start + 1, end) : -1;
+            if (index < 0) {
+                // The closing colon may be the opening colon of the next token
+                start = end;
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(template.length() + 32);
+            }
+            sb.append(template, copied, start).append(table.mention(index));
+            copied = end + 1;
+            start = template.indexOf(':', copied);
+        }
+        if (sb == null) {
+            return template;
+        }
+        return sb.append(template, copied, template.length()).toString();
+    }
+
+    private static int indexOf(EmojiTable table, String emojiName) {
         Objects.requireNonNull(emojiName);
-        var emoji = emojiCache.get().get(emojiName.toLowerCase());
-        if (emoji == null) {
+        var index = table.indexOf(emojiName);
+        if (index < 0) {
             throw new NoSuchElementException("No emoji found with name " + emojiName);
         }
-        return emoji;
+        return index;
+    }
+
+    private static boolean isEmojiNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private synchronized void put(ApplicationEmoji emoji) {
+        var current = snapshot;
+        var old = current.byId.get(emoji.getId());
+        if (old != null && old.getData().equals(emoji.getData())) {
+            return;
+        }
+        var byId = new LinkedHashMap<>(current.byId);
+        byId.put(emoji.getId(), emoji);
+        snapshot = Snapshot.of(byId.values());
+        changeSink.tryEmitNext(new Change(old == null ? Change.Type.CREATED : Change.Type.UPDATED, emoji));
+    }
+
+    private synchronized void remove(Snowflake emojiId) {
+        var current = snapshot;
+        var old = current.byId.get(emojiId);
+        if (old == null) {
+            return;
+        }
+        var byId = new LinkedHashMap<>(current.byId);
+        byId.remove(emojiId);
+        snapshot = Snapshot.of(byId.values());
+        changeSink.tryEmitNext(new Change(Change.Type.DELETED, old));
     }
 
-    private static Mono<Map<String, ApplicationEmoji>> loadApplicationEmojis(GatewayDiscordClient gateway) {
+    synchronized void applyAll(List<ApplicationEmoji> emojis) {
+        var current = snapshot;
+        var changes = new ArrayList<Change>();
+        var remaining = new HashMap<>(current.byId);
+        for (var emoji : emojis) {
+            var old = remaining.remove(emoji.getId());
+            if (old == null) {
+                changes.add(new Change(Change.Type.CREATED, emoji));
+            } else if (!old.getData().equals(emoji.getData())) {
+                changes.add(new Change(Change.Type.UPDATED, emoji));
+            }
+        }
+        remaining.values().forEach(old -> changes.add(new Change(Change.Type.DELETED, old)));
+        if (changes.isEmpty()) {
+            return;
+        }
+        snapshot = Snapshot.of(emojis);
+        changes.forEach(changeSink::tryEmitNext);
+    }
+
+    private static Mono<List<ApplicationEmoji>> loadApplicationEmojis(GatewayDiscordClient gateway) {
         return gateway.getApplicationInfo()
                 .flatMapMany(ApplicationInfo::getEmojis)
-                .collect(toUnmodifiableMap(emoji -> emoji.getName().toLowerCase(), Function.identity(), (a, b) -> {
-                    LOGGER.warn("Emojis with duplicate names detected ({}), unexpected outcome may occur", a.getName());
-                    return a;
-                }));
+                .collectList();
+    }
+
+    /**
+     * A change applied to the cached emojis.
+     *
+     * @param type  the type of change
+     * @param emoji the emoji after the change, or the removed emoji if the type is {@link Type#DELETED}
+     */
+    public record Change(Type type, ApplicationEmoji emoji) {
+
+        /**
+         * The type of change.
+         */
+        public enum Type {
+            /**
+             * The emoji was added.
+             */
+            CREATED,
+            /**
+             * The name or the properties of the emoji were modified.
+             */
+            UPDATED,
+            /**
+             * The emoji was removed.
+             */
+            DELETED
+        }
+    }
+
+    private record Snapshot(Map<Snowflake, ApplicationEmoji> byId, EmojiTable table) {
+
+        static Snapshot of(Collection<ApplicationEmoji> emojis) {
+            var byId = new LinkedHashMap<Snowflake, ApplicationEmoji>();
+            for (var emoji : emojis) {
+                byId.put(emoji.getId(), emoji);
+            }
+            return new Snapshot(Collections.unmodifiableMap(byId), EmojiTable.of(byId.values()));
+        }
     }
 }
@@ -25,16 +25,20 @@ package botrino.api.util;
 
 import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
-import discord4j.core.object.entity.Guild;
 import discord4j.core.object.entity.Role;
 import discord4j.core.object.entity.User;
 import discord4j.core.object.entity.channel.GuildChannel;
+import discord4j.rest.http.client.ClientException;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
 
 /**
- * Contains utility methods to parse a user input into a Discord entity.
+ * Contains utility methods to parse a user input into a Discord entity. If the input is neither an ID nor a mention,
+ * the entity is looked up by name in the {@link NameDirectory}.
  */
 public final class DiscordParser {
 
@@ -49,21 +53,17 @@ public final class DiscordParser {
      * @return a Mono emitting the found user
      */
     public static Mono<User> parseUser(GatewayDiscordClient gateway, String str) {
-        return Mono.just(str)
-                .map(Snowflake::of)
-                .onErrorResume(e -> Mono.just(str.substring(2, str.length() - 1))
-                        .map(Snowflake::of))
-                .onErrorResume(e -> Mono.just(str.substring(3, str.length() - 1))
-                        .map(Snowflake::of))
-                .flatMap(userId -> gateway.getUserById(userId).single())
-                .onErrorResume(e -> gateway.getUsers()
-                        .filter(user -> user.getTag().startsWith(str))
-                        .next()
-                        .single());
+        var token = MentionToken.parse(str);
+        var byName = Mono.defer(() -> firstMatch(NameDirectory.of(gateway).searchUsers(str, 1),
+                gateway::getUserById));
+        return switch (token.kind()) {
+            case ID, USER_MENTION, NICKNAME_MENTION -> byIdOrElse(gateway.getUserById(idOf(token)), byName);
+            default -> byName;
+        };
     }
 
     /**
-     * Parses the input into a Discord role. Emits {@link NoSuchElementException} if not found. =
+     * Parses the input into a Discord role. Emits {@link NoSuchElementException} if not found.
      *
      * @param gateway the gateway client used to make requests to Discord
      * @param guildId the ID of the guild the desired role belongs to
@@ -71,17 +71,13 @@ public final class DiscordParser {
      * @return a Mono emitting the found role
      */
     public static Mono<Role> parseRole(GatewayDiscordClient gateway, Snowflake guildId, String str) {
-        return Mono.just(str)
-                .map(Snowflake::of)
-                .onErrorResume(e -> Mono.just(str.substring(3, str.length() - 1))
-                        .map(Snowflake::of))
-                .flatMap(roleId -> gateway.getRoleById(guildId, roleId).single())
-                .onErrorResume(e -> gateway
-                        .getGuildById(guildId)
-                        .flatMapMany(Guild::getRoles)
-                        .filter(r -> r.getName().toLowerCase().startsWith(str.toLowerCase()))
-                        .next()
-                        .single());
+        var token = MentionToken.parse(str);
+        var byName = Mono.defer(() -> firstMatch(NameDirectory.of(gateway).searchRoles(guildId, str, 1),
+                roleId -> gateway.getRoleById(guildId, roleId)));
+        return switch (token.kind()) {
+            case ID, ROLE_MENTION -> byIdOrElse(gateway.getRoleById(guildId, idOf(token)), byName);
+            default -> byName;
+        };
     }
 
     /**
@@ -93,17 +89,32 @@ public final class DiscordParser {
      * @return a Mono emitting the found channel
      */
     public static Mono<GuildChannel> parseGuildChannel(GatewayDiscordClient gateway, Snowflake guildId, String str) {
-        return Mono.just(str)
-                .map(Snowflake::of)
-                .onErrorResume(e -> Mono.just(str.substring(2, str.length() - 1))
-                        .map(Snowflake::of))
-                .flatMap(channelId -> gateway.getChannelById(channelId).single())
-                .ofType(GuildChannel.class)
-                .onErrorResume(e -> gateway.getGuildById(guildId)
-                        .flatMapMany(Guild::getChannels)
-                        .filter(r -> r.getName().toLowerCase().startsWith(str.toLowerCase()))
-                        .next()
-                        .single());
+        var token = MentionToken.parse(str);
+        var byName = Mono.defer(() -> firstMatch(NameDirectory.of(gateway).searchChannels(guildId, str, 1),
+                channelId -> gateway.getChannelById(channelId).ofType(GuildChannel.class)));
+        return switch (token.kind()) {
+            case ID, CHANNEL_MENTION -> byIdOrElse(gateway.getChannelById(idOf(token)).ofType(GuildChannel.class),
+                    byName);
+            default -> byName;
+        };
+    }
+
+    private static Snowflake idOf(MentionToken token) {
+        return Objects.requireNonNull(token.id());
+    }
+
+    private static <T> Mono<T> byIdOrElse(Mono<T> byId, Mono<T> byName) {
+        // An ID that doesn't resolve may still be the name of the entity
+        return byId.onErrorResume(e -> Mono.empty()).switchIfEmpty(byName);
+    }
+
+    private static <T> Mono<T> firstMatch(Mono<List<NameDirectory.Entry>> results, Function<Snowflake, Mono<T>> fetch) {
+        return results.flatMapIterable(Function.identity())
+                .next()
+                // The entity may have been deleted since it was indexed, which is reported as not found as well
+                .flatMap(entry -> fetch.apply(entry.id()).onErrorResume(ClientException.isStatusCode(404),
+                        e -> Mono.empty()))
+                .single();
     }
 
 }
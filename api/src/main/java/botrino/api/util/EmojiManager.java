@@ -25,10 +25,13 @@ package botrino.api.util;
 
 import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.guild.EmojisUpdateEvent;
 import discord4j.core.object.entity.GuildEmoji;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -89,6 +92,31 @@ public class EmojiManager {
                 .then();
     }
 
+    /**
+     * Keeps the loaded emojis up to date by listening to the emoji update events of the guilds specified when creating
+     * this manager. Only the emojis of the updated guild are replaced, so it is meant to be used after an initial call
+     * to {@link #loadFromGateway(GatewayDiscordClient)} rather than periodic reloads. If an emoji added to a guild has
+     * the same name as an emoji of another guild, the one already loaded is kept.
+     *
+     * @param gateway the gateway client to listen events from
+     * @return a {@link Disposable} allowing to stop listening
+     */
+    public Disposable listenToUpdates(GatewayDiscordClient gateway) {
+        Objects.requireNonNull(gateway);
+        return gateway.on(EmojisUpdateEvent.class)
+                .filter(event -> guildIds.contains(event.getGuildId()))
+                .subscribe(event -> emojiCache.updateAndGet(emojis -> {
+                    var updated = new HashMap<String, GuildEmoji>();
+                    emojis.forEach((name, emoji) -> {
+                        if (!emoji.getGuildId().equals(event.getGuildId())) {
+                            updated.put(name, emoji);
+                        }
+                    });
+                    event.getEmojis().forEach(emoji -> updated.putIfAbsent(emoji.getName().toLowerCase(), emoji));
+                    return Map.copyOf(updated);
+                }));
+    }
+
     /**
      * Gets the emoji with the given name.
      *
@@ -0,0 +1,129 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import discord4j.core.object.entity.ApplicationEmoji;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.util.Collection;
+
+/**
+ * Open-addressing hash table of emojis indexed by case-folded name, storing for each emoji its precomputed mention
+ * string. Names are folded character by character while hashing and comparing, so that looking up a name, or a region
+ * of a larger text, does not need to create a lowercased copy of it.
+ */
+final class EmojiTable {
+
+    private static final Logger LOGGER = Loggers.getLogger(ApplicationEmojiManager.class);
+
+    private final String[] keys;
+    private final ApplicationEmoji[] emojis;
+    private final String[] mentions;
+    private final int mask;
+
+    private EmojiTable(int capacity) {
+        this.keys = new String[capacity];
+        this.emojis = new ApplicationEmoji[capacity];
+        this.mentions = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    static EmojiTable of(Collection<ApplicationEmoji> emojis) {
+        // Load factor of at most 0.5 to keep probe sequences short
+        var capacity = Integer.highestOneBit(Math.max(emojis.size(), 1) * 2 - 1) << 1;
+        var table = new EmojiTable(Math.max(capacity, 2));
+        for (var emoji : emojis) {
+            table.insert(emoji);
+        }
+        return table;
+    }
+
+    int indexOf(CharSequence name) {
+        return indexOf(name, 0, name.length());
+    }
+
+    int indexOf(CharSequence text, int start, int end) {
+        var i = hash(text, start, end) & mask;
+        String key;
+        while ((key = keys[i]) != null) {
+            if (matches(key, text, start, end)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    ApplicationEmoji emoji(int index) {
+        return emojis[index];
+    }
+
+    String mention(int index) {
+        return mentions[index];
+    }
+
+    private void insert(ApplicationEmoji emoji) {
+        var name = emoji.getName();
+        var i = hash(name, 0, name.length()) & mask;
+        while (keys[i] != null) {
+            if (matches(keys[i], name, 0, name.length())) {
+                LOGGER.warn("Emojis with duplicate names detected ({}), unexpected outcome may occur", name);
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = fold(name);
+        emojis[i] = emoji;
+        mentions[i] = emoji.asFormat();
+    }
+
+    private static String fold(String name) {
+        var chars = new char[name.length()];
+        for (var i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(name.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        var h = 0;
+        for (var i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence text, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (var i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != Character.toLowerCase(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -23,13 +23,18 @@
  */
 package botrino.api.util;
 
-import java.util.ArrayList;
-import java.util.Set;
-
 import static java.util.stream.Collectors.joining;
 
 public final class Markdown {
 
+    private static final boolean[] CHARS_TO_ESCAPE = new boolean[128];
+
+    static {
+        for (var c : "\\_*~`:@#|<>&".toCharArray()) {
+            CHARS_TO_ESCAPE[c] = true;
+        }
+    }
+
     private Markdown() {
     }
 
@@ -40,17 +45,55 @@ public final class Markdown {
      * @return String
      */
     public static String escape(String text) {
-        var resultList = new ArrayList<Character>();
-        var charsToEscape = Set.of('\\', '_', '*', '~', '`', ':', '@', '#', '|', '<', '>', '&');
-        for (char c : text.toCharArray()) {
-            if (charsToEscape.contains(c))
-                resultList.add('\\');
-            resultList.add(c);
+        var first = firstCharToEscape(text, 0);
+        if (first == -1) {
+            return text;
+        }
+        var sb = new StringBuilder(text.length() + 16);
+        sb.append(text, 0, first);
+        escapeTo(sb, text, first);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the given text to the StringBuilder, escaping the characters used in Markdown syntax.
+     *
+     * @param sb   the StringBuilder to append to
+     * @param text the text to escape
+     */
+    static void escapeTo(StringBuilder sb, CharSequence text) {
+        escapeTo(sb, text, 0);
+    }
+
+    /**
+     * Creates a new {@link MarkdownBuilder}, allowing to compose Markdown text without creating intermediate strings.
+     *
+     * @return a new {@link MarkdownBuilder}
+     */
+    public static MarkdownBuilder builder() {
+        return new MarkdownBuilder(new StringBuilder());
+    }
+
+    private static void escapeTo(StringBuilder sb, CharSequence text, int from) {
+        var start = from;
+        for (var i = from; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (c < 128 && CHARS_TO_ESCAPE[c]) {
+                sb.append(text, start, i).append('\\');
+                start = i;
+            }
+        }
+        sb.append(text, start, text.length());
+    }
+
+    private static int firstCharToEscape(String text, int from) {
+        for (var i = from; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (c < 128 && CHARS_TO_ESCAPE[c]) {
+                return i;
+            }
         }
-        char[] result = new char[resultList.size()];
-        for (int i = 0; i < result.length; i++)
-            result[i] = resultList.get(i);
-        return new String(result);
+        return -1;
     }
 
     /**
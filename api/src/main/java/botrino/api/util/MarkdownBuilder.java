@@ -0,0 +1,304 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Composes Markdown text in a single {@link StringBuilder}. Formatting methods accepting a {@link Consumer} allow to
+ * nest formats without creating intermediate strings, for example:
+ * <pre>
+ *     Markdown.builder()
+ *             .bold(b -&gt; b.italic(i -&gt; i.code("value")))
+ *             .text(" by ")
+ *             .escaped(userName)
+ *             .build();
+ * </pre>
+ * Instances are not thread-safe.
+ */
+public final class MarkdownBuilder {
+
+    private final StringBuilder sb;
+
+    MarkdownBuilder(StringBuilder sb) {
+        this.sb = sb;
+    }
+
+    /**
+     * Appends the text as-is.
+     *
+     * @param text the text to append
+     * @return this builder
+     */
+    public MarkdownBuilder text(CharSequence text) {
+        sb.append(text);
+        return this;
+    }
+
+    /**
+     * Appends the text, escaping the characters used in Markdown syntax.
+     *
+     * @param text the text to append
+     * @return this builder
+     * @see Markdown#escape(String)
+     */
+    public MarkdownBuilder escaped(CharSequence text) {
+        Markdown.escapeTo(sb, text);
+        return this;
+    }
+
+    /**
+     * Appends a line break.
+     *
+     * @return this builder
+     */
+    public MarkdownBuilder newLine() {
+        sb.append('\n');
+        return this;
+    }
+
+    /**
+     * Appends the text formatted with bold markdown.
+     *
+     * @param text the text to format
+     * @return this builder
+     * @see Markdown#bold(String)
+     */
+    public MarkdownBuilder bold(CharSequence text) {
+        return wrap("**", text);
+    }
+
+    /**
+     * Appends the content written by the given consumer, formatted with bold markdown.
+     *
+     * @param content the consumer writing the content to format
+     * @return this builder
+     * @see Markdown#bold(String)
+     */
+    public MarkdownBuilder bold(Consumer<? super MarkdownBuilder> content) {
+        return wrap("**", content);
+    }
+
+    /**
+     * Appends the text formatted with italic markdown, using the star variant.
+     *
+     * @param text the text to format
+     * @return this builder
+     * @see Markdown#italic(String)
+     */
+    public MarkdownBuilder italic(CharSequence text) {
+        return wrap("*", text);
+    }
+
+    /**
+     * Appends the content written by the given consumer, formatted with italic markdown, using the star variant.
+     *
+     * @param content the consumer writing the content to format
+     * @return this builder
+     * @see Markdown#italic(String)
+     */
+    public MarkdownBuilder italic(Consumer<? super MarkdownBuilder> content) {
+        return wrap("*", content);
+    }
+
+    /**
+     * Appends the text formatted with underline markdown.
+     *
+     * @param text the text to format
+     * @return this builder
+     * @see Markdown#underline(String)
+     */
+    public MarkdownBuilder underline(CharSequence text) {
+        return wrap("__", text);
+    }
+
+    /**
+     * Appends the content written by the given consumer, formatted with underline markdown.
+     *
+     * @param content the consumer writing the content to format
+     * @return this builder
+     * @see Markdown#underline(String)
+     */
+    public MarkdownBuilder underline(Consumer<? super MarkdownBuilder> content) {
+        return wrap("__", content);
+    }
+
+    /**
+     * Appends the text formatted with strikethrough markdown.
+     *
+     * @param text the text to format
+     * @return this builder
+     * @see Markdown#strikethrough(String)
+     */
+    public MarkdownBuilder strikethrough(CharSequence text) {
+        return wrap("~~", text);
+    }
+
+    /**
+     * Appends the content written by the given consumer, formatted with strikethrough markdown.
+     *
+     * @param content the consumer writing the content to format
+     * @return this builder
+     * @see Markdown#strikethrough(String)
+     */
+    public MarkdownBuilder strikethrough(Consumer<? super MarkdownBuilder> content) {
+        return wrap("~~", content);
+    }
+
+    /**
+     * Appends the text formatted with spoiler markdown.
+     *
+     * @param text the text to format
+     * @return this builder
+     * @see Markdown#spoiler(String)
+     */
+    public MarkdownBuilder spoiler(CharSequence text) {
+        return wrap("||", text);
+    }
+
+    /**
+     * Appends the content written by the given consumer, formatted with spoiler markdown.
+     *
+     * @param content the consumer writing the content to format
+     * @return this builder
+     * @see Markdown#spoiler(String)
+     */
+    public MarkdownBuilder spoiler(Consumer<? super MarkdownBuilder> content) {
+        return wrap("||", content);
+    }
+
+    /**
+     * Appends the text formatted as code.
+     *
+     * @param text the text to format
+     * @return this builder
+     * @see Markdown#code(String)
+     */
+    public MarkdownBuilder code(CharSequence text) {
+        return wrap("`", text);
+    }
+
+    /**
+     * Appends a masked link. Note that this only works in Discord embed fields and descriptions, not in regular
+     * messages.
+     *
+     * @param clickableText the text that should be clickable
+     * @param url           the url to redirect to when the text is clicked
+     * @return this builder
+     * @see Markdown#maskedLink(String, String)
+     */
+    public MarkdownBuilder maskedLink(CharSequence clickableText, CharSequence url) {
+        sb.append('[').append(clickableText).append("](").append(url).append(')');
+        return this;
+    }
+
+    /**
+     * Appends the text formatted as a code block.
+     *
+     * @param text     the text to format
+     * @param language the language of the code (hint for syntax highlighting)
+     * @return this builder
+     * @see Markdown#codeBlock(String, String)
+     */
+    public MarkdownBuilder codeBlock(CharSequence text, String language) {
+        sb.append("```").append(language).append('\n').append(text).append("\n```\n");
+        return this;
+    }
+
+    /**
+     * Appends the text formatted as a quote.
+     *
+     * @param text the text to format
+     * @return this builder
+     * @see Markdown#quote(String)
+     */
+    public MarkdownBuilder quote(CharSequence text) {
+        var length = text.length();
+        var lineStart = 0;
+        var first = true;
+        while (lineStart < length) {
+            var lineEnd = lineStart;
+            while (lineEnd < length && text.charAt(lineEnd) != '\n' && text.charAt(lineEnd) != '\r') {
+                lineEnd++;
+            }
+            if (!first) {
+                sb.append('\n');
+            }
+            first = false;
+            if (!isBlank(text, lineStart, lineEnd)) {
+                sb.append("> ");
+            }
+            sb.append(text, lineStart, lineEnd);
+            if (lineEnd < length - 1 && text.charAt(lineEnd) == '\r' && text.charAt(lineEnd + 1) == '\n') {
+                lineEnd++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return this;
+    }
+
+    /**
+     * Gets the length of the text composed so far.
+     *
+     * @return the length
+     */
+    public int length() {
+        return sb.length();
+    }
+
+    /**
+     * Builds the composed Markdown text.
+     *
+     * @return the text
+     */
+    public String build() {
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return build();
+    }
+
+    private MarkdownBuilder wrap(String delimiter, CharSequence text) {
+        sb.append(delimiter).append(text).append(delimiter);
+        return this;
+    }
+
+    private MarkdownBuilder wrap(String delimiter, Consumer<? super MarkdownBuilder> content) {
+        sb.append(delimiter);
+        content.accept(this);
+        sb.append(delimiter);
+        return this;
+    }
+
+    private static boolean isBlank(CharSequence text, int start, int end) {
+        for (var i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
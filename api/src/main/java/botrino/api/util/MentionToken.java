@@ -0,0 +1,154 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import discord4j.common.util.Snowflake;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The result of classifying a user input as either a Discord ID, a mention or free text. Classification is done in a
+ * single pass over the input and does not throw when the input is not an ID.
+ *
+ * @param kind the kind of input
+ * @param id   the ID contained in the input, or <code>null</code> if the kind is {@link Kind#TEXT}
+ * @param text the original input
+ */
+public record MentionToken(Kind kind, @Nullable Snowflake id, String text) {
+
+    private static final int MAX_ID_DIGITS = 20;
+    // IDs are unsigned 64-bit integers, their max value is 18446744073709551615
+    private static final long MAX_ID_DIV_10 = 1844674407370955161L;
+    private static final int MAX_ID_LAST_DIGIT = 5;
+
+    /**
+     * Classifies the given input.
+     *
+     * @param input the input
+     * @return the token
+     */
+    public static MentionToken parse(String input) {
+        var length = input.length();
+        if (length == 0) {
+            return text(input);
+        }
+        if (input.charAt(0) != '<') {
+            var id = parseId(input, 0, length);
+            return id == null ? text(input) : new MentionToken(Kind.ID, id, input);
+        }
+        if (length < 4 || input.charAt(length - 1) != '>') {
+            return text(input);
+        }
+        Kind kind;
+        int start;
+        switch (input.charAt(1)) {
+            case '#' -> {
+                kind = Kind.CHANNEL_MENTION;
+                start = 2;
+            }
+            case '@' -> {
+                switch (input.charAt(2)) {
+                    case '!' -> {
+                        kind = Kind.NICKNAME_MENTION;
+                        start = 3;
+                    }
+                    case '&' -> {
+                        kind = Kind.ROLE_MENTION;
+                        start = 3;
+                    }
+                    default -> {
+                        kind = Kind.USER_MENTION;
+                        start = 2;
+                    }
+                }
+            }
+            default -> {
+                return text(input);
+            }
+        }
+        var id = parseId(input, start, length - 1);
+        return id == null ? text(input) : new MentionToken(kind, id, input);
+    }
+
+    private static MentionToken text(String input) {
+        return new MentionToken(Kind.TEXT, null, input);
+    }
+
+    private static @Nullable Snowflake parseId(String input, int start, int end) {
+        if (start == end || end - start > MAX_ID_DIGITS) {
+            return null;
+        }
+        var value = 0L;
+        for (var i = start; i < end; i++) {
+            var digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            if (Long.compareUnsigned(value, MAX_ID_DIV_10) > 0 ||
+                    (value == MAX_ID_DIV_10 && digit > MAX_ID_LAST_DIGIT)) {
+                return null;
+            }
+            value = value * 10 + digit;
+        }
+        return Snowflake.of(value);
+    }
+
+    /**
+     * Whether the input is a raw ID or a mention.
+     *
+     * @return a boolean
+     */
+    public boolean hasId() {
+        return kind != Kind.TEXT;
+    }
+
+    /**
+     * The different kinds of input.
+     */
+    public enum Kind {
+        /**
+         * A raw ID, for example <code>123456789</code>.
+         */
+        ID,
+        /**
+         * A user mention, for example <code>&lt;@123456789&gt;</code>.
+         */
+        USER_MENTION,
+        /**
+         * A user mention in the nickname format, for example <code>&lt;@!123456789&gt;</code>.
+         */
+        NICKNAME_MENTION,
+        /**
+         * A role mention, for example <code>&lt;@&amp;123456789&gt;</code>.
+         */
+        ROLE_MENTION,
+        /**
+         * A channel mention, for example <code>&lt;#123456789&gt;</code>.
+         */
+        CHANNEL_MENTION,
+        /**
+         * Anything else.
+         */
+        TEXT
+    }
+}
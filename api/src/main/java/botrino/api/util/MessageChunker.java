@@ -0,0 +1,209 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits a text into chunks lazily, in a single pass over the text. See
+ * {@link MessageUtils#chunks(CharSequence, int)}.
+ */
+final class MessageChunker implements Iterator<String> {
+
+    private static final String FENCE = "```";
+    private static final String QUOTE_BLOCK = ">>> ";
+    // Below this limit, there isn't enough room to carry markdown over to the next chunk
+    private static final int MIN_MARKDOWN_MAX_CHARACTERS = 16;
+
+    private final CharSequence text;
+    private final int maxCharacters;
+    private final boolean markdown;
+    private final StringBuilder chunk;
+    private int pos;
+    // Remaining part of a line that didn't fit in the previous chunk, if any
+    private int pendingLineStart = -1, pendingLineEnd;
+    private String reopenPrefix = "";
+    private boolean inCodeBlock;
+
+    MessageChunker(CharSequence text, int maxCharacters) {
+        if (maxCharacters < 1) {
+            throw new IllegalArgumentException("maxCharacters must be positive");
+        }
+        this.text = text;
+        this.maxCharacters = maxCharacters;
+        this.markdown = maxCharacters >= MIN_MARKDOWN_MAX_CHARACTERS;
+        this.chunk = new StringBuilder(Math.min(maxCharacters, text.length() + FENCE.length() * 2 + 2));
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pendingLineStart != -1 || pos < text.length();
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        chunk.setLength(0);
+        chunk.append(reopenPrefix);
+        var prefixLength = chunk.length();
+        while (hasNext()) {
+            int lineStart, lineEnd;
+            var continuation = pendingLineStart != -1;
+            if (continuation) {
+                lineStart = pendingLineStart;
+                lineEnd = pendingLineEnd;
+                pendingLineStart = -1;
+            } else {
+                lineStart = pos;
+                lineEnd = lineEnd(lineStart);
+                pos = nextLineStart(lineEnd);
+            }
+            var isFence = markdown && !continuation && isFence(lineStart, lineEnd);
+            var inCodeBlockAfter = isFence != inCodeBlock;
+            var closingLength = inCodeBlockAfter ? FENCE.length() + 1 : 0;
+            if (chunk.length() + (lineEnd - lineStart) + 1 + closingLength <= maxCharacters) {
+                chunk.append(text, lineStart, lineEnd).append('\n');
+                if (isFence) {
+                    updateCodeBlockState(lineStart, lineEnd);
+                } else if (markdown && !inCodeBlock && !continuation && startsWith(lineStart, lineEnd, QUOTE_BLOCK)) {
+                    reopenPrefix = QUOTE_BLOCK;
+                }
+                continue;
+            }
+            if (chunk.length() > prefixLength) {
+                // The line doesn't fit in this chunk but may fit in the next one
+                pendingLineStart = lineStart;
+                pendingLineEnd = lineEnd;
+                if (!continuation) {
+                    // Only the beginning of a line can be a fence or a quote block
+                    pos = lineStart;
+                    pendingLineStart = -1;
+                }
+                break;
+            }
+            if (isFence) {
+                // The fence is too long to fit in a single chunk, keep it without the language
+                chunk.append(FENCE).append('\n');
+                updateCodeBlockState(lineStart, lineEnd);
+                continue;
+            }
+            // The line is too long to fit in a single chunk, split it. The reopened markdown is short enough to leave
+            // room for a surrogate pair, so only the line break may have to be dropped when markdown is disabled.
+            var available = maxCharacters - chunk.length() - 1 - (inCodeBlock ? FENCE.length() + 1 : 0);
+            var lineBreak = available >= Character.charCount(Character.codePointAt(text, lineStart));
+            var splitIndex = splitIndex(lineStart, lineEnd, lineBreak ? available : available + 1);
+            chunk.append(text, lineStart, splitIndex);
+            if (lineBreak) {
+                chunk.append('\n');
+            }
+            if (splitIndex < lineEnd) {
+                pendingLineStart = splitIndex;
+                pendingLineEnd = lineEnd;
+            }
+            if (!continuation) {
+                pos = nextLineStart(lineEnd);
+            }
+            break;
+        }
+        if (inCodeBlock && hasNext()) {
+            chunk.append(FENCE).append('\n');
+        }
+        return chunk.toString();
+    }
+
+    private void updateCodeBlockState(int lineStart, int lineEnd) {
+        inCodeBlock = !inCodeBlock;
+        if (inCodeBlock) {
+            var language = text.subSequence(lineStart + FENCE.length(), lineEnd).toString().strip();
+            // The language is dropped if it takes too much room in the chunks that reopen the code block
+            reopenPrefix = FENCE.length() + language.length() + 1 <= maxCharacters / 2 ? FENCE + language + '\n' :
+                    FENCE + '\n';
+        } else {
+            reopenPrefix = "";
+        }
+    }
+
+    private int lineEnd(int from) {
+        var i = from;
+        while (i < text.length() && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    private int nextLineStart(int lineEnd) {
+        if (lineEnd >= text.length()) {
+            return lineEnd;
+        }
+        if (text.charAt(lineEnd) == '\r' && lineEnd + 1 < text.length() && text.charAt(lineEnd + 1) == '\n') {
+            return lineEnd + 2;
+        }
+        return lineEnd + 1;
+    }
+
+    private boolean isFence(int lineStart, int lineEnd) {
+        if (!startsWith(lineStart, lineEnd, FENCE)) {
+            return false;
+        }
+        for (var i = lineStart + FENCE.length(); i <= lineEnd - FENCE.length(); i++) {
+            if (startsWith(i, lineEnd, FENCE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean startsWith(int from, int end, String prefix) {
+        if (end - from < prefix.length()) {
+            return false;
+        }
+        for (var i = 0; i < prefix.length(); i++) {
+            if (text.charAt(from + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int splitIndex(int lineStart, int lineEnd, int available) {
+        var limit = lineStart + available;
+        if (limit >= lineEnd) {
+            return lineEnd;
+        }
+        // Prefer splitting after a whitespace, if there is one in the second half
+        for (var i = limit; i > lineStart + available / 2; i--) {
+            if (Character.isWhitespace(text.charAt(i - 1))) {
+                return i;
+            }
+        }
+        // Never split a surrogate pair
+        if (Character.isHighSurrogate(text.charAt(limit - 1)) && Character.isLowSurrogate(text.charAt(limit))) {
+            return limit - 1 > lineStart ? limit - 1 : limit + 1;
+        }
+        return limit;
+    }
+}
@@ -26,9 +26,12 @@ package botrino.api.util;
 import discord4j.core.spec.*;
 import discord4j.discordjson.possible.Possible;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class MessageUtils {
 
@@ -38,37 +41,41 @@ public final class MessageUtils {
 
     /**
      * Splits a message into several chunks which size is specified. If the chunk ends while the text is inside a
-     * codeblock or a blockquote, proper markdown is added to make the message continuous across chunks. This does not
-     * apply to inline markdown such as bold, italic or spoilers.
+     * codeblock or a {@code >>>} blockquote, proper markdown is added to make the message continuous across chunks,
+     * including the language of the codeblock. This does not apply to inline markdown such as bold, italic or spoilers.
+     * Lines that are too long to fit in a single chunk are split, preferably after a whitespace, and never in the
+     * middle of a surrogate pair.
+     * <p>
+     * No markdown is added if maxCharacters is less than 16, as it wouldn't leave enough room for the text. Chunks
+     * never exceed maxCharacters, except when it is 1 and a chunk holds a character that is not in the Basic
+     * Multilingual Plane.
+     * <p>
+     * The chunks are computed lazily as the stream is consumed, in a single pass over the text.
      *
      * @param superLongMessage the message to split
-     * @param maxCharacters    the max characters that a single chunk may have
+     * @param maxCharacters    the max characters that a single chunk may have, must be positive
+     * @return a Stream which elements are the chunks in the correct order
+     * @throws IllegalArgumentException if maxCharacters is not positive
+     */
+    public static Stream<String> chunks(CharSequence superLongMessage, int maxCharacters) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new MessageChunker(superLongMessage, maxCharacters), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Splits a message into several chunks which size is specified. If the chunk ends while the text is inside a
+     * codeblock or a {@code >>>} blockquote, proper markdown is added to make the message continuous across chunks.
+     * This does not apply to inline markdown such as bold, italic or spoilers.
+     *
+     * @param superLongMessage the message to split
+     * @param maxCharacters    the max characters that a single chunk may have, must be positive
      * @return a List which elements are the chunks in the correct order
+     * @throws IllegalArgumentException if maxCharacters is not positive
+     * @see #chunks(CharSequence, int)
      */
     public static List<String> chunk(String superLongMessage, int maxCharacters) {
-        var chunks = new ArrayList<String>();
-        var currentChunk = new StringBuilder();
-        var inCodeblock = false;
-        for (var line : superLongMessage.lines().toList()) {
-            inCodeblock = (line.startsWith("```") && !line.substring(3).contains("```")) != inCodeblock;
-            if (currentChunk.length() + line.length() + 1 >= maxCharacters) {
-                if (inCodeblock) {
-                    currentChunk.append("```\n");
-                }
-                chunks.add(currentChunk.substring(0, Math.min(currentChunk.length(), maxCharacters)));
-                currentChunk.delete(0, currentChunk.length());
-            } else {
-                if (!chunks.isEmpty() && currentChunk.isEmpty()) {
-                    if (inCodeblock) {
-                        currentChunk.append("```\n");
-                    }
-                }
-            }
-            currentChunk.append(line);
-            currentChunk.append('\n');
-        }
-        chunks.add(currentChunk.toString());
-        return chunks;
+        var chunks = chunks(superLongMessage, maxCharacters).toList();
+        return chunks.isEmpty() ? List.of("") : chunks;
     }
 
     /**
@@ -0,0 +1,255 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.PresenceUpdateEvent;
+import discord4j.core.event.domain.channel.*;
+import discord4j.core.event.domain.guild.GuildCreateEvent;
+import discord4j.core.event.domain.guild.GuildDeleteEvent;
+import discord4j.core.event.domain.guild.MemberChunkEvent;
+import discord4j.core.event.domain.guild.MemberJoinEvent;
+import discord4j.core.event.domain.guild.MemberLeaveEvent;
+import discord4j.core.event.domain.guild.MemberUpdateEvent;
+import discord4j.core.event.domain.role.RoleCreateEvent;
+import discord4j.core.event.domain.role.RoleDeleteEvent;
+import discord4j.core.event.domain.role.RoleUpdateEvent;
+import discord4j.core.object.entity.Member;
+import discord4j.core.retriever.EntityRetrievalStrategy;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Directory of the names of the users, roles and channels visible by the bot, allowing to search them by name prefix
+ * without scanning all of them. Searches ignore case and accents, and match the start of the name first, then the
+ * start of any word of the name.
+ * <p>
+ * Users are indexed by tag and by their nicknames in the guilds they share with the bot. They are indexed from the
+ * members in the gateway cache the first time they are searched, then kept up to date from member and presence events,
+ * and removed once they are no longer a member of any guild of the bot. Roles and channels are indexed per guild the
+ * first time they are searched in that guild, and the index of a guild is rebuilt after a role or channel of that guild
+ * is created, updated or deleted.
+ */
+public final class NameDirectory {
+
+    private static final Map<GatewayDiscordClient, NameDirectory> DIRECTORIES = new ConcurrentHashMap<>();
+
+    private final GatewayDiscordClient gateway;
+    private final NameIndex users = new NameIndex();
+    private final Mono<Void> usersLoaded;
+    // The nickname of each indexed user in each guild they are a member of, or an empty string if they have none
+    private final Map<Snowflake, Map<Snowflake, String>> nicknamesByUser = new ConcurrentHashMap<>();
+    private final Map<Snowflake, Set<Snowflake>> membersByGuild = new ConcurrentHashMap<>();
+    private final Map<Snowflake, Mono<NameIndex>> rolesByGuild = new ConcurrentHashMap<>();
+    private final Map<Snowflake, Mono<NameIndex>> channelsByGuild = new ConcurrentHashMap<>();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private NameDirectory(GatewayDiscordClient gateway) {
+        this.gateway = gateway;
+        this.usersLoaded = gateway.withRetrievalStrategy(EntityRetrievalStrategy.STORE).getGuilds()
+                .flatMap(guild -> guild.getMembers(EntityRetrievalStrategy.STORE))
+                .doOnNext(this::indexMember)
+                .then()
+                .cache();
+    }
+
+    // Started once the directory is registered, as a client that is already disconnected unregisters it right away
+    private void listenToEvents() {
+        subscriptions.add(Flux.merge(
+                        gateway.on(MemberJoinEvent.class).map(MemberJoinEvent::getMember),
+                        gateway.on(MemberUpdateEvent.class).flatMap(MemberUpdateEvent::getMember),
+                        gateway.on(MemberChunkEvent.class).flatMapIterable(MemberChunkEvent::getMembers),
+                        gateway.on(GuildCreateEvent.class)
+                                .flatMap(event -> event.getGuild().getMembers(EntityRetrievalStrategy.STORE)))
+                .subscribe(this::indexMember));
+        subscriptions.add(gateway.on(MemberLeaveEvent.class)
+                .subscribe(event -> removeMember(event.getGuildId(), event.getUser().getId())));
+        subscriptions.add(gateway.on(PresenceUpdateEvent.class)
+                .filter(event -> event.getNewUsername().isPresent() || event.getNewDiscriminator().isPresent())
+                .flatMap(PresenceUpdateEvent::getUser)
+                .subscribe(user -> nicknamesByUser.computeIfPresent(user.getId(), (id, nicknames) -> {
+                    users.put(id, user.getTag(), aliases(nicknames));
+                    return nicknames;
+                })));
+        subscriptions.add(Flux.merge(
+                        gateway.on(RoleCreateEvent.class).map(RoleCreateEvent::getGuildId),
+                        gateway.on(RoleUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                        gateway.on(RoleDeleteEvent.class).map(RoleDeleteEvent::getGuildId))
+                .subscribe(rolesByGuild::remove));
+        subscriptions.add(Flux.merge(
+                        gateway.on(TextChannelCreateEvent.class).map(event -> event.getChannel().getGuildId()),
+                        gateway.on(TextChannelUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                        gateway.on(TextChannelDeleteEvent.class).map(event -> event.getChannel().getGuildId()),
+                        gateway.on(NewsChannelCreateEvent.class).map(event -> event.getChannel().getGuildId()),
+                        gateway.on(NewsChannelUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                        gateway.on(NewsChannelDeleteEvent.class).map(event -> event.getChannel().getGuildId()),
+                        gateway.on(VoiceChannelCreateEvent.class).map(event -> event.getChannel().getGuildId()),
+                        gateway.on(VoiceChannelUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                        gateway.on(VoiceChannelDeleteEvent.class).map(event -> event.getChannel().getGuildId()),
+                        gateway.on(ForumChannelCreateEvent.class).map(event -> event.getChannel().getGuildId()),
+                        gateway.on(ForumChannelUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                        gateway.on(ForumChannelDeleteEvent.class).map(event -> event.getChannel().getGuildId()),
+                        gateway.on(CategoryCreateEvent.class).map(event -> event.getCategory().getGuildId()),
+                        gateway.on(CategoryUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                        gateway.on(CategoryDeleteEvent.class).map(event -> event.getCategory().getGuildId()))
+                .subscribe(channelsByGuild::remove));
+        subscriptions.add(Flux.merge(
+                        gateway.on(GuildCreateEvent.class).map(event -> event.getGuild().getId()),
+                        gateway.on(GuildDeleteEvent.class).map(GuildDeleteEvent::getGuildId))
+                .subscribe(guildId -> {
+                    rolesByGuild.remove(guildId);
+                    channelsByGuild.remove(guildId);
+                }));
+        // Members of a guild that is only unavailable are kept, they are indexed again when the guild is back
+        subscriptions.add(gateway.on(GuildDeleteEvent.class)
+                .filter(event -> !event.isUnavailable())
+                .subscribe(event -> {
+                    var members = membersByGuild.remove(event.getGuildId());
+                    if (members != null) {
+                        members.forEach(userId -> removeMember(event.getGuildId(), userId));
+                    }
+                }));
+        subscriptions.add(gateway.onDisconnect().subscribe(null, null, () -> {
+            DIRECTORIES.remove(gateway, this);
+            subscriptions.dispose();
+        }));
+    }
+
+    /**
+     * Gets the directory associated to the given gateway client, creating it if it doesn't exist yet. The directory
+     * is discarded when the client disconnects.
+     *
+     * @param gateway the gateway client
+     * @return the directory
+     */
+    public static NameDirectory of(GatewayDiscordClient gateway) {
+        var existing = DIRECTORIES.get(gateway);
+        if (existing != null) {
+            return existing;
+        }
+        var created = new NameDirectory(gateway);
+        existing = DIRECTORIES.putIfAbsent(gateway, created);
+        if (existing != null) {
+            return existing;
+        }
+        created.listenToEvents();
+        return created;
+    }
+
+    /**
+     * Searches users which tag starts with the given query.
+     *
+     * @param query the beginning of the tag
+     * @param limit the max number of results
+     * @return a Mono emitting the matching users, best matches first
+     */
+    public Mono<List<Entry>> searchUsers(String query, int limit) {
+        return usersLoaded.then(Mono.fromCallable(() -> users.search(query, limit)));
+    }
+
+    /**
+     * Searches roles of the given guild which name starts with the given query.
+     *
+     * @param guildId the ID of the guild
+     * @param query   the beginning of the name
+     * @param limit   the max number of results
+     * @return a Mono emitting the matching roles, best matches first
+     */
+    public Mono<List<Entry>> searchRoles(Snowflake guildId, String query, int limit) {
+        return index(rolesByGuild, guildId, id -> gateway.getGuildRoles(id)
+                        .map(role -> new Entry(role.getId(), role.getName())))
+                .map(index -> index.search(query, limit));
+    }
+
+    /**
+     * Searches channels of the given guild which name starts with the given query.
+     *
+     * @param guildId the ID of the guild
+     * @param query   the beginning of the name
+     * @param limit   the max number of results
+     * @return a Mono emitting the matching channels, best matches first
+     */
+    public Mono<List<Entry>> searchChannels(Snowflake guildId, String query, int limit) {
+        return index(channelsByGuild, guildId, id -> gateway.getGuildChannels(id)
+                        .map(channel -> new Entry(channel.getId(), channel.getName())))
+                .map(index -> index.search(query, limit));
+    }
+
+    private void indexMember(Member member) {
+        membersByGuild.computeIfAbsent(member.getGuildId(), id -> ConcurrentHashMap.newKeySet()).add(member.getId());
+        nicknamesByUser.compute(member.getId(), (id, nicknames) -> {
+            var updated = nicknames == null ? new HashMap<Snowflake, String>() : nicknames;
+            updated.put(member.getGuildId(), member.getNickname().orElse(""));
+            users.put(id, member.getTag(), aliases(updated));
+            return updated;
+        });
+    }
+
+    private void removeMember(Snowflake guildId, Snowflake userId) {
+        var members = membersByGuild.get(guildId);
+        if (members != null) {
+            members.remove(userId);
+        }
+        nicknamesByUser.computeIfPresent(userId, (id, nicknames) -> {
+            nicknames.remove(guildId);
+            var entry = users.get(id);
+            if (nicknames.isEmpty() || entry == null) {
+                users.remove(id);
+                return null;
+            }
+            users.put(id, entry.name(), aliases(nicknames));
+            return nicknames;
+        });
+    }
+
+    private static List<String> aliases(Map<Snowflake, String> nicknames) {
+        return nicknames.values().stream().filter(nickname -> !nickname.isEmpty()).toList();
+    }
+
+    private static Mono<NameIndex> index(Map<Snowflake, Mono<NameIndex>> indexes, Snowflake guildId,
+                                         Function<Snowflake, Flux<Entry>> entries) {
+        return Mono.defer(() -> indexes.computeIfAbsent(guildId, id -> entries.apply(id)
+                .collect(NameIndex::new, (index, entry) -> index.put(entry.id(), entry.name()))
+                .doOnError(e -> indexes.remove(id))
+                .cache()));
+    }
+
+    /**
+     * An entity found in the directory.
+     *
+     * @param id   the ID of the entity
+     * @param name the name of the entity, or the tag if the entity is a user
+     */
+    public record Entry(Snowflake id, String name) {}
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import discord4j.common.util.Snowflake;
+import org.jspecify.annotations.Nullable;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted index of names allowing to find entities by name prefix in logarithmic time. Names are folded so that
+ * lookups ignore case and accents, and each word of a name is indexed so that a query can match any word of the name,
+ * although matches on the start of the name come first. An entity may also be found by aliases, which are matched the
+ * same way as its name.
+ */
+final class NameIndex {
+
+    private static final char FULL_NAME = '0';
+    private static final char WORD = '1';
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, NameDirectory.Entry> entriesByKey = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Snowflake, Indexed> indexedById = new ConcurrentHashMap<>();
+
+    void put(Snowflake id, String name) {
+        put(id, name, List.of());
+    }
+
+    synchronized void put(Snowflake id, String name, Collection<String> aliases) {
+        var names = new LinkedHashSet<String>();
+        names.add(name);
+        names.addAll(aliases);
+        var old = indexedById.get(id);
+        if (old != null) {
+            if (old.names().equals(names)) {
+                return;
+            }
+            old.keys().forEach(entriesByKey::remove);
+        }
+        var entry = new NameDirectory.Entry(id, name);
+        var keys = new LinkedHashSet<String>();
+        names.forEach(n -> keys.addAll(keys(id, n)));
+        keys.forEach(key -> entriesByKey.put(key, entry));
+        indexedById.put(id, new Indexed(entry, names, keys));
+    }
+
+    synchronized void remove(Snowflake id) {
+        var old = indexedById.remove(id);
+        if (old != null) {
+            old.keys().forEach(entriesByKey::remove);
+        }
+    }
+
+    NameDirectory.@Nullable Entry get(Snowflake id) {
+        var indexed = indexedById.get(id);
+        return indexed == null ? null : indexed.entry();
+    }
+
+    int size() {
+        return indexedById.size();
+    }
+
+    List<NameDirectory.Entry> search(String query, int limit) {
+        var folded = fold(query).replace(String.valueOf(ID_SEPARATOR), "");
+        var results = new LinkedHashMap<Snowflake, NameDirectory.Entry>();
+        collect(FULL_NAME + folded, limit, results);
+        collect(WORD + folded, limit, results);
+        return List.copyOf(results.values());
+    }
+
+    static String fold(String name) {
+        var isAscii = true;
+        for (var i = 0; i < name.length() && isAscii; i++) {
+            isAscii = name.charAt(i) < 128;
+        }
+        if (isAscii) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+        var decomposed = Normalizer.normalize(name, Normalizer.Form.NFKD);
+        var sb = new StringBuilder(decomposed.length());
+        for (var i = 0; i < decomposed.length(); i++) {
+            var c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private void collect(String prefix, int limit, LinkedHashMap<Snowflake, NameDirectory.Entry> results) {
+        for (var entry : entriesByKey.tailMap(prefix).entrySet()) {
+            if (results.size() >= limit || !entry.getKey().startsWith(prefix)) {
+                return;
+            }
+            results.putIfAbsent(entry.getValue().id(), entry.getValue());
+        }
+    }
+
+    private static List<String> keys(Snowflake id, String name) {
+        var folded = fold(name);
+        var suffix = ID_SEPARATOR + id.asString();
+        var keys = new ArrayList<String>(2);
+        keys.add(FULL_NAME + folded + suffix);
+        for (var i = 1; i < folded.length(); i++) {
+            if (isWordSeparator(folded.charAt(i - 1)) && !isWordSeparator(folded.charAt(i))) {
+                keys.add(WORD + folded.substring(i) + suffix);
+            }
+        }
+        return keys;
+    }
+
+    private static boolean isWordSeparator(char c) {
+        return Character.isWhitespace(c) || c == '-' || c == '_' || c == '.';
+    }
+
+    private record Indexed(NameDirectory.Entry entry, Set<String> names, Set<String> keys) {}
+}
@@ -0,0 +1,250 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2024 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.config;
+
+import botrino.api.annotation.ConfigEntry;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigParserTest {
+
+    // Makes the deserialization fail if the region of a lazy entry extends past its value
+    private static final ObjectMapper STRICT_MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+    private static final List<Class<?>> LAZY_ENTRIES = List.of(LazyString.class, LazyNumber.class,
+            LazyBoolean.class, LazyArray.class, LazyObject.class);
+    private static final Map<String, AtomicInteger> DESERIALIZATIONS = new ConcurrentHashMap<>();
+    private static final String JSON = """
+            {"scalar": {"name": "foo", "count": 1}, "nested": {"inner": {"a": "x", "b": {"k": 1}}, "tags": ["t"]}}""";
+
+    private final ConfigParser parser = ConfigParser.create(new ObjectMapper(),
+            Set.of(ScalarEntry.class, NestedEntry.class));
+
+    private static int deserializations(String entry) {
+        return DESERIALIZATIONS.computeIfAbsent(entry, k -> new AtomicInteger()).get();
+    }
+
+    private static void deserialized(String entry) {
+        DESERIALIZATIONS.computeIfAbsent(entry, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    @BeforeEach
+    public void resetDeserializations() {
+        DESERIALIZATIONS.clear();
+    }
+
+    @Test
+    public void unchangedEntriesAreNotDeserializedAgain() {
+        parser.parse(JSON);
+        final var reformatted = """
+                {
+                  "scalar":   {"name": "foo", "count": 1},
+
+                  "nested":{"inner": {"a": "x", "b": {"k": 1}}, "tags": ["t"]}
+                }
+                """;
+        assertEquals(Map.of(), parser.parseChanges(JSON, reformatted));
+        assertEquals(1, deserializations("scalar"));
+        assertEquals(1, deserializations("nested"));
+    }
+
+    @Test
+    public void changedScalarEntryIsReported() {
+        final var changed = JSON.replace("\"count\": 1", "\"count\": 2");
+        final var changes = parser.parseChanges(JSON, changed);
+        assertEquals(Map.of("scalar", new ScalarEntry("foo", 2)), changes);
+        assertEquals(0, deserializations("nested"));
+    }
+
+    @Test
+    public void changedNestedEntryIsReported() {
+        final var changed = JSON.replace("\"k\": 1", "\"k\": 2");
+        final var changes = parser.parseChanges(JSON, changed);
+        assertEquals(Map.of("nested", new NestedEntry(new Inner("x", Map.of("k", 2)), List.of("t"))), changes);
+        assertEquals(0, deserializations("scalar"));
+    }
+
+    @Test
+    public void missingEntryIsRejected() {
+        final var missing = """
+                {"scalar": {"name": "bar", "count": 1}}""";
+        assertThrows(ConfigException.class, () -> parser.parseChanges(JSON, missing));
+    }
+
+    @Test
+    public void invalidEntryIsRejected() {
+        final var invalid = JSON.replace("\"count\": 1", "\"count\": \"one\"");
+        assertThrows(ConfigException.class, () -> parser.parseChanges(JSON, invalid));
+    }
+
+    @Test
+    public void changedLazyEntryIsDeserializedRightAway() {
+        final var json = """
+                {"string": "old", "number": 1, "boolean": true, "array": [], "object": {}}""";
+        final var lazyParser = ConfigParser.create(STRICT_MAPPER, Set.copyOf(LAZY_ENTRIES));
+        assertEquals(Map.of("string", new LazyString("new")),
+                lazyParser.parseChanges(json, json.replace("\"old\"", "\"new\"")));
+        assertThrows(ConfigException.class,
+                () -> lazyParser.parseChanges(json, json.replace("\"old\"", "{\"not\": \"a string\"}")));
+    }
+
+    @Test
+    public void changesOnlyEmitForChangedEntries() {
+        final var container = ConfigContainer.of(parser.parse(JSON));
+        final var scalarChanges = new CopyOnWriteArrayList<ScalarEntry>();
+        final var nestedChanges = new CopyOnWriteArrayList<NestedEntry>();
+        final var subscriptions = List.of(
+                container.changes(ScalarEntry.class).subscribe(scalarChanges::add),
+                container.changes(NestedEntry.class).subscribe(nestedChanges::add));
+        container.update(parser.parseChanges(JSON, JSON.replace("\"foo\"", "\"bar\"")));
+        subscriptions.forEach(Disposable::dispose);
+        assertEquals(List.of(new ScalarEntry("bar", 1)), scalarChanges);
+        assertEquals(List.of(), nestedChanges);
+    }
+
+    @Test
+    public void getReturnsNewObjectAfterUpdate() {
+        final var container = ConfigContainer.of(parser.parse(JSON));
+        // Resolves the entries in the current snapshot before it is replaced
+        final var before = container.get(ScalarEntry.class);
+        final var nested = container.get(NestedEntry.class);
+        container.update(parser.parseChanges(JSON, JSON.replace("\"foo\"", "\"bar\"")));
+        assertEquals(new ScalarEntry("bar", 1), container.get(ScalarEntry.class));
+        assertEquals(new ScalarEntry("foo", 1), before);
+        assertSame(nested, container.get(NestedEntry.class));
+    }
+
+    @Test
+    public void getReturnsNewLazyObjectAfterUpdate() {
+        final var json = """
+                {"string": "old", "number": 1, "boolean": true, "array": [], "object": {}}""";
+        final var lazyParser = ConfigParser.create(STRICT_MAPPER, Set.copyOf(LAZY_ENTRIES));
+        final var container = ConfigContainer.of(lazyParser.parse(json));
+        final var before = container.get(LazyString.class);
+        container.update(lazyParser.parseChanges(json, json.replace("\"old\"", "\"new\"")));
+        assertEquals(new LazyString("new"), container.get(LazyString.class));
+        assertEquals(new LazyString("old"), before);
+    }
+
+    private static void assertLazyEntriesMatchEager(List<String> fields) throws Exception {
+        final var json = "{" + String.join(",", fields) + "}";
+        final var container = ConfigContainer.of(ConfigParser.create(STRICT_MAPPER, Set.copyOf(LAZY_ENTRIES))
+                .parse(json));
+        final var tree = STRICT_MAPPER.readTree(json);
+        for (final var type : LAZY_ENTRIES) {
+            final var eager = STRICT_MAPPER.treeToValue(tree.get(type.getAnnotation(ConfigEntry.class).value()), type);
+            assertEquals(eager, container.get(type), json);
+        }
+    }
+
+    @Test
+    public void lazyEntriesDeserializeLikeEagerOnes() throws Exception {
+        final var fields = new ArrayList<>(List.of(
+                "\"string\": \"quote \\\" backslash \\\\ unicode \\u00e9 newline \\n }\"",
+                "\"number\":-12.5e3",
+                "\"boolean\" : true",
+                "\"array\": [1, \"two\", [3], {\"four\": 4}]",
+                "\"object\": {\"inner\": {\"a\": \"x}\", \"b\": {\"k\": 1}}, \"tags\": [\"t\"]}"));
+        // Each kind of value is tested as the last field, directly followed by the end of the object
+        for (var i = 0; i < fields.size(); i++) {
+            assertLazyEntriesMatchEager(fields);
+            Collections.rotate(fields, 1);
+        }
+    }
+
+    @Test
+    public void unknownTopLevelFieldsAreSkipped() {
+        final var json = """
+                {"unknown": {"scalar": [1, {"nested": "}"}]}, "scalar": {"name": "foo", "count": 1}, "other": 2,
+                "nested": {"inner": {"a": "x", "b": {}}, "tags": []}, "last": "value"}""";
+        final var configObjects = parser.parse(json);
+        assertEquals(Set.of("scalar", "nested"), configObjects.keySet());
+        assertEquals(new ScalarEntry("foo", 1), configObjects.get("scalar"));
+        assertEquals(new NestedEntry(new Inner("x", Map.of()), List.of()), configObjects.get("nested"));
+    }
+
+    @ConfigEntry("scalar")
+    public record ScalarEntry(String name, int count) {
+
+        public ScalarEntry {
+            deserialized("scalar");
+        }
+    }
+
+    @ConfigEntry("nested")
+    public record NestedEntry(Inner inner, List<String> tags) {
+
+        public NestedEntry {
+            deserialized("nested");
+        }
+    }
+
+    public record Inner(String a, Map<String, Integer> b) {}
+
+    @ConfigEntry(value = "string", lazy = true)
+    public record LazyString(String value) {
+
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public LazyString {}
+    }
+
+    @ConfigEntry(value = "number", lazy = true)
+    public record LazyNumber(double value) {
+
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public LazyNumber {}
+    }
+
+    @ConfigEntry(value = "boolean", lazy = true)
+    public record LazyBoolean(boolean value) {
+
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public LazyBoolean {}
+    }
+
+    @ConfigEntry(value = "array", lazy = true)
+    public record LazyArray(List<Object> value) {
+
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public LazyArray {}
+    }
+
+    @ConfigEntry(value = "object", lazy = true)
+    public record LazyObject(Inner inner, List<String> tags) {}
+}
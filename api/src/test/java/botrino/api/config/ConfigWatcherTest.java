@@ -0,0 +1,162 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2024 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.config;
+
+import botrino.api.annotation.ConfigEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigWatcherTest {
+
+    private static final String JSON = """
+            {"scalar": {"name": "foo"}, "lazy": {"values": [1, 2]}}""";
+
+    private final CountingReader reader = new CountingReader();
+    private final ConfigParser parser = ConfigParser.create(new ObjectMapper(),
+            Set.of(ScalarEntry.class, LazyEntry.class));
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private final List<ScalarEntry> scalarChanges = new CopyOnWriteArrayList<>();
+    private final List<LazyEntry> lazyChanges = new CopyOnWriteArrayList<>();
+    private Path botDirectory;
+    private ConfigContainer container;
+
+    @BeforeEach
+    public void setUp() throws IOException, InterruptedException {
+        botDirectory = Files.createTempDirectory("botrino-config");
+        Files.writeString(botDirectory.resolve("config.json"), JSON);
+        container = ConfigContainer.of(parser.parse(JSON));
+        subscriptions.add(container.changes(ScalarEntry.class).subscribe(scalarChanges::add));
+        subscriptions.add(container.changes(LazyEntry.class).subscribe(lazyChanges::add));
+        subscriptions.add(ConfigWatcher.create(reader, parser, botDirectory).watch(container, JSON).subscribe());
+        // The files to watch are requested right before the watch service is registered
+        await(() -> reader.configFilesCalls.get() > 0);
+        Thread.sleep(100);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        subscriptions.dispose();
+        try (final var files = Files.walk(botDirectory)) {
+            for (final var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        final var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private void reload(String json) throws IOException, InterruptedException {
+        final var loads = reader.loads.get();
+        Files.writeString(botDirectory.resolve("config.json"), json);
+        await(() -> reader.loads.get() > loads);
+        // Leaves time for the loaded configuration to be parsed and applied
+        Thread.sleep(100);
+    }
+
+    @Test
+    public void validReloadReplacesTheChangedEntries() throws IOException, InterruptedException {
+        final var lazy = container.get(LazyEntry.class);
+        reload(JSON.replace("foo", "bar"));
+        assertEquals(new ScalarEntry("bar"), container.get(ScalarEntry.class));
+        assertSame(lazy, container.get(LazyEntry.class));
+        assertEquals(List.of(new ScalarEntry("bar")), scalarChanges);
+        assertEquals(List.of(), lazyChanges);
+    }
+
+    @Test
+    public void invalidLazyEntryRejectsTheWholeReload() throws IOException, InterruptedException {
+        final var lazy = container.get(LazyEntry.class);
+        reload(JSON.replace("foo", "bar").replace("[1, 2]", "[1, \"two\"]"));
+        assertEquals(new ScalarEntry("foo"), container.get(ScalarEntry.class));
+        assertSame(lazy, container.get(LazyEntry.class));
+        assertEquals(List.of(), scalarChanges);
+        assertEquals(List.of(), lazyChanges);
+
+        // Subscribers of the lazy entry are still notified of the next valid change
+        reload(JSON.replace("[1, 2]", "[3]"));
+        assertEquals(new LazyEntry(List.of(3)), container.get(LazyEntry.class));
+        assertEquals(List.of(new LazyEntry(List.of(3))), lazyChanges);
+    }
+
+    @Test
+    public void missingEntryRejectsTheWholeReload() throws IOException, InterruptedException {
+        reload("""
+                {"scalar": {"name": "bar"}}""");
+        assertEquals(new ScalarEntry("foo"), container.get(ScalarEntry.class));
+        assertEquals(new LazyEntry(List.of(1, 2)), container.get(LazyEntry.class));
+        assertEquals(List.of(), scalarChanges);
+
+        // The rejected configuration is not used as the base of the next diff
+        reload(JSON.replace("foo", "bar"));
+        assertEquals(new ScalarEntry("bar"), container.get(ScalarEntry.class));
+        assertEquals(List.of(new ScalarEntry("bar")), scalarChanges);
+    }
+
+    @ConfigEntry("scalar")
+    public record ScalarEntry(String name) {}
+
+    @ConfigEntry(value = "lazy", lazy = true)
+    public record LazyEntry(List<Integer> values) {}
+
+    private static final class CountingReader implements ConfigReader {
+
+        private final AtomicInteger configFilesCalls = new AtomicInteger();
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public String loadConfigJson(Path botDirectory) throws IOException {
+            loads.incrementAndGet();
+            return ConfigReader.super.loadConfigJson(botDirectory);
+        }
+
+        @Override
+        public Set<Path> configFiles(Path botDirectory) {
+            configFilesCalls.incrementAndGet();
+            return ConfigReader.super.configFiles(botDirectory);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.i18n;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranslationCacheTest {
+
+    private static final String BUNDLE = "botrino.api.i18n.TestStrings";
+
+    @Test
+    public void preloadReturnsOnlyTheKeysOfTheLocale() {
+        final var interned = TranslationCache.newPatternTable();
+        assertEquals(Set.of("hello", "bye"), TranslationCache.preload(BUNDLE, Locale.ROOT, interned).ownKeys());
+        // "bye" is inherited from the base bundle, so it is missing for French
+        assertEquals(Set.of("hello"), TranslationCache.preload(BUNDLE, Locale.FRENCH, interned).ownKeys());
+        assertEquals(Set.of("hello"), TranslationCache.preload(BUNDLE, Locale.CANADA_FRENCH, interned).ownKeys());
+        assertEquals(3, interned.size());
+    }
+
+    @Test
+    public void preloadReturnsTheLocaleOfTheBundleFound() {
+        final var defaultLocale = Locale.getDefault();
+        // There is no English translation file, so that German falls back to the base bundle
+        Locale.setDefault(Locale.ENGLISH);
+        try {
+            final var interned = TranslationCache.newPatternTable();
+            assertEquals(Locale.FRENCH, TranslationCache.preload(BUNDLE, Locale.FRENCH, interned).locale());
+            assertEquals(Locale.FRENCH, TranslationCache.preload(BUNDLE, Locale.CANADA_FRENCH, interned).locale());
+            assertEquals(Locale.ROOT, TranslationCache.preload(BUNDLE, Locale.GERMAN, interned).locale());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void translateFallsBackToTheParentBundle() {
+        assertEquals("Bonjour Alice !", TranslationCache.translate(BUNDLE, Locale.FRENCH, "hello", "Alice"));
+        assertEquals("Bye", TranslationCache.translate(BUNDLE, Locale.FRENCH, "bye"));
+        assertEquals("Hello Bob!", TranslationCache.translate(BUNDLE, Locale.ROOT, "hello", "Bob"));
+    }
+}
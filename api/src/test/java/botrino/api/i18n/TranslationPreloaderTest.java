@@ -0,0 +1,58 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.i18n;
+
+import botrino.api.i18n.TranslationCache.PreloadedBundle;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranslationPreloaderTest {
+
+    private static final PreloadedBundle BASE = new PreloadedBundle(Locale.ROOT, Set.of("hello"));
+    private static final PreloadedBundle FRENCH = new PreloadedBundle(Locale.FRENCH, Set.of("hello"));
+
+    @Test
+    public void singleLocaleUsingTheBaseBundleIsNotReported() {
+        assertEquals(Map.of(), TranslationPreloader.fallbacks(Map.of(Locale.ENGLISH, BASE, Locale.FRENCH, FRENCH)));
+    }
+
+    @Test
+    public void localesSharingTheBaseBundleAreReported() {
+        assertEquals(Map.of(Locale.ENGLISH, Locale.ROOT, Locale.GERMAN, Locale.ROOT),
+                TranslationPreloader.fallbacks(Map.of(Locale.ENGLISH, BASE, Locale.GERMAN, BASE,
+                        Locale.FRENCH, FRENCH)));
+    }
+
+    @Test
+    public void localeFallingBackToAnotherLocaleIsReported() {
+        assertEquals(Map.of(Locale.CANADA_FRENCH, Locale.FRENCH),
+                TranslationPreloader.fallbacks(Map.of(Locale.ENGLISH, BASE, Locale.FRENCH, FRENCH,
+                        Locale.CANADA_FRENCH, FRENCH)));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import botrino.api.util.ApplicationEmojiManager.Change;
+import discord4j.core.object.entity.ApplicationEmoji;
+import discord4j.discordjson.json.EmojiData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApplicationEmojiManagerTest {
+
+    private static final long APPLICATION_ID = 100;
+
+    static ApplicationEmoji emoji(long id, String name) {
+        return emoji(id, name, false);
+    }
+
+    static ApplicationEmoji emoji(long id, String name, boolean animated) {
+        return new ApplicationEmoji(null, EmojiData.builder().id(id).name(name).animated(animated).build(),
+                APPLICATION_ID);
+    }
+
+    private static List<Change> changesOf(ApplicationEmojiManager manager, Runnable action) {
+        final var changes = new ArrayList<Change>();
+        final var subscription = manager.changes().subscribe(changes::add);
+        action.run();
+        subscription.dispose();
+        return changes;
+    }
+
+    @Test
+    public void applyAllPublishesOnlyTheDifferences() {
+        final var kept = emoji(1, "kept");
+        final var renamed = emoji(2, "before");
+        final var deleted = emoji(3, "deleted");
+        final var manager = new ApplicationEmojiManager(List.of(kept, renamed, deleted), null);
+
+        final var after = emoji(2, "after");
+        final var created = emoji(4, "created");
+        final var changes = changesOf(manager, () -> manager.applyAll(List.of(emoji(1, "kept"), after, created)));
+
+        assertEquals(List.of(
+                new Change(Change.Type.UPDATED, after),
+                new Change(Change.Type.CREATED, created),
+                new Change(Change.Type.DELETED, deleted)), changes);
+        assertEquals(after, manager.get("after"));
+        assertEquals(created, manager.get("created"));
+        assertEquals(kept, manager.get("kept"));
+        assertThrows(NoSuchElementException.class, () -> manager.get("before"));
+        assertThrows(NoSuchElementException.class, () -> manager.get("deleted"));
+    }
+
+    @Test
+    public void applyAllDetectsChangedPropertiesWithSameName() {
+        final var manager = new ApplicationEmojiManager(List.of(emoji(1, "wave")), null);
+        final var animated = emoji(1, "wave", true);
+        final var changes = changesOf(manager, () -> manager.applyAll(List.of(animated)));
+        assertEquals(List.of(new Change(Change.Type.UPDATED, animated)), changes);
+        assertEquals("<a:wave:1>", manager.mention("wave"));
+    }
+
+    @Test
+    public void applyAllWithSameEmojisKeepsSnapshot() {
+        final var wave = emoji(1, "wave");
+        final var manager = new ApplicationEmojiManager(List.of(wave), null);
+        final var changes = changesOf(manager, () -> manager.applyAll(List.of(emoji(1, "wave"))));
+        assertEquals(List.of(), changes);
+        assertSame(wave, manager.get("wave"));
+    }
+
+    @Test
+    public void renderReplacesKnownTokens() {
+        final var manager = new ApplicationEmojiManager(List.of(emoji(1, "gold"), emoji(2, "silver", true)), null);
+        assertEquals("1. <:gold:1> Alice, 2. <a:silver:2> Bob", manager.render("1. :gold: Alice, 2. :silver: Bob"));
+    }
+
+    @Test
+    public void renderReplacesAdjacentTokens() {
+        final var manager = new ApplicationEmojiManager(List.of(emoji(1, "a"), emoji(2, "b")), null);
+        assertEquals("<:a:1><:b:2>", manager.render(":a::b:"));
+        assertEquals("<:a:1>:<:b:2>", manager.render(":a:::b:"));
+    }
+
+    @Test
+    public void renderLeavesUnknownTokensAsIs() {
+        final var manager = new ApplicationEmojiManager(List.of(emoji(1, "a")), null);
+        assertEquals(":x:", manager.render(":x:"));
+        assertEquals(":x<:a:1>", manager.render(":x:a:"));
+        assertEquals("::", manager.render("::"));
+        assertEquals(":a b:", manager.render(":a b:"));
+    }
+
+    @Test
+    public void renderLeavesUnterminatedColonsAsIs() {
+        final var manager = new ApplicationEmojiManager(List.of(emoji(1, "a")), null);
+        assertEquals("ratio 1:2", manager.render("ratio 1:2"));
+        assertEquals(":a", manager.render(":a"));
+        assertEquals("<:a:1> :a", manager.render(":a: :a"));
+        assertEquals(":", manager.render(":"));
+    }
+
+    @Test
+    public void renderFoldsCase() {
+        final var manager = new ApplicationEmojiManager(List.of(emoji(1, "Gold")), null);
+        assertEquals("<:Gold:1> <:Gold:1>", manager.render(":GOLD: :gold:"));
+    }
+
+    @Test
+    public void renderUsesFirstEmojiOfDuplicateNames() {
+        final var manager = new ApplicationEmojiManager(List.of(emoji(1, "gold"), emoji(2, "Gold")), null);
+        assertEquals("<:gold:1>", manager.render(":gold:"));
+    }
+
+    @Test
+    public void renderReturnsTemplateWhenNothingMatches() {
+        final var manager = new ApplicationEmojiManager(List.of(emoji(1, "gold")), null);
+        final var template = new String("no :emoji: here: at all");
+        assertSame(template, manager.render(template));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static botrino.api.util.ApplicationEmojiManagerTest.emoji;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmojiTableTest {
+
+    @Test
+    public void indexOfFoldsCase() {
+        final var wave = emoji(1, "Wave");
+        final var table = EmojiTable.of(List.of(wave, emoji(2, "smile")));
+        final var index = table.indexOf("wAVE");
+        assertTrue(index >= 0);
+        assertSame(wave, table.emoji(index));
+        assertEquals("<:Wave:1>", table.mention(index));
+        assertEquals(-1, table.indexOf("wav"));
+        assertEquals(-1, table.indexOf("waves"));
+    }
+
+    @Test
+    public void indexOfRegionMatchesOnlyTheRegion() {
+        final var table = EmojiTable.of(List.of(emoji(1, "gold")));
+        final var text = "1. :GOLD: Alice";
+        assertSame(table.emoji(table.indexOf("gold")), table.emoji(table.indexOf(text, 4, 8)));
+        assertEquals(-1, table.indexOf(text, 3, 8));
+        assertEquals(-1, table.indexOf(text, 4, 7));
+    }
+
+    @Test
+    public void duplicateNamesKeepTheFirstEmoji() {
+        final var first = emoji(1, "wave");
+        final var table = EmojiTable.of(List.of(first, emoji(2, "WAVE")));
+        assertSame(first, table.emoji(table.indexOf("wave")));
+    }
+
+    @Test
+    public void emptyTableFindsNothing() {
+        final var table = EmojiTable.of(List.of());
+        assertEquals(-1, table.indexOf("wave"));
+        assertEquals(-1, table.indexOf(""));
+    }
+
+    @Test
+    public void manyEmojisAreAllFound() {
+        final var emojis = LongStream.range(1, 300)
+                .mapToObj(id -> emoji(id, "emoji_" + id))
+                .toList();
+        final var table = EmojiTable.of(emojis);
+        for (final var emoji : emojis) {
+            assertSame(emoji, table.emoji(table.indexOf(emoji.getName().toUpperCase())));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MarkdownTest {
+
+    @Test
+    public void escapeReturnsSameInstanceWhenNothingToEscape() {
+        final var text = "Hello world! \u00e9\ud83d\ude00";
+        assertSame(text, Markdown.escape(text));
+    }
+
+    @Test
+    public void escapeSpecialCharacters() {
+        assertEquals("\\*\\*bold\\*\\* \\_a\\_ \\\\ \\<\\@123\\> \\`x\\` \\|\\|",
+                Markdown.escape("**bold** _a_ \\ <@123> `x` ||"));
+    }
+
+    @Test
+    public void builderComposesNestedFormats() {
+        final var actual = Markdown.builder()
+                .bold(b -> b.italic(i -> i.code("x")))
+                .text(" by ")
+                .escaped("_user_")
+                .build();
+        assertEquals(Markdown.bold(Markdown.italic(Markdown.code("x"))) + " by " + Markdown.escape("_user_"), actual);
+    }
+
+    @Test
+    public void builderQuoteMatchesMarkdownQuote() {
+        final var text = "first\r\n\n  \nlast\n";
+        assertEquals(Markdown.quote(text), Markdown.builder().quote(text).build());
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import discord4j.common.util.Snowflake;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MentionTokenTest {
+
+    @Test
+    public void parseIdsAndMentions() {
+        final var id = Snowflake.of(123456789L);
+        assertEquals(new MentionToken(MentionToken.Kind.ID, id, "123456789"), MentionToken.parse("123456789"));
+        assertEquals(MentionToken.Kind.USER_MENTION, MentionToken.parse("<@123456789>").kind());
+        assertEquals(MentionToken.Kind.NICKNAME_MENTION, MentionToken.parse("<@!123456789>").kind());
+        assertEquals(MentionToken.Kind.ROLE_MENTION, MentionToken.parse("<@&123456789>").kind());
+        assertEquals(id, MentionToken.parse("<#123456789>").id());
+    }
+
+    @Test
+    public void parseMaxUnsignedId() {
+        assertEquals(Snowflake.of("18446744073709551615"), MentionToken.parse("18446744073709551615").id());
+        assertFalse(MentionToken.parse("18446744073709551616").hasId());
+    }
+
+    @Test
+    public void parseFreeText() {
+        for (final var input : new String[] { "", "abc", "12a", "<@>", "<@!>", "<@123", "<:emoji:123>", "<#12 3>" }) {
+            final var token = MentionToken.parse(input);
+            assertEquals(MentionToken.Kind.TEXT, token.kind(), input);
+            assertNull(token.id(), input);
+        }
+    }
+}
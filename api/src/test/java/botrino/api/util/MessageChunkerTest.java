@@ -0,0 +1,156 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageChunkerTest {
+
+    private static void assertWithinLimit(List<String> chunks, int maxCharacters) {
+        for (final var chunk : chunks) {
+            assertTrue(chunk.length() <= maxCharacters, () -> chunk.length() + " > " + maxCharacters + ": " + chunks);
+        }
+    }
+
+    private static long fences(String chunk) {
+        return chunk.lines().filter(line -> line.startsWith("```") || line.startsWith(">>> ```")).count();
+    }
+
+    @Test
+    public void shortMessageIsASingleChunk() {
+        assertEquals(List.of("hello\nworld\n"), MessageUtils.chunk("hello\nworld", 100));
+        assertEquals(List.of(""), MessageUtils.chunk("", 100));
+    }
+
+    @Test
+    public void codeBlockIsClosedAndReopenedWithItsLanguage() {
+        final var text = "```java\n" + "int x = 0;\n".repeat(10) + "```\nafter";
+        final var chunks = MessageUtils.chunk(text, 40);
+        assertTrue(chunks.size() > 1, chunks.toString());
+        assertWithinLimit(chunks, 40);
+        for (final var chunk : chunks) {
+            assertTrue(chunk.startsWith("```java\nint x = 0;\n"), chunk);
+            assertEquals(0, fences(chunk) % 2, chunk);
+        }
+        assertTrue(chunks.get(chunks.size() - 1).endsWith("int x = 0;\n```\nafter\n"), chunks.toString());
+    }
+
+    @Test
+    public void longLanguageIsDroppedWhenReopeningCodeBlock() {
+        final var text = "```" + "x".repeat(20) + "\n" + "code\n".repeat(10) + "```";
+        final var chunks = MessageUtils.chunk(text, 32);
+        assertTrue(chunks.size() > 1, chunks.toString());
+        assertWithinLimit(chunks, 32);
+        assertTrue(chunks.get(0).startsWith("```" + "x".repeat(20) + "\n"), chunks.get(0));
+        for (final var chunk : chunks.subList(1, chunks.size())) {
+            assertTrue(chunk.startsWith("```\ncode\n"), chunk);
+            assertEquals(0, fences(chunk) % 2, chunk);
+        }
+    }
+
+    @Test
+    public void fenceLongerThanTheLimitStillOpensCodeBlock() {
+        final var text = "```" + "x".repeat(50) + "\ncode\n```\nafter";
+        assertEquals(List.of("```\ncode\n```\nafter\n"), MessageUtils.chunk(text, 20));
+    }
+
+    @Test
+    public void quoteBlockIsReopened() {
+        final var text = "intro\n>>> " + "quoted line\n".repeat(10);
+        final var chunks = MessageUtils.chunk(text, 30);
+        assertTrue(chunks.size() > 1, chunks.toString());
+        assertWithinLimit(chunks, 30);
+        assertTrue(chunks.get(0).startsWith("intro\n>>> quoted line\n"), chunks.get(0));
+        for (final var chunk : chunks.subList(1, chunks.size())) {
+            assertTrue(chunk.startsWith(">>> quoted line\n"), chunk);
+        }
+    }
+
+    @Test
+    public void lineBreaksAreNormalized() {
+        assertEquals(List.of("a\nb\nc\nd\n"), MessageUtils.chunk("a\r\nb\rc\nd", 100));
+        assertEquals(List.of("```\na\n```\n"), MessageUtils.chunk("```\r\na\r\n```", 100));
+    }
+
+    @Test
+    public void oversizedLineIsSplitAfterAWhitespace() {
+        assertEquals(List.of("aaaa bbbb cccc \n", "dddd\n"), MessageUtils.chunk("aaaa bbbb cccc dddd", 16));
+        assertEquals(List.of("a".repeat(15) + "\n", "aaaaa\n"), MessageUtils.chunk("a".repeat(20), 16));
+    }
+
+    @Test
+    public void surrogatePairsAreNeverSplit() {
+        final var text = "\ud83d\ude00".repeat(20);
+        for (final var maxCharacters : List.of(2, 3, 16, 17)) {
+            final var chunks = MessageUtils.chunk(text, maxCharacters);
+            assertWithinLimit(chunks, maxCharacters);
+            for (final var chunk : chunks) {
+                final var content = chunk.strip();
+                assertFalse(Character.isLowSurrogate(content.charAt(0)), chunk);
+                assertFalse(Character.isHighSurrogate(content.charAt(content.length() - 1)), chunk);
+            }
+            assertEquals(text, String.join("", chunks).replace("\n", ""));
+        }
+    }
+
+    @Test
+    public void smallLimitsSplitWithoutMarkdown() {
+        final var text = "```java\nhello world\n```";
+        for (final var maxCharacters : List.of(1, 2, 4, 15)) {
+            final var chunks = MessageUtils.chunk(text, maxCharacters);
+            assertWithinLimit(chunks, maxCharacters);
+            assertEquals(text.replace("\n", ""), String.join("", chunks).replace("\n", ""));
+        }
+        assertThrows(IllegalArgumentException.class, () -> MessageUtils.chunk(text, 0));
+    }
+
+    @Test
+    public void chunksNeverExceedTheLimit() {
+        final var random = new Random(42);
+        final var lines = List.of("```", "```java", "```" + "y".repeat(40), ">>> quote", "plain text",
+                "word ".repeat(30), "\ud83d\ude00".repeat(25), "", "x".repeat(80));
+        for (var i = 0; i < 200; i++) {
+            final var text = new StringBuilder();
+            for (var j = random.nextInt(30); j > 0; j--) {
+                text.append(lines.get(random.nextInt(lines.size()))).append(random.nextBoolean() ? "\n" : "\r\n");
+            }
+            final var maxCharacters = 1 + random.nextInt(100);
+            final var chunks = MessageUtils.chunk(text.toString(), maxCharacters);
+            if (maxCharacters > 1) {
+                assertWithinLimit(chunks, maxCharacters);
+            }
+            if (maxCharacters >= 16) {
+                // Every chunk but the last one closes the code blocks it opens
+                for (final var chunk : chunks.subList(0, chunks.size() - 1)) {
+                    assertEquals(0, fences(chunk) % 2, chunk);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.api.util;
+
+import discord4j.common.util.Snowflake;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameIndexTest {
+
+    private static final Snowflake ALICE = Snowflake.of(1);
+    private static final Snowflake BOB = Snowflake.of(2);
+
+    private static List<Snowflake> ids(List<NameDirectory.Entry> entries) {
+        return entries.stream().map(NameDirectory.Entry::id).toList();
+    }
+
+    @Test
+    public void searchMatchesStartOfNameFirstThenWords() {
+        final var index = new NameIndex();
+        index.put(ALICE, "Big Bob");
+        index.put(BOB, "bobby");
+        assertEquals(List.of(BOB, ALICE), ids(index.search("BOB", 10)));
+        assertEquals(List.of(BOB), ids(index.search("bob", 1)));
+    }
+
+    @Test
+    public void aliasesAreSearchableAndReplacedOnUpdate() {
+        final var index = new NameIndex();
+        index.put(ALICE, "alice#0001", List.of("Queen Alé"));
+        assertEquals(List.of(new NameDirectory.Entry(ALICE, "alice#0001")), index.search("ale", 10));
+        assertEquals(List.of(ALICE), ids(index.search("queen", 10)));
+
+        index.put(ALICE, "alice#0001", List.of("Ally"));
+        assertEquals(List.of(), index.search("queen", 10));
+        assertEquals(List.of(ALICE), ids(index.search("ally", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void removedEntriesAreNotFound() {
+        final var index = new NameIndex();
+        index.put(ALICE, "alice", List.of("ally"));
+        index.remove(ALICE);
+        assertEquals(List.of(), index.search("al", 10));
+        assertNull(index.get(ALICE));
+        assertEquals(0, index.size());
+    }
+}
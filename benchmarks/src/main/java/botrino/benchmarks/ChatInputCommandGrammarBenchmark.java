@@ -0,0 +1,114 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.benchmarks;
+
+import botrino.interaction.grammar.ChatInputCommandGrammar;
+import botrino.testsupport.LocalDiscord;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.ApplicationCommandOption;
+import discord4j.discordjson.json.ApplicationCommandInteractionOptionData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ChatInputCommandGrammar#resolve(ChatInputInteractionEvent)} with a record and with a mutable class
+ * holding four primitive options.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatInputCommandGrammarBenchmark {
+
+    private final ChatInputCommandGrammar<RecordOptions> recordGrammar = ChatInputCommandGrammar.of(RecordOptions.class);
+    private final ChatInputCommandGrammar<ClassOptions> classGrammar = ChatInputCommandGrammar.of(ClassOptions.class);
+    private LocalDiscord discord;
+    private ChatInputInteractionEvent event;
+
+    @Setup
+    public void setup() {
+        discord = LocalDiscord.create();
+        event = discord.chatInputEvent("options", LocalDiscord.DEFAULT_GUILD_ID, LocalDiscord.DEFAULT_USER_ID, List.of(
+                option("text", ApplicationCommandOption.Type.STRING, "hello"),
+                option("count", ApplicationCommandOption.Type.INTEGER, "42"),
+                option("ratio", ApplicationCommandOption.Type.NUMBER, "0.5"),
+                option("enabled", ApplicationCommandOption.Type.BOOLEAN, "true")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        discord.close();
+    }
+
+    @Benchmark
+    public RecordOptions resolveRecord() {
+        return recordGrammar.resolve(event).block();
+    }
+
+    @Benchmark
+    public ClassOptions resolveClass() {
+        return classGrammar.resolve(event).block();
+    }
+
+    private static ApplicationCommandInteractionOptionData option(String name, ApplicationCommandOption.Type type,
+                                                                  String value) {
+        return ApplicationCommandInteractionOptionData.builder()
+                .name(name)
+                .type(type.getValue())
+                .value(value)
+                .build();
+    }
+
+    public record RecordOptions(
+            @ChatInputCommandGrammar.Option(type = ApplicationCommandOption.Type.STRING, name = "text",
+                    description = "") String text,
+            @ChatInputCommandGrammar.Option(type = ApplicationCommandOption.Type.INTEGER, name = "count",
+                    description = "") Long count,
+            @ChatInputCommandGrammar.Option(type = ApplicationCommandOption.Type.NUMBER, name = "ratio",
+                    description = "") Double ratio,
+            @ChatInputCommandGrammar.Option(type = ApplicationCommandOption.Type.BOOLEAN, name = "enabled",
+                    description = "") Boolean enabled) {}
+
+    public static final class ClassOptions {
+
+        @ChatInputCommandGrammar.Option(type = ApplicationCommandOption.Type.STRING, name = "text", description = "")
+        String text;
+
+        @ChatInputCommandGrammar.Option(type = ApplicationCommandOption.Type.INTEGER, name = "count",
+                description = "")
+        Long count;
+
+        @ChatInputCommandGrammar.Option(type = ApplicationCommandOption.Type.NUMBER, name = "ratio",
+                description = "")
+        Double ratio;
+
+        @ChatInputCommandGrammar.Option(type = ApplicationCommandOption.Type.BOOLEAN, name = "enabled",
+                description = "")
+        Boolean enabled;
+    }
+}
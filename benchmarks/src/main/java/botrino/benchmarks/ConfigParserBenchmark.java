@@ -0,0 +1,113 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.benchmarks;
+
+import botrino.api.annotation.ConfigEntry;
+import botrino.api.config.ConfigParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ConfigParser} on a configuration containing a small eager entry, a large lazy entry and a large
+ * entry that is not expected by the application, for a full parse and for a reload where only the small entry
+ * changed. The configuration is about 0.3 MB with 5000 items per large entry, and 7 MB with 100000 items.
+ * {@link #parseTree()} is the baseline, reading the whole input into a tree then converting each expected entry, as the
+ * parser did before it streamed the input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigParserBenchmark {
+
+    @Param({"5000", "100000"})
+    public int items;
+
+    private ObjectMapper objectMapper;
+    private ConfigParser parser;
+    private String json;
+    private String modifiedJson;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        parser = ConfigParser.create(objectMapper, Set.of(SmallEntry.class, LargeEntry.class));
+        json = configJson("hello", items);
+        modifiedJson = configJson("world", items);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseTree() throws JsonProcessingException {
+        final var tree = objectMapper.readTree(json);
+        return Map.of("small", objectMapper.treeToValue(tree.get("small"), SmallEntry.class),
+                "large", objectMapper.treeToValue(tree.get("large"), LargeEntry.class));
+    }
+
+    @Benchmark
+    public Map<String, Object> parse() {
+        return parser.parse(json);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseChanges() {
+        return parser.parseChanges(json, modifiedJson);
+    }
+
+    private static String configJson(String smallValue, int items) {
+        final var largeArray = new StringBuilder("[");
+        for (var i = 0; i < items; i++) {
+            largeArray.append(i == 0 ? "" : ",").append("{\"name\":\"item").append(i)
+                    .append("\",\"value\":").append(i).append('}');
+        }
+        largeArray.append(']');
+        return "{\"small\":{\"value\":\"" + smallValue + "\",\"count\":1}," +
+                "\"large\":{\"items\":" + largeArray + "}," +
+                "\"unknown\":{\"items\":" + largeArray + "}}";
+    }
+
+    @ConfigEntry("small")
+    public static final class SmallEntry {
+        public String value;
+        public int count;
+    }
+
+    @ConfigEntry(value = "large", lazy = true)
+    public static final class LargeEntry {
+        public List<Item> items;
+    }
+
+    public static final class Item {
+        public String name;
+        public int value;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.benchmarks;
+
+import botrino.interaction.cooldown.Cooldown;
+import botrino.interaction.cooldown.CooldownException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Cooldown#fire(long)} and {@link Cooldown#reserve(long)}. With a reset interval of 1 microsecond most
+ * calls are accepted, with 1 millisecond most calls are rejected, which also accounts for the cost of
+ * {@link CooldownException}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CooldownBenchmark {
+
+    @Param({"1", "1024"})
+    public int users;
+
+    @Param({"3"})
+    public int permits;
+
+    @Param({"1", "1000"})
+    public long resetIntervalMicros;
+
+    private Cooldown cooldown;
+
+    @Setup
+    public void setup() {
+        cooldown = Cooldown.of(permits, Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(resetIntervalMicros)));
+    }
+
+    @Benchmark
+    public Object fire(ThreadState state) {
+        try {
+            cooldown.fire(state.nextUser(users));
+            return null;
+        } catch (CooldownException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object reserveAndCancel(ThreadState state) {
+        try {
+            cooldown.reserve(state.nextUser(users)).cancel();
+            return null;
+        } catch (CooldownException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object fireContended(ThreadState state) {
+        return fire(state);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private long next;
+
+        long nextUser(int users) {
+            return next++ % users;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.benchmarks;
+
+import botrino.interaction.InteractionService;
+import botrino.interaction.annotation.ChatInputCommand;
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.context.ChatInputInteractionContext;
+import botrino.interaction.listener.ChatInputInteractionListener;
+import botrino.testsupport.LocalDiscord;
+import org.openjdk.jmh.annotations.*;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time taken by {@link InteractionService#run()} to dispatch one chat input interaction to its listener:
+ * channel lookup, event filter, locale resolution, privilege and cooldown checks, context creation and listener
+ * invocation. Acknowledgement is disabled so that no REST request is made while measuring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InteractionServiceBenchmark {
+
+    private LocalDiscord discord;
+    private Disposable running;
+    private volatile CompletableFuture<Void> invoked;
+
+    @Setup
+    public void setup() {
+        // Channels are cached so that no REST request is made while dispatching
+        discord = LocalDiscord.builder().setChannelsCached(true).build();
+        final var service = InteractionService.create(InteractionConfig.builder()
+                .defaultACKMode("NONE")
+                .build(), discord.gateway());
+        service.registerChatInputCommand(new PingCommand(this));
+        running = service.run().subscribe();
+        service.onCommandsDeployed().block();
+    }
+
+    @TearDown
+    public void tearDown() {
+        running.dispose();
+        discord.close();
+    }
+
+    @Benchmark
+    public void dispatchChatInputInteraction() {
+        final var future = new CompletableFuture<Void>();
+        invoked = future;
+        discord.publish(discord.chatInputEvent("ping"));
+        future.join();
+    }
+
+    @ChatInputCommand(name = "ping", description = "Benchmark command.")
+    public static final class PingCommand implements ChatInputInteractionListener {
+
+        private final InteractionServiceBenchmark benchmark;
+
+        PingCommand(InteractionServiceBenchmark benchmark) {
+            this.benchmark = benchmark;
+        }
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return Mono.fromRunnable(() -> benchmark.invoked.complete(null));
+        }
+    }
+}
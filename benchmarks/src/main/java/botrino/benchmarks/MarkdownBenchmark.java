@@ -0,0 +1,90 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.benchmarks;
+
+import botrino.api.util.Markdown;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Markdown#escape(String)} on short and long inputs, with and without characters to escape, and the
+ * composition of nested formats with {@link Markdown#builder()} compared to nested method calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarkdownBenchmark {
+
+    @Param({"SHORT_CLEAN", "SHORT_DIRTY", "LONG_CLEAN", "LONG_MOSTLY_CLEAN", "LONG_DIRTY"})
+    public Input input;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = input.text();
+    }
+
+    @Benchmark
+    public String escape() {
+        return Markdown.escape(text);
+    }
+
+    @Benchmark
+    public String nestedCalls() {
+        return Markdown.bold(Markdown.italic(Markdown.code("x"))) + " by " + Markdown.escape("_user_");
+    }
+
+    @Benchmark
+    public String builder() {
+        return Markdown.builder()
+                .bold(b -> b.italic(i -> i.code("x")))
+                .text(" by ")
+                .escaped("_user_")
+                .build();
+    }
+
+    public enum Input {
+        SHORT_CLEAN("Hello world"),
+        SHORT_DIRTY("**hello** _world_"),
+        LONG_CLEAN("The quick brown fox jumps over the lazy dog. ".repeat(100)),
+        LONG_MOSTLY_CLEAN("The quick brown fox jumps over the lazy dog. ".repeat(50) + "*" +
+                "The quick brown fox jumps over the lazy dog. ".repeat(50)),
+        LONG_DIRTY("**bold** _italic_ `code` ~~strike~~ ||spoiler|| > quote ".repeat(100));
+
+        private final String text;
+
+        Input(String text) {
+            this.text = text;
+        }
+
+        String text() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.benchmarks;
+
+import botrino.api.util.MatcherFunction;
+import botrino.interaction.InteractionFailedException;
+import botrino.interaction.cooldown.CooldownException;
+import botrino.interaction.privilege.PrivilegeException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MatcherFunction#apply(Object)} the way the interaction service dispatches errors to the error
+ * handler: a matcher is created for each error, then applied once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatcherFunctionBenchmark {
+
+    @Param({"FIRST", "LAST", "NONE"})
+    public MatchPosition position;
+
+    private Throwable error;
+
+    @Setup
+    public void setup() {
+        error = switch (position) {
+            case FIRST -> new InteractionFailedException("failed");
+            case LAST -> new CooldownException(0, Duration.ZERO, Duration.ZERO);
+            case NONE -> new IllegalStateException("unexpected");
+        };
+    }
+
+    @Benchmark
+    public Object createAndApply() {
+        return MatcherFunction.<String>create()
+                .matchType(InteractionFailedException.class, e -> "failed")
+                .matchType(PrivilegeException.class, e -> "privilege")
+                .matchType(CooldownException.class, e -> "cooldown")
+                .apply(error)
+                .orElse("default");
+    }
+
+    public enum MatchPosition {
+        FIRST, LAST, NONE
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.benchmarks;
+
+import botrino.api.util.MentionToken;
+import discord4j.common.util.Snowflake;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MentionToken#parse(String)} on a mix of IDs, mentions and names, compared to the former approach
+ * which tried to parse the input as an ID and fell back to stripping mention prefixes on exceptions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MentionTokenBenchmark {
+
+    private static final String[] MIXED_INPUT = {
+            "197806549117976578",
+            "<@197806549117976578>",
+            "<@!197806549117976578>",
+            "<@&197806549117976578>",
+            "<#197806549117976578>",
+            "Alex1304",
+            "general",
+            "a",
+    };
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void tokenizer(Blackhole blackhole) {
+        for (final var input : MIXED_INPUT) {
+            blackhole.consume(MentionToken.parse(input));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void exceptionDriven(Blackhole blackhole) {
+        for (final var input : MIXED_INPUT) {
+            blackhole.consume(parseWithExceptions(input));
+        }
+    }
+
+    private static Snowflake parseWithExceptions(String str) {
+        try {
+            return Snowflake.of(str);
+        } catch (RuntimeException e) {
+            try {
+                return Snowflake.of(str.substring(2, str.length() - 1));
+            } catch (RuntimeException e2) {
+                try {
+                    return Snowflake.of(str.substring(3, str.length() - 1));
+                } catch (RuntimeException e3) {
+                    return null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.benchmarks;
+
+import botrino.api.i18n.Translator;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Translator#translate(String, String, Object...)} with and without format arguments, compared to
+ * looking up the bundle and formatting the message on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TranslatorBenchmark {
+
+    private static final String BUNDLE = "botrino.benchmarks.Strings";
+
+    private final Translator translator = Translator.to(Locale.ENGLISH);
+
+    @Benchmark
+    public String translateWithoutArgs() {
+        return translator.translate(BUNDLE, "greeting");
+    }
+
+    @Benchmark
+    public String translateWithArgs() {
+        return translator.translate(BUNDLE, "welcome", "Alex", 3);
+    }
+
+    @Benchmark
+    public String uncachedWithoutArgs() {
+        return MessageFormat.format(ResourceBundle.getBundle(BUNDLE, Locale.ENGLISH).getString("greeting"), new Object[0]);
+    }
+
+    @Benchmark
+    public String uncachedWithArgs() {
+        return new MessageFormat(ResourceBundle.getBundle(BUNDLE, Locale.ENGLISH).getString("welcome"),
+                Locale.ENGLISH).format(new Object[] { "Alex", 3 });
+    }
+}
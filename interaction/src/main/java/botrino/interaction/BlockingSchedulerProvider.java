@@ -0,0 +1,59 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction;
+
+import botrino.interaction.annotation.Blocking;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Provides the scheduler on which listeners annotated with @{@link Blocking} are run. When using the Botrino framework,
+ * implementing this interface is how the default scheduler, {@link Schedulers#boundedElastic()}, is replaced. When
+ * constructing the service manually, use {@link InteractionService.Builder#setBlockingScheduler(Scheduler)} instead.
+ */
+@FunctionalInterface
+public interface BlockingSchedulerProvider {
+
+    /**
+     * A {@link BlockingSchedulerProvider} that provides {@link Schedulers#boundedElastic()}.
+     */
+    BlockingSchedulerProvider DEFAULT = new BlockingSchedulerProvider() {
+        @Override
+        public Scheduler getScheduler() {
+            return Schedulers.boundedElastic();
+        }
+
+        @Override
+        public String toString() {
+            return "BlockingSchedulerProvider.DEFAULT";
+        }
+    };
+
+    /**
+     * Gets the scheduler on which blocking listeners are run. It is called once, when the service starts.
+     *
+     * @return the scheduler
+     */
+    Scheduler getScheduler();
+}
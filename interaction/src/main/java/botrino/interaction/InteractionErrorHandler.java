@@ -26,6 +26,7 @@ package botrino.interaction;
 import botrino.interaction.context.InteractionContext;
 import botrino.interaction.cooldown.CooldownException;
 import botrino.interaction.privilege.PrivilegeException;
+import discord4j.core.spec.InteractionFollowupCreateSpec;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 
@@ -83,6 +84,23 @@ public interface InteractionErrorHandler {
         return Mono.error(e);
     }
 
+    /**
+     * Recover from an {@link OverloadedException}, occurring when the interaction could not be executed in time due to
+     * the concurrency limits of the service. The interaction has not been acknowledged at this point, so it should be
+     * responded to quickly and without doing more work than necessary, for example with an ephemeral message sent via
+     * {@link InteractionContext#respond(InteractionFollowupCreateSpec)} telling the user to try again later.
+     *
+     * @param e   the exception
+     * @param ctx the context of the interaction that was rejected
+     * @return a Publisher completing when handling is done. Rethrowing the {@link OverloadedException} there, which is
+     * what the default implementation does, makes the service respond with a short ephemeral message asking the user
+     * to try again, without logging it at error level. Rethrowing any other exception will drop it and log it at error
+     * level.
+     */
+    default Publisher<?> handleOverloaded(OverloadedException e, InteractionContext ctx) {
+        return Mono.error(e);
+    }
+
     /**
      * Recover from any {@link Throwable} that are not handled by other handlers, indicating that something went wrong
      * when handling the interaction.
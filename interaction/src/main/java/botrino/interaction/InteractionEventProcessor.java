@@ -23,6 +23,8 @@
  */
 package botrino.interaction;
 
+import botrino.interaction.locale.LocalePreferenceStore;
+import botrino.interaction.locale.Locales;
 import discord4j.core.event.domain.interaction.InteractionCreateEvent;
 import reactor.core.publisher.Mono;
 
@@ -59,13 +61,16 @@ public interface InteractionEventProcessor {
     /**
      * Determines the locale to use for interactions following the given event. By default, it applies the locale of the
      * guild if the command is run in a guild, else it uses the locale of the user's Discord client.
+     * <p>
+     * This is only called if no preference was found for the user or the guild in the {@link LocalePreferenceStore}
+     * of the {@link InteractionService}, if any.
      *
      * @param event the event to find the locale for
      * @return a {@link Mono} emitting the locale appropriate for the event. Empty will use the default locale as
      * returned by {@link Locale#getDefault()}. If an error occurs, it will be logged then the event will be dropped.
      */
     default Mono<Locale> computeLocale(InteractionCreateEvent event) {
-        return Mono.just(Locale.forLanguageTag(event.getInteraction().getGuildLocale()
+        return Mono.just(Locales.forLanguageTag(event.getInteraction().getGuildLocale()
                 .orElse(event.getInteraction().getUserLocale())));
     }
 }
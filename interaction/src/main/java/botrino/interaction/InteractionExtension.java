@@ -36,6 +36,7 @@ import botrino.interaction.listener.ChatInputInteractionListener;
 import botrino.interaction.listener.ComponentInteractionListener;
 import botrino.interaction.listener.MessageInteractionListener;
 import botrino.interaction.listener.UserInteractionListener;
+import botrino.interaction.locale.LocalePreferenceStore;
 import com.github.alex1304.rdi.config.ServiceDescriptor;
 import com.github.alex1304.rdi.finder.annotation.RdiService;
 import org.jspecify.annotations.Nullable;
@@ -48,6 +49,9 @@ public final class InteractionExtension implements BotrinoExtension {
     private final InstanceCache instanceCache = InstanceCache.create();
     private final List<InteractionErrorHandler> errorHandlers = new ArrayList<>();
     private final List<InteractionEventProcessor> eventProcessors = new ArrayList<>();
+    private final List<InteractionMetrics> metrics = new ArrayList<>();
+    private final List<BlockingSchedulerProvider> blockingSchedulerProviders = new ArrayList<>();
+    private final List<LocalePreferenceStore> localePreferenceStores = new ArrayList<>();
     private final Set<Object> chatInputCommands = new HashSet<>();
     private final Set<ChatInputInteractionListener> chatInputInteractionListeners = new HashSet<>();
     private final Set<UserInteractionListener> userInteractionListeners = new HashSet<>();
@@ -86,6 +90,16 @@ public final class InteractionExtension implements BotrinoExtension {
         if (InteractionEventProcessor.class.isAssignableFrom(clazz)) {
             eventProcessors.add(instanceCache.getInstance(clazz.asSubclass(InteractionEventProcessor.class)));
         }
+        if (InteractionMetrics.class.isAssignableFrom(clazz)) {
+            metrics.add(instanceCache.getInstance(clazz.asSubclass(InteractionMetrics.class)));
+        }
+        if (BlockingSchedulerProvider.class.isAssignableFrom(clazz)) {
+            blockingSchedulerProviders.add(instanceCache.getInstance(
+                    clazz.asSubclass(BlockingSchedulerProvider.class)));
+        }
+        if (LocalePreferenceStore.class.isAssignableFrom(clazz)) {
+            localePreferenceStores.add(instanceCache.getInstance(clazz.asSubclass(LocalePreferenceStore.class)));
+        }
     }
 
     @Override
@@ -103,6 +117,9 @@ public final class InteractionExtension implements BotrinoExtension {
                         componentInteractionListeners::add)
                 .matchType(InteractionErrorHandler.class, errorHandlers::add)
                 .matchType(InteractionEventProcessor.class, eventProcessors::add)
+                .matchType(InteractionMetrics.class, metrics::add)
+                .matchType(BlockingSchedulerProvider.class, blockingSchedulerProviders::add)
+                .matchType(LocalePreferenceStore.class, localePreferenceStores::add)
                 .allowMultipleMatches(true)
                 .accept(serviceInstance);
     }
@@ -132,6 +149,16 @@ public final class InteractionExtension implements BotrinoExtension {
             interactionService.setEventProcessor(ConfigUtils
                     .selectImplementation(InteractionEventProcessor.class, eventProcessors)
                     .orElse(InteractionEventProcessor.NO_OP));
+            interactionService.setMetrics(ConfigUtils
+                    .selectImplementation(InteractionMetrics.class, metrics)
+                    .orElse(InteractionMetrics.NO_OP));
+            interactionService.setBlockingScheduler(ConfigUtils
+                    .selectImplementation(BlockingSchedulerProvider.class, blockingSchedulerProviders)
+                    .orElse(BlockingSchedulerProvider.DEFAULT)
+                    .getScheduler());
+            interactionService.setLocalePreferenceStore(ConfigUtils
+                    .selectImplementation(LocalePreferenceStore.class, localePreferenceStores)
+                    .orElse(LocalePreferenceStore.NONE));
             return interactionService.run();
         });
     }
@@ -0,0 +1,202 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction;
+
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.cooldown.CooldownException;
+import botrino.interaction.listener.InteractionListener;
+import botrino.interaction.privilege.PrivilegeException;
+import botrino.interaction.util.MessagePaginator;
+
+import java.util.Map;
+
+/**
+ * Receives measurements about the execution of interactions, in order to forward them to a monitoring system such as
+ * Micrometer. Timers are recorded per listener and per {@link Phase}, and counters per listener and per
+ * {@link Outcome}. When the service uses {@link #NO_OP}, which is the default, no measurement is taken at all.
+ * <p>
+ * Implementations are called from the threads processing interactions, so they must be thread-safe and should not
+ * block.
+ */
+public interface InteractionMetrics {
+
+    /**
+     * An {@link InteractionMetrics} that records nothing.
+     */
+    InteractionMetrics NO_OP = new InteractionMetrics() {
+        @Override
+        public String toString() {
+            return "InteractionMetrics.NO_OP";
+        }
+    };
+
+    /**
+     * Called once when the metrics are attached to an {@link InteractionService}, allowing to register gauges that
+     * poll the given values.
+     *
+     * @param gauges the values that can be observed as gauges
+     */
+    default void bindGauges(Gauges gauges) {}
+
+    /**
+     * Records the duration of a phase of the execution of an interaction.
+     *
+     * @param listener the listener of the interaction
+     * @param phase    the phase that was measured
+     * @param nanos    the duration of the phase in nanoseconds
+     */
+    default void recordPhase(InteractionListener listener, Phase phase, long nanos) {}
+
+    /**
+     * Records how the execution of a listener ended. This is called before the error handler is invoked, if any.
+     *
+     * @param listener the listener of the interaction
+     * @param outcome  the outcome
+     */
+    default void recordOutcome(InteractionListener listener, Outcome outcome) {}
+
+    /**
+     * Records an error that was not handled by the {@link InteractionErrorHandler}, or that occurred before a listener
+     * could be determined for the interaction. Such errors are also logged by the service.
+     *
+     * @param error the error
+     */
+    default void recordUnhandledError(Throwable error) {}
+
+    /**
+     * The phases of the execution of an interaction.
+     */
+    enum Phase {
+        /**
+         * From the reception of the event to the moment the listener starts being processed: this includes retrieving
+         * the channel, filtering the event, resolving the locale and waiting for the concurrency limits defined in
+         * {@link InteractionConfig#scheduling()}.
+         */
+        QUEUE_WAIT,
+        /**
+         * The acknowledgement of the interaction before running the listener, only recorded with the DEFER and
+         * DEFER_EPHEMERAL acknowledgment modes.
+         */
+        ACK,
+        /**
+         * The checks performed before running the listener: acknowledgement, privilege and cooldown, which run
+         * concurrently.
+         */
+        PRE_CHECK,
+        /**
+         * The execution of {@link InteractionListener#run}.
+         */
+        RUN
+    }
+
+    /**
+     * The possible outcomes of the execution of a listener.
+     */
+    enum Outcome {
+        /**
+         * The listener completed successfully.
+         */
+        SUCCESS,
+        /**
+         * A {@link PrivilegeException} was thrown.
+         */
+        PRIVILEGE_DENIED,
+        /**
+         * A {@link CooldownException} was thrown.
+         */
+        COOLDOWN,
+        /**
+         * An {@link InteractionFailedException} was thrown.
+         */
+        INTERACTION_FAILED,
+        /**
+         * The listener was not run because of the concurrency limits, see {@link OverloadedException}.
+         */
+        OVERLOADED,
+        /**
+         * Any other error was thrown.
+         */
+        ERROR
+    }
+
+    /**
+     * Values of an {@link InteractionService} that can be observed as gauges. They are computed on each call.
+     */
+    interface Gauges {
+
+        /**
+         * Gets the number of single use component listeners currently waiting for an interaction.
+         *
+         * @return the number of single use component listeners
+         */
+        int singleUseComponentListeners();
+
+        /**
+         * Gets the total number of users tracked by the cooldowns of all commands.
+         *
+         * @return the number of cooldown buckets
+         */
+        int cooldownBuckets();
+
+        /**
+         * Gets the number of paginators currently open, see {@link MessagePaginator}.
+         *
+         * @return the number of active paginators
+         */
+        int activePaginators();
+
+        /**
+         * Gets the current limit of interactions executed concurrently, which may adapt to the observed latency, or 0
+         * if {@link InteractionConfig#scheduling()} is not configured.
+         *
+         * @return the concurrency limit
+         */
+        int concurrencyLimit();
+
+        /**
+         * Gets the number of interactions currently admitted for execution, or 0 if
+         * {@link InteractionConfig#scheduling()} is not configured.
+         *
+         * @return the number of interactions in flight
+         */
+        int inFlightInteractions();
+
+        /**
+         * Gets the number of interactions waiting to be admitted for execution, or 0 if
+         * {@link InteractionConfig#scheduling()} is not configured.
+         *
+         * @return the number of queued interactions
+         */
+        int queuedInteractions();
+
+        /**
+         * Gets the number of interactions waiting to be admitted for execution, by guild ID. Interactions in direct
+         * messages are counted by user ID instead. Only guilds with at least one waiting interaction are present, and
+         * the map is empty if {@link InteractionConfig#scheduling()} is not configured.
+         *
+         * @return a snapshot of the queued interactions per guild
+         */
+        Map<Long, Integer> queuedInteractionsPerGuild();
+    }
+}
@@ -0,0 +1,513 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction;
+
+import botrino.interaction.annotation.Lane;
+import botrino.interaction.config.InteractionConfig.SchedulingConfig;
+import botrino.interaction.listener.ChatInputInteractionListener;
+import botrino.interaction.listener.ComponentInteractionListener;
+import botrino.interaction.listener.InteractionListener;
+import org.jspecify.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Admission control for the execution of interactions. At most {@link #limit()} interactions run at the same time, the
+ * others wait in a bounded queue, and are rejected with an {@link OverloadedException} if they cannot start before
+ * their deadline. When a latency target is configured, the limit is adjusted after each execution: it is multiplied by
+ * {@link #BACKOFF_RATIO} when the execution was slower than the target, and grows by one every {@code limit} executions
+ * otherwise.
+ * <p>
+ * Waiting interactions are split into one queue per {@link Lane.Priority}. When a slot frees up, the lane to serve is
+ * picked by smooth weighted round-robin among the lanes that have an interaction ready to start, so that each lane gets
+ * a share of the slots proportional to its weight without starving the others. Within a lane, interactions are further
+ * split by guild, or by user for direct messages, and the guilds are served in turn, so that a single busy guild cannot
+ * delay the interactions of all the others. Each guild queue is served in order of arrival, skipping the interactions
+ * of listeners that reached their own limit.
+ * <p>
+ * An interaction may give up its slot before its execution completes, typically when it starts waiting for the user to
+ * interact with a component, so that waiting interactions don't count against the limits. Only the time during which
+ * the slot was held is taken into account to adjust the limit.
+ */
+final class InteractionScheduler {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final Map<Lane.Priority, Integer> DEFAULT_WEIGHTS = Map.of(
+            Lane.Priority.HIGH, 4,
+            Lane.Priority.NORMAL, 2,
+            Lane.Priority.LOW, 1);
+
+    private final Scheduler timer;
+    private final Map<Lane.Priority, LaneQueue> lanes = new EnumMap<>(Lane.Priority.class);
+    private final Map<InteractionListener, Integer> inFlightPerListener = new HashMap<>();
+    private final Map<Long, Integer> inFlightPerGuild = new HashMap<>();
+    private SchedulingConfig config;
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long arrivals;
+    private long lastBackoff = Long.MIN_VALUE;
+
+    InteractionScheduler(SchedulingConfig config) {
+        this(config, Schedulers.parallel());
+    }
+
+    /**
+     * @param config the configuration
+     * @param timer  the scheduler used as a clock, to expire queued interactions and to start admitted interactions
+     */
+    InteractionScheduler(SchedulingConfig config, Scheduler timer) {
+        this.timer = timer;
+        for (final var priority : DEFAULT_WEIGHTS.keySet()) {
+            lanes.put(priority, new LaneQueue());
+        }
+        this.config = config;
+        this.limit = config.maxConcurrency();
+        configureLanes();
+    }
+
+    /**
+     * Computes the time left before a deadline measured from the creation of an interaction. If the clocks are out of
+     * sync so that the interaction seems to be created in the future, the deadline is measured from now instead.
+     *
+     * @param createdAt the creation time of the interaction
+     * @param now       the current time
+     * @param deadline  the deadline relative to the creation time
+     * @return the time left, between zero and the deadline
+     */
+    static Duration remaining(Instant createdAt, Instant now, Duration deadline) {
+        final var remaining = deadline.minus(Duration.between(createdAt, now));
+        if (remaining.isNegative()) {
+            return Duration.ZERO;
+        }
+        return remaining.compareTo(deadline) > 0 ? deadline : remaining;
+    }
+
+    /**
+     * Gets the lane of the given listener: the one given by its @{@link Lane} annotation if present, otherwise
+     * {@link Lane.Priority#HIGH} for components and modals, {@link Lane.Priority#NORMAL} for chat input commands and
+     * {@link Lane.Priority#LOW} for user and message context menu commands.
+     *
+     * @param listener the listener
+     * @return the lane, never {@link Lane.Priority#DEFAULT}
+     */
+    static Lane.Priority laneOf(InteractionListener listener) {
+        final var annot = listener.getClass().getAnnotation(Lane.class);
+        if (annot != null && annot.value() != Lane.Priority.DEFAULT) {
+            return annot.value();
+        }
+        if (listener instanceof ComponentInteractionListener) {
+            return Lane.Priority.HIGH;
+        }
+        return listener instanceof ChatInputInteractionListener ? Lane.Priority.NORMAL : Lane.Priority.LOW;
+    }
+
+    /**
+     * Applies a new configuration. Interactions that are already running or queued are kept.
+     *
+     * @param config the new configuration
+     */
+    void update(SchedulingConfig config) {
+        final List<Task> granted;
+        synchronized (this) {
+            this.config = config;
+            limit = config.latencyTargetMillis().isPresent() ?
+                    Math.max(config.minConcurrency(), Math.min(config.maxConcurrency(), limit)) :
+                    config.maxConcurrency();
+            configureLanes();
+            lanes.values().forEach(LaneQueue::reindex);
+            granted = drain();
+        }
+        granted.forEach(this::grant);
+    }
+
+    /**
+     * Wraps the execution of an interaction so that it only starts once admitted.
+     *
+     * @param listener  the listener being executed
+     * @param lane      the lane of the interaction, other than {@link Lane.Priority#DEFAULT}
+     * @param guildId   the ID of the guild of the interaction, or of the user for direct messages
+     * @param createdAt the creation time of the interaction, from which the queue deadline is measured
+     * @param execution the execution of the interaction
+     * @return a Mono that runs the execution when admitted, or errors with {@link OverloadedException}
+     */
+    Mono<Void> schedule(InteractionListener listener, Lane.Priority lane, long guildId, Instant createdAt,
+                        Mono<Void> execution) {
+        return schedule(listener, lane, guildId, createdAt, release -> execution);
+    }
+
+    /**
+     * Wraps the execution of an interaction so that it only starts once admitted. The execution is given a callback
+     * that gives up its slot before it completes, which has no effect if called more than once.
+     *
+     * @param listener  the listener being executed
+     * @param lane      the lane of the interaction, other than {@link Lane.Priority#DEFAULT}
+     * @param guildId   the ID of the guild of the interaction, or of the user for direct messages
+     * @param createdAt the creation time of the interaction, from which the queue deadline is measured
+     * @param execution a function accepting the callback that releases the slot, and returning the execution of the
+     *                  interaction
+     * @return a Mono that runs the execution when admitted, or errors with {@link OverloadedException}
+     */
+    Mono<Void> schedule(InteractionListener listener, Lane.Priority lane, long guildId, Instant createdAt,
+                        Function<Runnable, Mono<Void>> execution) {
+        return Mono.defer(() -> {
+            final var task = new Task(listener, lanes.get(lane), guildId);
+            synchronized (this) {
+                final var maxWait = remaining(createdAt, Instant.ofEpochMilli(timer.now(TimeUnit.MILLISECONDS)),
+                        Duration.ofMillis(config.queueDeadlineMillis()));
+                // Queued tasks are waiting for a limit of their own lane, guild or listener, as the queues are drained
+                // after each change, so starting right away doesn't overtake any of them
+                if (canStart(task)) {
+                    start(task);
+                    task.permit.tryEmitEmpty();
+                } else if (maxWait.isZero()) {
+                    return Mono.error(new OverloadedException(OverloadedException.Reason.DEADLINE));
+                } else if (queued >= config.maxQueueSize()) {
+                    return Mono.error(new OverloadedException(OverloadedException.Reason.QUEUE_FULL));
+                } else {
+                    task.arrival = arrivals++;
+                    task.lane.add(task);
+                    queued++;
+                    task.expiry = timer.schedule(() -> expire(task), maxWait.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            return task.permit.asMono()
+                    .then(Mono.defer(() -> {
+                        task.startedAt = timer.now(TimeUnit.NANOSECONDS);
+                        return execution.apply(() -> complete(task, SignalType.ON_COMPLETE));
+                    }))
+                    .doFinally(signal -> complete(task, signal));
+        });
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int queued() {
+        return queued;
+    }
+
+    synchronized Map<Long, Integer> queuedPerGuild() {
+        final var queuedPerGuild = new HashMap<Long, Integer>();
+        for (final var lane : lanes.values()) {
+            lane.guilds.forEach((guildId, guild) -> queuedPerGuild.merge(guildId, guild.size(), Integer::sum));
+        }
+        return queuedPerGuild;
+    }
+
+    private void configureLanes() {
+        lanes.forEach((priority, lane) -> {
+            final var laneConfig = config.lane(priority);
+            lane.weight = laneConfig.weight().orElse(DEFAULT_WEIGHTS.get(priority));
+            lane.limit = laneConfig.maxConcurrency().orElse(Integer.MAX_VALUE);
+        });
+    }
+
+    private boolean canStart(Task task) {
+        if (inFlight >= (int) limit || task.lane.inFlight >= task.lane.limit) {
+            return false;
+        }
+        return canStartInGuild(task.guildId) && canStartForListener(task.listener);
+    }
+
+    private boolean canStartForListener(InteractionListener listener) {
+        final var perCommand = config.maxConcurrencyPerCommand();
+        return perCommand.isEmpty() || inFlightPerListener.getOrDefault(listener, 0) < perCommand.getAsInt();
+    }
+
+    private boolean canStartInGuild(long guildId) {
+        final var perGuild = config.maxConcurrencyPerGuild();
+        return perGuild.isEmpty() || inFlightPerGuild.getOrDefault(guildId, 0) < perGuild.getAsInt();
+    }
+
+    private void start(Task task) {
+        task.state = State.STARTED;
+        inFlight++;
+        task.lane.inFlight++;
+        inFlightPerListener.merge(task.listener, 1, Integer::sum);
+        inFlightPerGuild.merge(task.guildId, 1, Integer::sum);
+        if (!canStartInGuild(task.guildId)) {
+            lanes.values().forEach(lane -> lane.refreshGuild(task.guildId));
+        }
+        if (!canStartForListener(task.listener)) {
+            lanes.values().forEach(lane -> lane.refreshListener(task.listener));
+        }
+    }
+
+    private List<Task> drain() {
+        if (queued == 0 || inFlight >= (int) limit) {
+            return List.of();
+        }
+        final var granted = new ArrayList<Task>();
+        while (inFlight < (int) limit) {
+            final var task = next();
+            if (task == null) {
+                break;
+            }
+            task.lane.remove(task, true);
+            queued--;
+            start(task);
+            granted.add(task);
+        }
+        return granted;
+    }
+
+    private @Nullable Task next() {
+        // Smooth weighted round-robin: every ready lane earns its weight, the richest one is served and pays back the
+        // total weight of the ready lanes
+        LaneQueue best = null;
+        Task bestTask = null;
+        var totalWeight = 0;
+        for (final var lane : lanes.values()) {
+            final var task = lane.firstStartable();
+            if (task == null) {
+                continue;
+            }
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (best == null || lane.currentWeight > best.currentWeight) {
+                best = lane;
+                bestTask = task;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= totalWeight;
+        }
+        return bestTask;
+    }
+
+    private void grant(Task task) {
+        task.expiry.dispose();
+        // Starts the execution on another thread, so that a chain of executions completing synchronously doesn't run on
+        // the stack of the one that released its slot
+        timer.schedule(task.permit::tryEmitEmpty);
+    }
+
+    private void expire(Task task) {
+        synchronized (this) {
+            if (task.state != State.QUEUED) {
+                return;
+            }
+            task.lane.remove(task, false);
+            queued--;
+            task.state = State.REJECTED;
+        }
+        task.permit.tryEmitError(new OverloadedException(OverloadedException.Reason.DEADLINE));
+    }
+
+    private void complete(Task task, SignalType signal) {
+        final List<Task> granted;
+        synchronized (this) {
+            switch (task.state) {
+                case QUEUED -> {
+                    // Cancelled while waiting
+                    task.lane.remove(task, false);
+                    queued--;
+                    task.state = State.REJECTED;
+                    task.expiry.dispose();
+                    return;
+                }
+                case STARTED -> {
+                    // Either the execution terminated, or it gave up its slot before that
+                    task.state = State.RELEASED;
+                    inFlight--;
+                    task.lane.inFlight--;
+                    final var listenerWasAtLimit = !canStartForListener(task.listener);
+                    inFlightPerListener.computeIfPresent(task.listener, (k, n) -> n == 1 ? null : n - 1);
+                    if (listenerWasAtLimit && canStartForListener(task.listener)) {
+                        lanes.values().forEach(lane -> lane.refreshListener(task.listener));
+                    }
+                    final var guildWasAtLimit = !canStartInGuild(task.guildId);
+                    inFlightPerGuild.computeIfPresent(task.guildId, (k, n) -> n == 1 ? null : n - 1);
+                    if (guildWasAtLimit && canStartInGuild(task.guildId)) {
+                        lanes.values().forEach(lane -> lane.refreshGuild(task.guildId));
+                    }
+                    if (task.startedAt != 0 && signal != SignalType.CANCEL) {
+                        adapt(task.startedAt, timer.now(TimeUnit.NANOSECONDS));
+                    }
+                }
+                default -> {
+                    return;
+                }
+            }
+            granted = drain();
+        }
+        granted.forEach(this::grant);
+    }
+
+    private void adapt(long startedAt, long now) {
+        final var target = config.latencyTargetMillis();
+        if (target.isEmpty()) {
+            return;
+        }
+        if (now - startedAt > TimeUnit.MILLISECONDS.toNanos(target.getAsLong())) {
+            // Executions that started before the last backoff did not observe the lowered limit yet
+            if (startedAt >= lastBackoff) {
+                limit = Math.max(config.minConcurrency(), limit * BACKOFF_RATIO);
+                lastBackoff = now;
+            }
+        } else if (inFlight * 2 >= (int) limit) {
+            // Only grows while the limit is actually being used
+            limit = Math.min(config.maxConcurrency(), limit + 1 / limit);
+        }
+    }
+
+    private enum State {
+        QUEUED, STARTED, RELEASED, REJECTED
+    }
+
+    private final class LaneQueue {
+
+        private final Map<Long, GuildQueue> guilds = new HashMap<>();
+        // Guilds with waiting tasks that can start, in turn order. Guilds at their own limit, or whose waiting tasks all
+        // belong to listeners at their limit, are parked out of it until one of their interactions completes, so that
+        // picks don't go through them.
+        private final LinkedHashMap<Long, GuildQueue> ready = new LinkedHashMap<>();
+        // The guilds with waiting tasks of each listener, to park or unpark them when the listener reaches its limit
+        private final Map<InteractionListener, Set<Long>> guildsPerListener = new HashMap<>();
+        private int weight;
+        private int limit;
+        private int inFlight;
+        private int currentWeight;
+
+        private void add(Task task) {
+            final var guild = guilds.computeIfAbsent(task.guildId, k -> new GuildQueue());
+            guild.tasksPerListener.computeIfAbsent(task.listener, k -> new LinkedHashSet<>()).add(task);
+            guildsPerListener.computeIfAbsent(task.listener, k -> new HashSet<>()).add(task.guildId);
+            refresh(task.guildId, guild);
+        }
+
+        private void remove(Task task, boolean served) {
+            final var guild = guilds.get(task.guildId);
+            final var tasks = guild.tasksPerListener.get(task.listener);
+            tasks.remove(task);
+            if (tasks.isEmpty()) {
+                guild.tasksPerListener.remove(task.listener);
+                guildsPerListener.computeIfPresent(task.listener, (k, guildIds) -> {
+                    guildIds.remove(task.guildId);
+                    return guildIds.isEmpty() ? null : guildIds;
+                });
+            }
+            if (guild.tasksPerListener.isEmpty()) {
+                guilds.remove(task.guildId);
+                ready.remove(task.guildId);
+                return;
+            }
+            if (served) {
+                // Round-robin: the guild that was just served goes to the back of the line
+                ready.remove(task.guildId);
+            }
+            refresh(task.guildId, guild);
+        }
+
+        private void refresh(long guildId, GuildQueue guild) {
+            if (canStartInGuild(guildId) && guild.first() != null) {
+                ready.putIfAbsent(guildId, guild);
+            } else {
+                ready.remove(guildId);
+            }
+        }
+
+        private void refreshGuild(long guildId) {
+            final var guild = guilds.get(guildId);
+            if (guild != null) {
+                refresh(guildId, guild);
+            }
+        }
+
+        private void refreshListener(InteractionListener listener) {
+            final var guildIds = guildsPerListener.get(listener);
+            if (guildIds != null) {
+                guildIds.forEach(this::refreshGuild);
+            }
+        }
+
+        private void reindex() {
+            guilds.forEach(this::refresh);
+        }
+
+        private @Nullable Task firstStartable() {
+            if (ready.isEmpty() || inFlight >= limit) {
+                return null;
+            }
+            return ready.values().iterator().next().first();
+        }
+    }
+
+    private final class GuildQueue {
+
+        // Tasks of each listener in order of arrival, with constant time removal of expired and cancelled tasks
+        private final Map<InteractionListener, LinkedHashSet<Task>> tasksPerListener = new HashMap<>();
+
+        // The task that arrived first among the listeners below their own limit
+        private @Nullable Task first() {
+            Task first = null;
+            for (final var tasks : tasksPerListener.values()) {
+                final var task = tasks.iterator().next();
+                if (canStartForListener(task.listener) && (first == null || task.arrival < first.arrival)) {
+                    first = task;
+                }
+            }
+            return first;
+        }
+
+        private int size() {
+            return tasksPerListener.values().stream().mapToInt(Set::size).sum();
+        }
+    }
+
+    private static final class Task {
+
+        private final InteractionListener listener;
+        private final LaneQueue lane;
+        private final long guildId;
+        private final Sinks.Empty<Void> permit = Sinks.empty();
+        private long arrival;
+        private State state = State.QUEUED;
+        private Disposable expiry = Disposables.disposed();
+        private volatile long startedAt;
+
+        private Task(InteractionListener listener, LaneQueue lane, long guildId) {
+            this.listener = listener;
+            this.lane = lane;
+            this.guildId = guildId;
+        }
+    }
+}
@@ -31,7 +31,10 @@ import botrino.interaction.context.*;
 import botrino.interaction.cooldown.Cooldown;
 import botrino.interaction.cooldown.CooldownException;
 import botrino.interaction.listener.*;
+import botrino.interaction.locale.LocalePreferenceStore;
+import botrino.interaction.locale.LocalePreferences;
 import botrino.interaction.privilege.PrivilegeException;
+import botrino.interaction.util.MessagePaginator;
 import com.github.alex1304.rdi.finder.annotation.RdiFactory;
 import com.github.alex1304.rdi.finder.annotation.RdiService;
 import com.github.benmanes.caffeine.cache.Cache;
@@ -40,25 +43,38 @@ import discord4j.core.GatewayDiscordClient;
 import discord4j.core.event.domain.interaction.*;
 import discord4j.core.object.command.ApplicationCommand;
 import discord4j.core.object.command.ApplicationCommandOption;
+import discord4j.core.object.entity.channel.MessageChannel;
+import discord4j.core.spec.InteractionFollowupCreateSpec;
 import discord4j.discordjson.json.ApplicationCommandOptionData;
 import discord4j.discordjson.json.ApplicationCommandRequest;
+import discord4j.rest.http.client.ClientException;
 import discord4j.rest.util.Permission;
 import discord4j.rest.util.PermissionSet;
 import org.jspecify.annotations.Nullable;
 import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.Logger;
 import reactor.util.Loggers;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static reactor.core.publisher.Sinks.EmitFailureHandler.FAIL_FAST;
@@ -72,8 +88,15 @@ import static reactor.function.TupleUtils.function;
 public class InteractionService {
 
     private static final Logger LOGGER = Loggers.getLogger(InteractionService.class);
-
-    private final InteractionConfig interactionConfig;
+    private static final Duration DEPLOY_MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Predicate<Throwable> IS_CLIENT_ERROR =
+            ClientException.isStatusCode(IntStream.range(400, 500).boxed().toArray(Integer[]::new));
+    // Discord's JSON error code for "Interaction has already been acknowledged"
+    private static final int ALREADY_ACKNOWLEDGED = 40060;
+    private static final String OVERLOADED_MESSAGE =
+            "Too many requests are being processed right now, please try again in a moment.";
+
+    private final Flux<InteractionConfig> configChanges;
     private final GatewayDiscordClient gateway;
     private final Locale defaultLocale;
 
@@ -88,8 +111,15 @@ public class InteractionService {
     private final Sinks.Empty<Void> onCommandsDeployed = Sinks.empty();
 
     private final Map<InteractionListener, Cooldown> cooldownPerCommand = new ConcurrentHashMap<>();
+    // Releases the slots held by the running interactions, by interaction ID
+    private final Map<Long, Runnable> slotReleases = new ConcurrentHashMap<>();
+    private volatile InteractionConfig interactionConfig;
+    private volatile Scheduler blockingScheduler;
     private InteractionErrorHandler errorHandler;
     private InteractionEventProcessor eventProcessor;
+    private volatile InteractionMetrics metrics;
+    private volatile @Nullable InteractionScheduler scheduler;
+    private volatile LocalePreferences localePreferences;
 
     /**
      * @param configContainer -
@@ -100,21 +130,29 @@ public class InteractionService {
     @Deprecated
     @RdiFactory
     public InteractionService(ConfigContainer configContainer, GatewayDiscordClient gateway) {
-        this(configContainer.get(InteractionConfig.class), gateway, Locale.getDefault(),
-                InteractionErrorHandler.NO_OP, InteractionEventProcessor.NO_OP);
+        this(configContainer.get(InteractionConfig.class), configContainer.changes(InteractionConfig.class), gateway,
+                Locale.getDefault(), Schedulers.boundedElastic(), InteractionErrorHandler.NO_OP,
+                InteractionEventProcessor.NO_OP, InteractionMetrics.NO_OP, LocalePreferenceStore.NONE);
     }
 
-    private InteractionService(InteractionConfig interactionConfig, GatewayDiscordClient gateway,
-                               Locale defaultLocale, InteractionErrorHandler errorHandler,
-                               InteractionEventProcessor eventProcessor) {
+    private InteractionService(InteractionConfig interactionConfig, Flux<InteractionConfig> configChanges,
+                               GatewayDiscordClient gateway, Locale defaultLocale, Scheduler blockingScheduler,
+                               InteractionErrorHandler errorHandler, InteractionEventProcessor eventProcessor,
+                               InteractionMetrics metrics, LocalePreferenceStore localePreferenceStore) {
         this.interactionConfig = interactionConfig;
+        this.configChanges = configChanges;
         this.gateway = gateway;
         this.defaultLocale = defaultLocale;
+        this.blockingScheduler = blockingScheduler;
         this.errorHandler = errorHandler;
         this.eventProcessor = eventProcessor;
+        this.localePreferences = LocalePreferences.create(localePreferenceStore);
         this.componentInteractionsSingleUse = Caffeine.newBuilder()
                 .expireAfterWrite(getAwaitComponentTimeout())
                 .build();
+        this.scheduler = interactionConfig.scheduling().map(InteractionScheduler::new).orElse(null);
+        this.metrics = metrics;
+        metrics.bindGauges(new Gauges());
     }
 
     /**
@@ -164,6 +202,33 @@ public class InteractionService {
         this.eventProcessor = eventProcessor;
     }
 
+    void setBlockingScheduler(Scheduler blockingScheduler) {
+        LOGGER.debug("Using blocking scheduler {}", blockingScheduler);
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    void setMetrics(InteractionMetrics metrics) {
+        LOGGER.debug("Using metrics {}", metrics);
+        this.metrics = metrics;
+        metrics.bindGauges(new Gauges());
+    }
+
+    void setLocalePreferenceStore(LocalePreferenceStore localePreferenceStore) {
+        LOGGER.debug("Using locale preference store {}", localePreferenceStore);
+        this.localePreferences = LocalePreferences.create(localePreferenceStore);
+    }
+
+    /**
+     * Gets the locale preferences of users and guilds, backed by the {@link LocalePreferenceStore} of this service.
+     * Preferences found there take precedence over {@link InteractionEventProcessor#computeLocale}. Changing a
+     * preference through the returned object applies to the next interactions immediately.
+     *
+     * @return the locale preferences
+     */
+    public LocalePreferences getLocalePreferences() {
+        return localePreferences;
+    }
+
     /**
      * Registers a new chat input command. This variant is suited for commands that don't have subcommands and that
      * directly define a @{@link ChatInputCommand} annotation. To register chat input commands with
@@ -323,6 +388,10 @@ public class InteractionService {
      * Registers a new component listener that is going to be executed only once. It can only be executed by the same
      * user in the same channel as a previous interaction which context is specified. This is generally called
      * indirectly via {@link InteractionContext#awaitComponentInteraction(ComponentInteractionListener)}.
+     * <p>
+     * If the parent interaction is still running and holds a slot of the {@link InteractionConfig#scheduling()
+     * scheduling}, it gives it up, as waiting for the user doesn't use any resources and the component interaction is
+     * admitted on its own.
      *
      * @param listener      the listener to register
      * @param parentContext the context for the parent interaction
@@ -335,8 +404,19 @@ public class InteractionService {
                         k -> new ConcurrentHashMap<>())
                 .put(listener.customId(), listener);
         LOGGER.debug("Registered single use component interaction listener {}", listener);
+        final var release = slotReleases.remove(parentContext.event().getInteraction().getId().asLong());
+        if (release != null) {
+            release.run();
+        }
     }
 
+    /**
+     * Gets a {@link Mono} that completes when commands have been successfully deployed to Discord, or errors if the
+     * deployment has failed. If {@link InteractionConfig#deployCommandsInBackground()} is enabled, the error is only
+     * emitted once all retries are exhausted.
+     *
+     * @return a Mono completing when commands are deployed
+     */
     public Mono<Void> onCommandsDeployed() {
         return onCommandsDeployed.asMono();
     }
@@ -354,38 +434,126 @@ public class InteractionService {
     /**
      * Runs the service. Upon subscription, it will start by deploying the commands to Discord, either globally or in a
      * specific guild according to the config, then it will start listening to the interaction events coming from
-     * gateway. It never completes until the underlying {@link GatewayDiscordClient#getEventDispatcher()} terminates.
+     * gateway. If {@link InteractionConfig#deployCommandsInBackground()} is enabled, it will start listening to events
+     * immediately and deploy the commands concurrently, in which case the outcome of the deployment is only observable
+     * via {@link #onCommandsDeployed()}. It never completes until the underlying
+     * {@link GatewayDiscordClient#getEventDispatcher()} terminates.
+     * <p>
+     * If the configuration is reloaded while the service is running, the new values are applied to the interactions
+     * received afterwards. Changes to the guild IDs where commands are deployed only take effect on next startup.
      *
      * @return a Mono that never completes unless the event dispatcher terminates.
      */
     public Mono<Void> run() {
-        return deployCommands().then(gateway
-                .on(InteractionCreateEvent.class, event -> event.getInteraction().getChannel()
-                        .flatMap(channel -> eventProcessor.filter(event)
-                                .filter(Boolean::booleanValue)
-                                .flatMap(__ -> eventProcessor.computeLocale(event).defaultIfEmpty(defaultLocale))
-                                .map(locale -> MatcherFunction.<CommandRunner>create()
-                                        .matchType(ChatInputInteractionEvent.class, ev -> new ChatInputCommandRunner(
-                                                new ChatInputInteractionContext(this, locale, ev, channel)))
-                                        .matchType(UserInteractionEvent.class, ev -> new UserCommandRunner(
-                                                new UserInteractionContext(this, locale, ev, channel)))
-                                        .matchType(MessageInteractionEvent.class, ev -> new MessageCommandRunner(
-                                                new MessageInteractionContext(this, locale, ev, channel)))
-                                        .matchType(ButtonInteractionEvent.class, ev -> new ComponentCommandRunner(
-                                                new ButtonInteractionContext(this, locale, ev, channel)))
-                                        .matchType(SelectMenuInteractionEvent.class, ev -> new ComponentCommandRunner(
-                                                new SelectMenuInteractionContext(this, locale, ev, channel)))
-                                        .matchType(ModalSubmitInteractionEvent.class, ev -> new ComponentCommandRunner(
-                                                new ModalSubmitInteractionContext(this, locale, ev, channel)))
-                                        .apply(event))
-                                .flatMap(Mono::justOrEmpty)
-                                .flatMap(runner -> runner.run()
-                                        .onErrorResume(t -> Mono.from(
-                                                executeErrorHandler(t, errorHandler, runner.ctx())).then())
-                                        .onErrorResume(t -> Mono.fromRunnable(
-                                                () -> LOGGER.error("An unhandled error occurred when executing an " +
-                                                        "interaction. Context: " + runner.ctx(), t))))))
-                .then(Mono.fromRunnable(() -> LOGGER.info("Command listener completed"))));
+        return Mono.using(this::listenToConfigChanges, __ -> deployAndListen(), Disposable::dispose);
+    }
+
+    private Mono<Void> deployAndListen() {
+        if (interactionConfig.deployCommandsInBackground()) {
+            return Mono.when(listenToInteractions(), deployCommands()
+                    .retryWhen(Retry.backoff(interactionConfig.deployCommandsMaxRetries(), DEPLOY_MIN_BACKOFF)
+                            .filter(InteractionService::isRetryableDeployError)
+                            .doBeforeRetry(signal -> LOGGER.warn("Command deploy failed, retrying (attempt " +
+                                    (signal.totalRetries() + 1) + ")", signal.failure())))
+                    .doOnError(e -> onCommandsDeployed.emitError(new RuntimeException("Command deploy failed", e),
+                            FAIL_FAST))
+                    .then(Mono.fromRunnable(() -> onCommandsDeployed.emitEmpty(FAIL_FAST)))
+                    .onErrorResume(e -> Mono.fromRunnable(() -> LOGGER.error("Command deploy failed, commands may " +
+                            "be outdated until next restart", e))));
+        }
+        return deployCommands()
+                .doOnError(e -> onCommandsDeployed.emitError(new RuntimeException("Command deploy failed", e),
+                        FAIL_FAST))
+                .then(Mono.fromRunnable(() -> onCommandsDeployed.emitEmpty(FAIL_FAST)))
+                .then(listenToInteractions());
+    }
+
+    private Disposable listenToConfigChanges() {
+        return configChanges
+                .doOnNext(newConfig -> {
+                    final var oldConfig = interactionConfig;
+                    interactionConfig = newConfig;
+                    componentInteractionsSingleUse.policy().expireAfterWrite()
+                            .ifPresent(policy -> policy.setExpiresAfter(getAwaitComponentTimeout()));
+                    updateScheduler(newConfig);
+                    if (!oldConfig.applicationCommandsGuildId().equals(newConfig.applicationCommandsGuildId()) ||
+                            !oldConfig.privateCommandsGuildId().equals(newConfig.privateCommandsGuildId())) {
+                        LOGGER.warn("Changes to the guild IDs where commands are deployed will only take effect on " +
+                                "next startup");
+                    }
+                    LOGGER.debug("Applied new interaction config {}", newConfig);
+                })
+                .subscribe(null, e -> LOGGER.error("Failed to apply new interaction config", e));
+    }
+
+    private void updateScheduler(InteractionConfig newConfig) {
+        final var current = scheduler;
+        // Interactions admitted by a scheduler that is replaced are still released to it
+        scheduler = newConfig.scheduling()
+                .map(schedulingConfig -> {
+                    if (current == null) {
+                        return new InteractionScheduler(schedulingConfig);
+                    }
+                    current.update(schedulingConfig);
+                    return current;
+                })
+                .orElse(null);
+    }
+
+    private Mono<Void> listenToInteractions() {
+        return gateway
+                .on(InteractionCreateEvent.class, event -> {
+                    final var receivedAt = PhaseTimer.of(metrics).start();
+                    return event.getInteraction().getChannel()
+                            .flatMap(channel -> eventProcessor.filter(event)
+                                    .filter(Boolean::booleanValue)
+                                    .flatMap(__ -> localePreferences.resolve(event.getInteraction())
+                                            .switchIfEmpty(Mono.defer(() -> eventProcessor.computeLocale(event)))
+                                            .defaultIfEmpty(defaultLocale))
+                                    .map(locale -> createRunner(event, locale, channel))
+                                    .flatMap(Mono::justOrEmpty)
+                                    .flatMap(runner -> runner.run(receivedAt)
+                                            .onErrorResume(t -> Mono.from(
+                                                    executeErrorHandler(t, errorHandler, runner.ctx())).then())
+                                            .onErrorResume(OverloadedException.class,
+                                                    e -> respondOverloaded(runner.ctx(), e))
+                                            .onErrorResume(t -> Mono.fromRunnable(() -> {
+                                                metrics.recordUnhandledError(t);
+                                                LOGGER.error("An unhandled error occurred when executing an " +
+                                                        "interaction. Context: " + runner.ctx(), t);
+                                            }))))
+                            // Errors that occurred before a listener could be determined
+                            .doOnError(t -> metrics.recordUnhandledError(t));
+                })
+                .then(Mono.fromRunnable(() -> LOGGER.info("Command listener completed")));
+    }
+
+    private static Mono<Void> respondOverloaded(InteractionContext ctx, OverloadedException e) {
+        // Shedding is expected under load, logging every rejection at error level would only add to it
+        LOGGER.debug("Rejected an interaction due to overload. Context: " + ctx, e);
+        return ctx.respond(InteractionFollowupCreateSpec.builder()
+                        .content(OVERLOADED_MESSAGE)
+                        .ephemeral(true)
+                        .build())
+                .onErrorResume(t -> Mono.fromRunnable(() ->
+                        LOGGER.warn("Failed to respond to an interaction rejected due to overload", t)));
+    }
+
+    private Optional<CommandRunner> createRunner(InteractionCreateEvent event, Locale locale, MessageChannel channel) {
+        return MatcherFunction.<CommandRunner>create()
+                .matchType(ChatInputInteractionEvent.class, ev -> new ChatInputCommandRunner(
+                        new ChatInputInteractionContext(this, locale, ev, channel)))
+                .matchType(UserInteractionEvent.class, ev -> new UserCommandRunner(
+                        new UserInteractionContext(this, locale, ev, channel)))
+                .matchType(MessageInteractionEvent.class, ev -> new MessageCommandRunner(
+                        new MessageInteractionContext(this, locale, ev, channel)))
+                .matchType(ButtonInteractionEvent.class, ev -> new ComponentCommandRunner(
+                        new ButtonInteractionContext(this, locale, ev, channel)))
+                .matchType(SelectMenuInteractionEvent.class, ev -> new ComponentCommandRunner(
+                        new SelectMenuInteractionContext(this, locale, ev, channel)))
+                .matchType(ModalSubmitInteractionEvent.class, ev -> new ComponentCommandRunner(
+                        new ModalSubmitInteractionContext(this, locale, ev, channel)))
+                .apply(event);
     }
 
     private Mono<Tuple2<ComponentInteractionListener<?>, Boolean>>
@@ -402,25 +570,135 @@ public class InteractionService {
                         .map(listener -> Tuples.of(listener, false))));
     }
 
-    private Mono<Void> preCheck(InteractionContext ctx, InteractionListener listener) {
-        return ackIfConfigured(listener, ctx.event())
-                .then(Mono.defer(() -> listener.privilege().checkGranted(ctx)))
-                .then(Mono.fromRunnable(() -> cooldownPerCommand.computeIfAbsent(listener,
-                                InteractionListener::cooldown)
-                        .fire(ctx.user().getId().asLong())));
+    private Mono<Void> execute(InteractionContext ctx, InteractionListener listener,
+                               Supplier<? extends Publisher<?>> runListener, long receivedAt) {
+        final var metrics = this.metrics;
+        final var timer = PhaseTimer.of(metrics);
+        final var run = listener.getClass().isAnnotationPresent(Blocking.class) ?
+                Mono.defer(() -> Mono.from(runListener.get()).then()).subscribeOn(blockingScheduler) :
+                Mono.defer(() -> Mono.from(runListener.get()).then());
+        final Mono<Void> execution;
+        if (!timer.isEnabled()) {
+            execution = preCheck(ctx, listener, timer).then(run);
+        } else {
+            execution = Mono.defer(() -> {
+                timer.recordSince(listener, InteractionMetrics.Phase.QUEUE_WAIT, receivedAt);
+                return timer.timed(preCheck(ctx, listener, timer), listener, InteractionMetrics.Phase.PRE_CHECK)
+                        .then(timer.timed(run, listener, InteractionMetrics.Phase.RUN))
+                        .doOnSuccess(__ -> metrics.recordOutcome(listener, InteractionMetrics.Outcome.SUCCESS))
+                        .doOnError(t -> metrics.recordOutcome(listener, outcomeOf(t)));
+            });
+        }
+        final var ackMode = ackMode(listener);
+        final var acknowledgedExecution = ackMode == Acknowledge.Mode.AUTO ||
+                ackMode == Acknowledge.Mode.AUTO_EPHEMERAL ?
+                withAutoDefer(ctx, execution, ackMode == Acknowledge.Mode.AUTO_EPHEMERAL) : execution;
+        final var scheduler = this.scheduler;
+        if (scheduler == null) {
+            return acknowledgedExecution;
+        }
+        final var interaction = ctx.event().getInteraction();
+        // Direct messages are queued per user, snowflakes of guilds and users never collide
+        final var guildId = interaction.getGuildId().orElse(ctx.user().getId()).asLong();
+        final var interactionId = interaction.getId().asLong();
+        return scheduler.schedule(listener, InteractionScheduler.laneOf(listener), guildId,
+                        interaction.getId().getTimestamp(), release -> {
+                            slotReleases.put(interactionId, release);
+                            return acknowledgedExecution.doFinally(
+                                    signal -> slotReleases.remove(interactionId, release));
+                        })
+                .doOnError(OverloadedException.class,
+                        e -> metrics.recordOutcome(listener, InteractionMetrics.Outcome.OVERLOADED));
     }
 
-    private Mono<Void> ackIfConfigured(InteractionListener listener, DeferrableInteractionEvent event) {
+    private Mono<Void> withAutoDefer(InteractionContext ctx, Mono<Void> execution, boolean ephemeral) {
         return Mono.defer(() -> {
-            final var annot = listener.getClass().getAnnotation(Acknowledge.class);
-            final var ackMode = annot != null && annot.value() != Acknowledge.Mode.DEFAULT ?
-                    annot.value() : interactionConfig.defaultACKModeEnum();
-            if (ackMode != Acknowledge.Mode.NONE) {
-                final var ephemeral = ackMode == Acknowledge.Mode.DEFER_EPHEMERAL;
-                if (event instanceof ComponentInteractionEvent) {
-                    return ((ComponentInteractionEvent) event).deferEdit().withEphemeral(ephemeral);
-                }
-                return event.deferReply().withEphemeral(ephemeral);
+            // Discord's deadline starts when the interaction is created, not when the event is received
+            final var delay = InteractionScheduler.remaining(ctx.event().getInteraction().getId().getTimestamp(),
+                    Instant.now(), Duration.ofMillis(interactionConfig.autoDeferThresholdMillis()));
+            final var timer = Mono.delay(delay).subscribe(__ -> ctx.deferIfUnacknowledged(ephemeral)
+                    .subscribe(null, e -> {
+                        if (isAlreadyAcknowledged(e)) {
+                            // The listener responded directly on the event, which the context doesn't know about
+                            LOGGER.debug("Interaction was acknowledged before the automatic deferral", e);
+                        } else {
+                            LOGGER.warn("Failed to defer interaction automatically", e);
+                        }
+                    }));
+            return execution
+                    // Makes sure the error handler is able to send followups
+                    .onErrorResume(t -> ctx.deferIfUnacknowledged(ephemeral)
+                            .onErrorResume(e -> {
+                                t.addSuppressed(e);
+                                return Mono.empty();
+                            })
+                            .then(Mono.error(t)))
+                    .doFinally(signal -> timer.dispose());
+        });
+    }
+
+    private static boolean isAlreadyAcknowledged(Throwable t) {
+        return t instanceof ClientException e && e.getErrorResponse()
+                .map(response -> response.getFields().get("code"))
+                .filter(code -> code instanceof Number n && n.intValue() == ALREADY_ACKNOWLEDGED)
+                .isPresent();
+    }
+
+    private static InteractionMetrics.Outcome outcomeOf(Throwable t) {
+        if (t instanceof PrivilegeException) {
+            return InteractionMetrics.Outcome.PRIVILEGE_DENIED;
+        }
+        if (t instanceof CooldownException) {
+            return InteractionMetrics.Outcome.COOLDOWN;
+        }
+        if (t instanceof InteractionFailedException) {
+            return InteractionMetrics.Outcome.INTERACTION_FAILED;
+        }
+        return InteractionMetrics.Outcome.ERROR;
+    }
+
+    private Mono<Void> preCheck(InteractionContext ctx, InteractionListener listener, PhaseTimer timer) {
+        return Mono.defer(() -> {
+            final var reservation = new AtomicReference<Cooldown.Reservation>();
+            final var reserveCooldown = Mono.<Void>fromRunnable(() -> reservation.set(cooldownPerCommand
+                    .computeIfAbsent(listener, InteractionListener::cooldown)
+                    .reserve(ctx.user().getId().asLong())));
+            // The ack, the privilege and the cooldown are checked concurrently, but all of them must terminate so
+            // that the error handler can reply to the deferred interaction
+            return Mono.whenDelayError(ackIfConfigured(listener, ctx, timer),
+                            Mono.defer(() -> ctx.checkPrivilege(listener.privilege())),
+                            reserveCooldown)
+                    .onErrorMap(Exceptions::isMultiple, InteractionService::mostRelevantPreCheckError)
+                    .doOnError(t -> {
+                        final var r = reservation.get();
+                        if (r != null) {
+                            r.cancel();
+                        }
+                    });
+        });
+    }
+
+    private static Throwable mostRelevantPreCheckError(Throwable multiple) {
+        final var errors = Exceptions.unwrapMultiple(multiple);
+        return errors.stream()
+                .min(Comparator.comparingInt(t -> t instanceof CooldownException ? 2
+                        : t instanceof PrivilegeException ? 1 : 0))
+                .orElse(multiple);
+    }
+
+    private Acknowledge.Mode ackMode(InteractionListener listener) {
+        final var annot = listener.getClass().getAnnotation(Acknowledge.class);
+        return annot != null && annot.value() != Acknowledge.Mode.DEFAULT ?
+                annot.value() : interactionConfig.defaultACKModeEnum();
+    }
+
+    private Mono<Void> ackIfConfigured(InteractionListener listener, InteractionContext ctx,
+                                       PhaseTimer timer) {
+        return Mono.defer(() -> {
+            final var ackMode = ackMode(listener);
+            if (ackMode == Acknowledge.Mode.DEFER || ackMode == Acknowledge.Mode.DEFER_EPHEMERAL) {
+                final var ack = ctx.deferIfUnacknowledged(ackMode == Acknowledge.Mode.DEFER_EPHEMERAL);
+                return timer.timed(ack, listener, InteractionMetrics.Phase.ACK);
             }
             return Mono.empty();
         });
@@ -432,6 +710,7 @@ public class InteractionService {
                 .matchType(InteractionFailedException.class, e -> errorHandler.handleInteractionFailed(e, ctx))
                 .matchType(PrivilegeException.class, e -> errorHandler.handlePrivilege(e, ctx))
                 .matchType(CooldownException.class, e -> errorHandler.handleCooldown(e, ctx))
+                .matchType(OverloadedException.class, e -> errorHandler.handleOverloaded(e, ctx))
                 .apply(t)
                 .orElseGet(() -> errorHandler.handleDefault(t, ctx));
     }
@@ -462,14 +741,17 @@ public class InteractionService {
                                     List.copyOf(privateCommandRequests.values()));
                     return Flux.merge(removeAllGlobal, nonPrivateCommands, privateCommands);
                 })
-                .doOnError(e -> onCommandsDeployed.emitError(new RuntimeException("Command deploy failed", e),
-                        FAIL_FAST))
-                .then(Mono.fromRunnable(() -> onCommandsDeployed.emitEmpty(FAIL_FAST)));
+                .then(Mono.fromRunnable(() -> LOGGER.info("Application commands deployed")));
+    }
+
+    private static boolean isRetryableDeployError(Throwable t) {
+        // 4xx errors indicate an issue with the requests themselves, retrying would not help
+        return !IS_CLIENT_ERROR.test(t);
     }
 
     private interface CommandRunner {
 
-        Mono<Void> run();
+        Mono<Void> run(long receivedAt);
 
         InteractionContext ctx();
     }
@@ -479,8 +761,11 @@ public class InteractionService {
         private final InteractionConfig config;
         private final GatewayDiscordClient gateway;
         private @Nullable Locale defaultLocale;
+        private @Nullable Scheduler blockingScheduler;
         private @Nullable InteractionErrorHandler errorHandler;
         private @Nullable InteractionEventProcessor eventProcessor;
+        private @Nullable InteractionMetrics metrics;
+        private @Nullable LocalePreferenceStore localePreferenceStore;
 
         private Builder(InteractionConfig config, GatewayDiscordClient gateway) {
             this.config = config;
@@ -498,6 +783,21 @@ public class InteractionService {
             return this;
         }
 
+        /**
+         * Sets the scheduler on which listeners annotated with @{@link Blocking} are run. By default,
+         * {@link Schedulers#boundedElastic()} is used. On a runtime that supports virtual threads, a scheduler created
+         * from a virtual-thread-per-task executor allows running as many blocking listeners concurrently as there are
+         * interactions, without the thread cap of the bounded elastic scheduler. When using the Botrino framework, the
+         * scheduler is given by a {@link BlockingSchedulerProvider} instead.
+         *
+         * @param blockingScheduler the scheduler for blocking listeners
+         * @return this builder
+         */
+        public Builder setBlockingScheduler(@Nullable Scheduler blockingScheduler) {
+            this.blockingScheduler = blockingScheduler;
+            return this;
+        }
+
         /**
          * Sets the error handler to apply in order to handle errors from the execution of listeners.
          *
@@ -520,6 +820,30 @@ public class InteractionService {
             return this;
         }
 
+        /**
+         * Sets the metrics receiving measurements about the execution of interactions. By default, no measurement is
+         * taken.
+         *
+         * @param metrics the metrics
+         * @return this builder
+         */
+        public Builder setMetrics(@Nullable InteractionMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets the store where the locales chosen by users and guilds are saved. Preferences found in this store take
+         * precedence over the locale computed by the event processor.
+         *
+         * @param localePreferenceStore the locale preference store
+         * @return this builder
+         */
+        public Builder setLocalePreferenceStore(@Nullable LocalePreferenceStore localePreferenceStore) {
+            this.localePreferenceStore = localePreferenceStore;
+            return this;
+        }
+
         /**
          * Builds a new {@link InteractionService} based on the context of this builder.
          *
@@ -527,9 +851,15 @@ public class InteractionService {
          */
         public InteractionService build() {
             final var defaultLocale = Objects.requireNonNullElse(this.defaultLocale, Locale.getDefault());
+            final var blockingScheduler = Objects.requireNonNullElse(this.blockingScheduler,
+                    Schedulers.boundedElastic());
             final var errorHandler = Objects.requireNonNullElse(this.errorHandler, InteractionErrorHandler.NO_OP);
             final var eventProcessor = Objects.requireNonNullElse(this.eventProcessor, InteractionEventProcessor.NO_OP);
-            return new InteractionService(config, gateway, defaultLocale, errorHandler, eventProcessor);
+            final var metrics = Objects.requireNonNullElse(this.metrics, InteractionMetrics.NO_OP);
+            final var localePreferenceStore = Objects.requireNonNullElse(this.localePreferenceStore,
+                    LocalePreferenceStore.NONE);
+            return new InteractionService(config, Flux.empty(), gateway, defaultLocale, blockingScheduler,
+                    errorHandler, eventProcessor, metrics, localePreferenceStore);
         }
     }
 
@@ -549,6 +879,48 @@ public class InteractionService {
 
     }
 
+    private final class Gauges implements InteractionMetrics.Gauges {
+
+        @Override
+        public int singleUseComponentListeners() {
+            return componentInteractionsSingleUse.asMap().values().stream().mapToInt(Map::size).sum();
+        }
+
+        @Override
+        public int cooldownBuckets() {
+            return cooldownPerCommand.values().stream().mapToInt(Cooldown::bucketCount).sum();
+        }
+
+        @Override
+        public int activePaginators() {
+            return MessagePaginator.activeCount();
+        }
+
+        @Override
+        public int concurrencyLimit() {
+            final var scheduler = InteractionService.this.scheduler;
+            return scheduler == null ? 0 : scheduler.limit();
+        }
+
+        @Override
+        public int inFlightInteractions() {
+            final var scheduler = InteractionService.this.scheduler;
+            return scheduler == null ? 0 : scheduler.inFlight();
+        }
+
+        @Override
+        public int queuedInteractions() {
+            final var scheduler = InteractionService.this.scheduler;
+            return scheduler == null ? 0 : scheduler.queued();
+        }
+
+        @Override
+        public Map<Long, Integer> queuedInteractionsPerGuild() {
+            final var scheduler = InteractionService.this.scheduler;
+            return scheduler == null ? Map.of() : scheduler.queuedPerGuild();
+        }
+    }
+
     private final class ChatInputCommandRunner implements CommandRunner {
 
         private final ChatInputInteractionContext ctx;
@@ -558,7 +930,7 @@ public class InteractionService {
         }
 
         @Override
-        public Mono<Void> run() {
+        public Mono<Void> run(long receivedAt) {
             final var name = ctx.event().getCommandName();
             final var key = ctx.event().getOptions().stream()
                     .filter(opt -> opt.getType() == ApplicationCommandOption.Type.SUB_COMMAND_GROUP)
@@ -573,7 +945,7 @@ public class InteractionService {
                             .map(opt -> new ChatInputCommandKey(name, null, opt.getName())))
                     .orElseGet(() -> new ChatInputCommandKey(name, null, null));
             final var listener = findApplicationCommandListener(chatInputCommandListeners, key);
-            return preCheck(ctx, listener).then(Mono.defer(() -> Mono.from(listener.run(ctx)).then()));
+            return execute(ctx, listener, () -> listener.run(ctx), receivedAt);
         }
 
         @Override
@@ -591,9 +963,9 @@ public class InteractionService {
         }
 
         @Override
-        public Mono<Void> run() {
+        public Mono<Void> run(long receivedAt) {
             final var listener = findApplicationCommandListener(userInteractionListeners, ctx.event().getCommandName());
-            return preCheck(ctx, listener).then(Mono.defer(() -> Mono.from(listener.run(ctx)).then()));
+            return execute(ctx, listener, () -> listener.run(ctx), receivedAt);
         }
 
         @Override
@@ -611,10 +983,10 @@ public class InteractionService {
         }
 
         @Override
-        public Mono<Void> run() {
+        public Mono<Void> run(long receivedAt) {
             final var listener = findApplicationCommandListener(messageInteractionListeners,
                     ctx.event().getCommandName());
-            return preCheck(ctx, listener).then(Mono.defer(() -> Mono.from(listener.run(ctx)).then()));
+            return execute(ctx, listener, () -> listener.run(ctx), receivedAt);
         }
 
         @Override
@@ -632,15 +1004,25 @@ public class InteractionService {
         }
 
         @Override
-        public Mono<Void> run() {
+        public Mono<Void> run(long receivedAt) {
             final var key = ContextKey.from(ctx);
             return findComponentListener(key, ctx.event())
-                    .flatMap(function((listener, isSingleUse) -> preCheck(ctx, listener)
-                            .then(Mono.defer(() -> Mono.from(listener.run(ctx)).then()))
-                            .onErrorResume(e -> isSingleUse ?
-                                    Mono.fromRunnable(
-                                            () -> LOGGER.warn("Suppressed error in single use listener", e)) :
-                                    Mono.error(e))));
+                    .flatMap(function((listener, isSingleUse) -> execute(ctx, listener, () -> listener.run(ctx),
+                            receivedAt)
+                            .onErrorResume(e -> {
+                                if (!isSingleUse) {
+                                    return Mono.error(e);
+                                }
+                                if (e instanceof OverloadedException) {
+                                    // The listener did not run, so it keeps waiting for the user to retry
+                                    componentInteractionsSingleUse.asMap()
+                                            .computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                                            .put(listener.customId(), listener);
+                                    return Mono.error(e);
+                                }
+                                return Mono.fromRunnable(
+                                        () -> LOGGER.warn("Suppressed error in single use listener", e));
+                            })));
         }
 
         @Override
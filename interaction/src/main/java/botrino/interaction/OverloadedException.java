@@ -0,0 +1,66 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction;
+
+import botrino.interaction.config.InteractionConfig;
+
+/**
+ * Exception emitted when an interaction is rejected because the service is overloaded. It happens when the limits
+ * defined in {@link InteractionConfig#scheduling()} don't allow the interaction to start before it becomes too late to
+ * respond to it. It is handled by {@link InteractionErrorHandler#handleOverloaded}.
+ */
+public class OverloadedException extends RuntimeException {
+
+    private final Reason reason;
+
+    public OverloadedException(Reason reason) {
+        // Thrown in bursts when the service is overloaded, so the stack trace is not worth filling
+        super("Interaction rejected: " + reason, null, false, false);
+        this.reason = reason;
+    }
+
+    /**
+     * Gets the reason why the interaction was rejected.
+     *
+     * @return the reason
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * The reasons why an interaction may be rejected.
+     */
+    public enum Reason {
+        /**
+         * The queue of interactions waiting to be executed was full.
+         */
+        QUEUE_FULL,
+        /**
+         * The interaction waited in the queue until the deadline defined in
+         * {@link InteractionConfig.SchedulingConfig#queueDeadlineMillis()}.
+         */
+        DEADLINE
+    }
+}
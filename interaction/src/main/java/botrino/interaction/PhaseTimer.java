@@ -0,0 +1,104 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction;
+
+import botrino.interaction.listener.InteractionListener;
+import reactor.core.publisher.Mono;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Measures the phases of the execution of interactions on behalf of an {@link InteractionMetrics}. When the metrics are
+ * {@link InteractionMetrics#NO_OP}, nothing is measured and the clock is never read.
+ */
+final class PhaseTimer {
+
+    private static final PhaseTimer DISABLED = new PhaseTimer(InteractionMetrics.NO_OP, System::nanoTime);
+
+    private final InteractionMetrics metrics;
+    private final LongSupplier clock;
+
+    /**
+     * @param metrics the metrics receiving the measurements
+     * @param clock   the clock, in nanoseconds
+     */
+    PhaseTimer(InteractionMetrics metrics, LongSupplier clock) {
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets a timer for the given metrics, measuring with {@link System#nanoTime()}.
+     *
+     * @param metrics the metrics receiving the measurements
+     * @return a timer, which is shared for {@link InteractionMetrics#NO_OP}
+     */
+    static PhaseTimer of(InteractionMetrics metrics) {
+        return metrics == InteractionMetrics.NO_OP ? DISABLED : new PhaseTimer(metrics, System::nanoTime);
+    }
+
+    boolean isEnabled() {
+        return metrics != InteractionMetrics.NO_OP;
+    }
+
+    /**
+     * Reads the clock, to later measure a phase starting now.
+     *
+     * @return the current time in nanoseconds, or zero if disabled
+     */
+    long start() {
+        return isEnabled() ? clock.getAsLong() : 0;
+    }
+
+    /**
+     * Records the duration of a phase that started at the given time and ends now.
+     *
+     * @param listener the listener being executed
+     * @param phase    the phase
+     * @param start    the start of the phase, as returned by {@link #start()}
+     */
+    void recordSince(InteractionListener listener, InteractionMetrics.Phase phase, long start) {
+        if (isEnabled()) {
+            metrics.recordPhase(listener, phase, clock.getAsLong() - start);
+        }
+    }
+
+    /**
+     * Wraps a Mono so that the time between its subscription and its termination is recorded as the given phase.
+     *
+     * @param mono     the Mono to measure
+     * @param listener the listener being executed
+     * @param phase    the phase
+     * @return the measured Mono, or the same Mono if disabled
+     */
+    Mono<Void> timed(Mono<Void> mono, InteractionListener listener, InteractionMetrics.Phase phase) {
+        if (!isEnabled()) {
+            return mono;
+        }
+        return Mono.defer(() -> {
+            final var start = start();
+            return mono.doOnTerminate(() -> recordSince(listener, phase, start));
+        });
+    }
+}
@@ -23,6 +23,10 @@
  */
 package botrino.interaction.annotation;
 
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.context.InteractionContext;
+import discord4j.core.spec.InteractionFollowupCreateSpec;
+
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
@@ -47,6 +51,22 @@ public @interface Acknowledge {
         DEFAULT,
         NONE,
         DEFER,
-        DEFER_EPHEMERAL
+        DEFER_EPHEMERAL,
+        /**
+         * Lets the listener respond directly if it does so quickly enough, and defers the interaction automatically
+         * otherwise, before Discord's 3-second deadline. The threshold is configurable via
+         * {@link InteractionConfig#autoDeferThresholdMillis()}. Listeners should respond via
+         * {@link InteractionContext#respond(InteractionFollowupCreateSpec)}, which picks the right way to respond
+         * depending on whether the interaction has been deferred.
+         * <p>
+         * The automatic deferral only knows about the responses sent via the context. A listener that responds
+         * directly on the event, for example with {@code ctx.event().reply(...)}, races with it: if the deferral fires
+         * first, the reply fails, and otherwise the deferral is rejected by Discord and ignored.
+         */
+        AUTO,
+        /**
+         * Same as {@link #AUTO}, except that the automatic deferral is ephemeral.
+         */
+        AUTO_EPHEMERAL
     }
 }
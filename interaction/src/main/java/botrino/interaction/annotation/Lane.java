@@ -0,0 +1,59 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction.annotation;
+
+import botrino.interaction.config.InteractionConfig;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Annotation that assigns the interactions of a listener to a scheduling lane, overriding the lane given by the type of
+ * interaction. Lanes only have an effect when {@link InteractionConfig#scheduling()} is configured.
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface Lane {
+
+    /**
+     * The lane to assign.
+     *
+     * @return the priority of the lane
+     */
+    Priority value();
+
+    enum Priority {
+        /**
+         * Uses the lane given by the type of interaction: {@link #HIGH} for components and modals, {@link #NORMAL} for
+         * chat input commands and {@link #LOW} for user and message context menu commands.
+         */
+        DEFAULT,
+        HIGH,
+        NORMAL,
+        LOW
+    }
+}
@@ -24,14 +24,21 @@
 package botrino.interaction.config;
 
 import botrino.api.annotation.ConfigEntry;
+import botrino.interaction.OverloadedException;
 import botrino.interaction.annotation.Acknowledge;
+import botrino.interaction.annotation.Lane;
 import botrino.interaction.context.InteractionContext;
 import botrino.interaction.listener.ComponentInteractionListener;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import org.immutables.value.Value;
 
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 
 /**
  * The configuration for the interaction service.
@@ -93,6 +100,9 @@ public interface InteractionConfig {
      *     only be visible to the user who initiated the interaction.</li>
      *     <li>NONE: won't acknowledge any interaction automatically. In that case, you will be in charge of
      *     acknowledging interactions manually.</li>
+     *     <li>AUTO: lets listeners respond directly, and defers interactions automatically when no response has been
+     *     sent after the threshold defined in {@link #autoDeferThresholdMillis()}.</li>
+     *     <li>AUTO_EPHEMERAL: similar to AUTO except the automatic deferral is ephemeral.</li>
      * </ul>
      * <p>
      * Acknowledgment mode may be overriden for specific commands via the {@link Acknowledge} annotation.
@@ -118,6 +128,60 @@ public interface InteractionConfig {
         return 600;
     }
 
+    /**
+     * Whether to deploy commands in the background when the interaction service starts. If <code>false</code>, the
+     * service will wait for all commands to be deployed before starting to listen to interactions, which means that
+     * interactions on commands that are already registered in Discord will be ignored during that time. If
+     * <code>true</code>, the service starts listening to interactions immediately and deployment happens concurrently,
+     * with retries on server errors as configured in {@link #deployCommandsMaxRetries()}. Default value is
+     * <code>false</code>.
+     *
+     * @return whether to deploy commands in the background
+     */
+    @JsonProperty("deploy_commands_in_background")
+    @Value.Default
+    default boolean deployCommandsInBackground() {
+        return false;
+    }
+
+    /**
+     * The maximum number of times the deployment of commands is retried when it fails due to a server or network error,
+     * with an exponential backoff between each attempt. Only applies if {@link #deployCommandsInBackground()} is
+     * <code>true</code>. Default value is 5.
+     *
+     * @return the max number of retries
+     */
+    @JsonProperty("deploy_commands_max_retries")
+    @Value.Default
+    default int deployCommandsMaxRetries() {
+        return 5;
+    }
+
+    /**
+     * When the acknowledgment mode is AUTO or AUTO_EPHEMERAL, the time in milliseconds after which an interaction that
+     * hasn't been responded to is deferred automatically. It is measured from the creation of the interaction as given
+     * by its ID, so the time spent before the event was received is taken into account. Discord requires a response
+     * within 3 seconds, so this should leave enough margin for the deferral request to complete. Default value is
+     * 2200.
+     *
+     * @return the threshold in milliseconds
+     */
+    @JsonProperty("auto_defer_threshold_millis")
+    @Value.Default
+    default long autoDeferThresholdMillis() {
+        return 2200;
+    }
+
+    /**
+     * Limits the number of interactions executed concurrently. Interactions received while the limit is reached wait
+     * in a queue, and those that cannot start in time to be responded to are rejected with an
+     * {@link OverloadedException}. Leaving empty or setting to <code>null</code> executes all interactions as soon as
+     * they are received.
+     *
+     * @return the scheduling configuration, if present
+     */
+    Optional<SchedulingConfig> scheduling();
+
     /**
      * Gets the enum value equivalent of {@link #defaultACKMode()}.
      *
@@ -127,5 +191,171 @@ public interface InteractionConfig {
         final var value = Acknowledge.Mode.valueOf(defaultACKMode().toUpperCase());
         return value == Acknowledge.Mode.DEFAULT ? DEFAULT_ACK_MODE : value;
     }
-}
 
+    /**
+     * The configuration for the admission control of interactions.
+     */
+    @Value.Immutable
+    @JsonDeserialize(as = ImmutableSchedulingConfig.class)
+    interface SchedulingConfig {
+
+        /**
+         * The maximum number of interactions executed concurrently. If {@link #latencyTargetMillis()} is set, the
+         * actual limit adapts between {@link #minConcurrency()} and this value. Default value is 64.
+         *
+         * @return the max concurrency
+         */
+        @JsonProperty("max_concurrency")
+        @Value.Default
+        default int maxConcurrency() {
+            return 64;
+        }
+
+        /**
+         * The lowest value the concurrency limit may reach when it adapts to the observed latency. Default value is 1.
+         *
+         * @return the min concurrency
+         */
+        @JsonProperty("min_concurrency")
+        @Value.Default
+        default int minConcurrency() {
+            return 1;
+        }
+
+        /**
+         * The maximum number of interactions executed concurrently for a same listener. Leaving empty or setting to
+         * <code>null</code> only applies the global limit.
+         *
+         * @return the max concurrency per command, if present
+         */
+        @JsonProperty("max_concurrency_per_command")
+        OptionalInt maxConcurrencyPerCommand();
+
+        /**
+         * The maximum number of interactions executed concurrently for a same guild, or for a same user in direct
+         * messages. Leaving empty or setting to <code>null</code> only applies the global limit. Regardless of this
+         * value, waiting interactions from different guilds are served in turn.
+         *
+         * @return the max concurrency per guild, if present
+         */
+        @JsonProperty("max_concurrency_per_guild")
+        OptionalInt maxConcurrencyPerGuild();
+
+        /**
+         * The maximum number of interactions waiting for their turn to be executed. Interactions received when the
+         * queue is full are rejected immediately. Default value is 256.
+         *
+         * @return the max queue size
+         */
+        @JsonProperty("max_queue_size")
+        @Value.Default
+        default int maxQueueSize() {
+            return 256;
+        }
+
+        /**
+         * The time in milliseconds after the creation of an interaction beyond which it is rejected if it is still
+         * waiting in the queue. Discord requires a response within 3 seconds, so this should leave enough margin for
+         * the rejection to be sent. Default value is 2500.
+         *
+         * @return the queue deadline in milliseconds
+         */
+        @JsonProperty("queue_deadline_millis")
+        @Value.Default
+        default long queueDeadlineMillis() {
+            return 2500;
+        }
+
+        /**
+         * The execution time in milliseconds above which interactions are considered slow. If set, the concurrency
+         * limit is lowered each time an interaction is slower than this value, and raised again progressively while
+         * interactions are faster. Leaving empty or setting to <code>null</code> keeps the limit at
+         * {@link #maxConcurrency()}.
+         *
+         * @return the latency target in milliseconds, if present
+         */
+        @JsonProperty("latency_target_millis")
+        OptionalLong latencyTargetMillis();
+
+        /**
+         * The configuration of each scheduling lane, by lowercase name of {@link Lane.Priority}. When slots are
+         * available, lanes with waiting interactions are served in proportion to their weight. By default, the
+         * weights of the high, normal and low lanes are 4, 2 and 1 respectively, and lanes are only subject to the
+         * global limit.
+         *
+         * @return the configuration of lanes
+         */
+        @JsonProperty("lanes")
+        Map<String, LaneConfig> lanes();
+
+        /**
+         * Gets the configuration of the given lane, or an empty configuration if the lane isn't present in
+         * {@link #lanes()}.
+         *
+         * @param priority the lane
+         * @return the lane configuration
+         */
+        default LaneConfig lane(Lane.Priority priority) {
+            final var lane = lanes().get(priority.name().toLowerCase(Locale.ROOT));
+            return lane != null ? lane : ImmutableLaneConfig.builder().build();
+        }
+
+        @Value.Check
+        default void check() {
+            if (minConcurrency() < 1 || maxConcurrency() < minConcurrency()) {
+                throw new IllegalStateException("Expected 1 <= min_concurrency <= max_concurrency");
+            }
+            if (maxConcurrencyPerCommand().isPresent() && maxConcurrencyPerCommand().getAsInt() < 1) {
+                throw new IllegalStateException("max_concurrency_per_command must be positive");
+            }
+            if (maxConcurrencyPerGuild().isPresent() && maxConcurrencyPerGuild().getAsInt() < 1) {
+                throw new IllegalStateException("max_concurrency_per_guild must be positive");
+            }
+            if (maxQueueSize() < 0) {
+                throw new IllegalStateException("max_queue_size must not be negative");
+            }
+            for (final var name : lanes().keySet()) {
+                if (Arrays.stream(Lane.Priority.values())
+                        .noneMatch(p -> p != Lane.Priority.DEFAULT && p.name().toLowerCase(Locale.ROOT).equals(name))) {
+                    throw new IllegalStateException("Unknown lane '" + name + "', expected high, normal or low");
+                }
+            }
+        }
+    }
+
+    /**
+     * The configuration for a scheduling lane.
+     */
+    @Value.Immutable
+    @JsonDeserialize(as = ImmutableLaneConfig.class)
+    interface LaneConfig {
+
+        /**
+         * The share of the available slots given to this lane relative to the others when several lanes have
+         * interactions waiting. Leaving empty or setting to <code>null</code> uses the default weight of the lane.
+         *
+         * @return the weight, if present
+         */
+        @JsonProperty("weight")
+        OptionalInt weight();
+
+        /**
+         * The maximum number of interactions of this lane executed concurrently. Leaving empty or setting to
+         * <code>null</code> only applies the global limit.
+         *
+         * @return the max concurrency, if present
+         */
+        @JsonProperty("max_concurrency")
+        OptionalInt maxConcurrency();
+
+        @Value.Check
+        default void check() {
+            if (weight().isPresent() && weight().getAsInt() < 1) {
+                throw new IllegalStateException("The weight of a lane must be positive");
+            }
+            if (maxConcurrency().isPresent() && maxConcurrency().getAsInt() < 1) {
+                throw new IllegalStateException("The max_concurrency of a lane must be positive");
+            }
+        }
+    }
+}
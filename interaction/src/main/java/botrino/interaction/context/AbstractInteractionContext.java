@@ -27,9 +27,14 @@ import botrino.interaction.InteractionService;
 import botrino.interaction.RetryableInteractionException;
 import botrino.interaction.annotation.Acknowledge;
 import botrino.interaction.listener.ComponentInteractionListener;
+import botrino.interaction.privilege.Privilege;
+import botrino.interaction.privilege.PrivilegeException;
 import discord4j.core.event.domain.interaction.DeferrableInteractionEvent;
 import discord4j.core.object.entity.User;
 import discord4j.core.object.entity.channel.MessageChannel;
+import discord4j.core.spec.InteractionApplicationCommandCallbackSpec;
+import discord4j.core.spec.InteractionFollowupCreateSpec;
+import org.jspecify.annotations.Nullable;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
@@ -37,6 +42,10 @@ import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static reactor.core.publisher.Sinks.EmitFailureHandler.FAIL_FAST;
 
@@ -46,6 +55,10 @@ abstract class AbstractInteractionContext<E extends DeferrableInteractionEvent>
     private final Locale locale;
     private final E event;
     private final MessageChannel channel;
+    private final Map<Privilege, Mono<Void>> privilegeDecisions = new ConcurrentHashMap<>();
+    // The initial response to the interaction, either a deferral or a message. It is cached so that followups can wait
+    // for its completion.
+    private final AtomicReference<@Nullable Mono<Void>> initialResponse = new AtomicReference<>();
 
     public AbstractInteractionContext(InteractionService interactionService, Locale locale, E event,
                                       MessageChannel channel) {
@@ -69,6 +82,9 @@ abstract class AbstractInteractionContext<E extends DeferrableInteractionEvent>
                         case NONE -> new NoAckComponentInteractionProxy<>(componentInteraction, sink);
                         case DEFER -> new AckComponentInteractionProxy<>(componentInteraction, sink);
                         case DEFER_EPHEMERAL -> new AckEphemeralComponentInteractionProxy<>(componentInteraction, sink);
+                        case AUTO -> new AutoAckComponentInteractionProxy<>(componentInteraction, sink);
+                        case AUTO_EPHEMERAL ->
+                                new AutoAckEphemeralComponentInteractionProxy<>(componentInteraction, sink);
                         default -> new ComponentInteractionProxy<>(componentInteraction, sink);
                     };
                     interactionService.registerSingleUseComponentListener(proxy, this);
@@ -92,11 +108,72 @@ abstract class AbstractInteractionContext<E extends DeferrableInteractionEvent>
         return event().getInteraction().getUser();
     }
 
+    @Override
+    public final Mono<Void> checkPrivilege(Privilege privilege) {
+        return Mono.defer(() -> privilegeDecisions.computeIfAbsent(privilege, this::evaluate));
+    }
+
+    private Mono<Void> evaluate(Privilege privilege) {
+        // Only grants and refusals are memoized, other errors are forgotten so that the next check evaluates it again.
+        // Only this decision is forgotten, not one that may have replaced it in the meantime.
+        final var decision = new AtomicReference<Mono<Void>>();
+        decision.set(Mono.defer(() -> privilege.checkGranted(this))
+                .doOnError(e -> !(e instanceof PrivilegeException),
+                        e -> privilegeDecisions.remove(privilege, decision.get()))
+                .cache());
+        return decision.get();
+    }
+
     @Override
     public Duration getAwaitComponentTimeout() {
         return interactionService.getAwaitComponentTimeout();
     }
 
+    @Override
+    public final Mono<Void> respond(InteractionFollowupCreateSpec spec) {
+        return Mono.defer(() -> {
+            final var reply = event.reply(toCallbackSpec(spec)).cache();
+            if (initialResponse.compareAndSet(null, reply)) {
+                return reply;
+            }
+            return Objects.requireNonNull(initialResponse.get()).then(event.createFollowup(spec)).then();
+        });
+    }
+
+    @Override
+    public final Mono<Void> deferIfUnacknowledged(boolean ephemeral) {
+        return Mono.defer(() -> {
+            final var deferral = defer(ephemeral).cache();
+            if (initialResponse.compareAndSet(null, deferral)) {
+                return deferral;
+            }
+            return Objects.requireNonNull(initialResponse.get());
+        });
+    }
+
+    /**
+     * Defers the response to the event of this context.
+     *
+     * @param ephemeral whether the deferred response should only be visible to the user
+     * @return a Mono completing when the interaction is deferred
+     */
+    Mono<Void> defer(boolean ephemeral) {
+        return event.deferReply().withEphemeral(ephemeral);
+    }
+
+    private static InteractionApplicationCommandCallbackSpec toCallbackSpec(InteractionFollowupCreateSpec spec) {
+        return InteractionApplicationCommandCallbackSpec.builder()
+                .content(spec.content())
+                .tts(spec.tts())
+                .ephemeral(spec.ephemeral())
+                .embeds(spec.embeds())
+                .files(spec.files())
+                .fileSpoilers(spec.fileSpoilers())
+                .allowedMentions(spec.allowedMentions())
+                .components(spec.components())
+                .build();
+    }
+
     private static class ComponentInteractionProxy<R> implements ComponentInteractionListener<R> {
 
         private final ComponentInteractionListener<R> delegate;
@@ -156,4 +233,21 @@ abstract class AbstractInteractionContext<E extends DeferrableInteractionEvent>
             super(delegate, sink);
         }
     }
+
+    @Acknowledge(Acknowledge.Mode.AUTO)
+    private final static class AutoAckComponentInteractionProxy<R> extends ComponentInteractionProxy<R> {
+
+        private AutoAckComponentInteractionProxy(ComponentInteractionListener<R> delegate, Sinks.One<R> sink) {
+            super(delegate, sink);
+        }
+    }
+
+    @Acknowledge(Acknowledge.Mode.AUTO_EPHEMERAL)
+    private final static class AutoAckEphemeralComponentInteractionProxy<R> extends ComponentInteractionProxy<R> {
+
+        private AutoAckEphemeralComponentInteractionProxy(ComponentInteractionListener<R> delegate,
+                                                          Sinks.One<R> sink) {
+            super(delegate, sink);
+        }
+    }
 }
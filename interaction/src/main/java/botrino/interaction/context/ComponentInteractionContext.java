@@ -26,6 +26,7 @@ package botrino.interaction.context;
 import botrino.interaction.InteractionService;
 import discord4j.core.event.domain.interaction.ComponentInteractionEvent;
 import discord4j.core.object.entity.channel.MessageChannel;
+import reactor.core.publisher.Mono;
 
 import java.util.Locale;
 
@@ -39,6 +40,11 @@ public class ComponentInteractionContext extends AbstractInteractionContext<Comp
         super(interactionService, locale, event, channel);
     }
 
+    @Override
+    Mono<Void> defer(boolean ephemeral) {
+        return event().deferEdit().withEphemeral(ephemeral);
+    }
+
     @Override
     public String toString() {
         return "ComponentInteractionContext{" +
@@ -28,10 +28,14 @@ import botrino.interaction.InteractionService;
 import botrino.interaction.annotation.Acknowledge;
 import botrino.interaction.config.InteractionConfig;
 import botrino.interaction.listener.ComponentInteractionListener;
+import botrino.interaction.privilege.Privilege;
+import botrino.interaction.privilege.PrivilegeException;
+import discord4j.core.event.domain.interaction.ComponentInteractionEvent;
 import discord4j.core.event.domain.interaction.DeferrableInteractionEvent;
 import discord4j.core.event.domain.interaction.ModalSubmitInteractionEvent;
 import discord4j.core.object.entity.User;
 import discord4j.core.object.entity.channel.MessageChannel;
+import discord4j.core.spec.InteractionFollowupCreateSpec;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
@@ -66,6 +70,20 @@ public interface InteractionContext extends Translator {
      */
     User user();
 
+    /**
+     * Checks if the given privilege is granted according to this context. The decision is memoized, so checking the
+     * same {@link Privilege} instance again on this context, including the check performed before running the
+     * listener, doesn't evaluate it again. Errors other than {@link PrivilegeException} are not memoized, so a check
+     * that failed because of a network error for example is evaluated again next time.
+     *
+     * @param privilege the privilege to check
+     * @return a {@link Mono} which completion indicates that the check was successful, or {@link PrivilegeException} if
+     * not
+     */
+    default Mono<Void> checkPrivilege(Privilege privilege) {
+        return privilege.checkGranted(this);
+    }
+
     /**
      * Registers a {@link ComponentInteractionListener} via
      * {@link InteractionService#registerSingleUseComponentListener(ComponentInteractionListener, InteractionContext)}
@@ -314,4 +332,53 @@ public interface InteractionContext extends Translator {
      * @return a {@link Duration}
      */
     Duration getAwaitComponentTimeout();
+
+    /**
+     * Responds to the interaction with a message. If the interaction has not been acknowledged yet, the message is sent
+     * directly as the response, saving the extra request that deferring would cost. Otherwise, it is sent as a
+     * followup, once the acknowledgement has completed. This is the recommended way to respond when the
+     * acknowledgment mode is {@link Acknowledge.Mode#AUTO} or {@link Acknowledge.Mode#AUTO_EPHEMERAL}, as the
+     * interaction may be deferred automatically at any time while the listener is running.
+     * <p>
+     * Only acknowledgements performed by the interaction service or via this context are known to this method. If the
+     * interaction was acknowledged directly on the {@link #event()}, use
+     * {@link DeferrableInteractionEvent#createFollowup()} instead.
+     * <p>
+     * The default implementation doesn't keep track of acknowledgements and always sends a followup.
+     *
+     * @param spec the message to send
+     * @return a Mono completing when the message is sent
+     */
+    default Mono<Void> respond(InteractionFollowupCreateSpec spec) {
+        return event().createFollowup(spec).then();
+    }
+
+    /**
+     * Responds to the interaction with a message containing the given text. See
+     * {@link #respond(InteractionFollowupCreateSpec)} for details.
+     *
+     * @param content the content of the message
+     * @return a Mono completing when the message is sent
+     */
+    default Mono<Void> respond(String content) {
+        return respond(InteractionFollowupCreateSpec.builder().content(content).build());
+    }
+
+    /**
+     * Defers the response to the interaction, unless it has already been acknowledged. Deferring uses
+     * {@link DeferrableInteractionEvent#deferReply()} for commands and
+     * {@link ComponentInteractionEvent#deferEdit()} for components.
+     *
+     * <p>
+     * The default implementation doesn't keep track of acknowledgements and always defers.
+     *
+     * @param ephemeral whether the deferred response should only be visible to the user
+     * @return a Mono completing when the interaction is acknowledged, either by this call or by a previous one
+     */
+    default Mono<Void> deferIfUnacknowledged(boolean ephemeral) {
+        if (event() instanceof ComponentInteractionEvent componentEvent) {
+            return componentEvent.deferEdit().withEphemeral(ephemeral);
+        }
+        return event().deferReply().withEphemeral(ephemeral);
+    }
 }
@@ -64,6 +64,22 @@ public interface Cooldown {
      */
     void fire(long userId);
 
+    /**
+     * Consumes one permit in this cooldown for the specified user, in a way that can be rolled back. This is useful
+     * when the permit is consumed before knowing whether the action will actually be executed. If none is left,
+     * {@link CooldownException} is thrown.
+     * <p>
+     * The default implementation calls {@link #fire(long)} and returns a reservation that doesn't give the permit
+     * back when cancelled.
+     *
+     * @param userId the user id
+     * @return a {@link Reservation} allowing to give the permit back
+     */
+    default Reservation reserve(long userId) {
+        fire(userId);
+        return () -> {};
+    }
+
     /**
      * Gets the total number of times the action can be executed within the interval.
      *
@@ -86,6 +102,16 @@ public interface Cooldown {
      */
     Remaining remaining(long userId);
 
+    /**
+     * Gets the number of users for which this cooldown currently holds usage data. The default implementation returns
+     * 0.
+     *
+     * @return the number of users tracked
+     */
+    default int bucketCount() {
+        return 0;
+    }
+
     /**
      * Data class containing info on the remaining permits and duration before reset.
      *
@@ -94,4 +120,17 @@ public interface Cooldown {
      *                                 number of permits is already at maximum, {@link Duration#ZERO} is returned.
      */
     record Remaining(int remainingPermits, Duration timeLeftBeforeNextPermit) {}
+
+    /**
+     * A permit consumed via {@link #reserve(long)}.
+     */
+    @FunctionalInterface
+    interface Reservation {
+
+        /**
+         * Gives the permit back to the cooldown, as if it had never been consumed. Has no effect if the permit has
+         * already been given back, or if it would have been available again anyway.
+         */
+        void cancel();
+    }
 }
@@ -28,6 +28,7 @@ import botrino.api.util.DurationUtils;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 final class CooldownImpl implements Cooldown {
 
@@ -47,6 +48,18 @@ final class CooldownImpl implements Cooldown {
         buckets.computeIfAbsent(userId, k -> new Bucket()).fire();
     }
 
+    @Override
+    public Reservation reserve(long userId) {
+        var bucket = buckets.computeIfAbsent(userId, k -> new Bucket());
+        var timestamp = bucket.fire();
+        var cancelled = new AtomicBoolean();
+        return () -> {
+            if (cancelled.compareAndSet(false, true)) {
+                bucket.release(timestamp);
+            }
+        };
+    }
+
     @Override
     public int getTotalPermits() {
         return totalPermits;
@@ -62,6 +75,11 @@ final class CooldownImpl implements Cooldown {
         return buckets.computeIfAbsent(userId, k -> new Bucket()).remaining();
     }
 
+    @Override
+    public int bucketCount() {
+        return buckets.size();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -93,15 +111,34 @@ final class CooldownImpl implements Cooldown {
             this.permitHistory = new long[totalPermits];
         }
 
-        private void fire() {
+        private long fire() {
             synchronized (lock) {
                 var remaining = remaining();
                 if (remaining.remainingPermits() == 0) {
                     throw new CooldownException(totalPermits, resetInterval, remaining.timeLeftBeforeNextPermit());
                 }
-                permitHistory[head] = System.nanoTime();
+                var timestamp = System.nanoTime();
+                permitHistory[head] = timestamp;
                 head = (head + 1) % permitHistory.length;
                 count++;
+                return timestamp;
+            }
+        }
+
+        private void release(long timestamp) {
+            synchronized (lock) {
+                var length = permitHistory.length;
+                for (var i = count - 1; i >= 0; i--) {
+                    var index = (tail + i) % length;
+                    if (permitHistory[index] == timestamp) {
+                        for (var j = i + 1; j < count; j++) {
+                            permitHistory[(tail + j - 1) % length] = permitHistory[(tail + j) % length];
+                        }
+                        head = (head - 1 + length) % length;
+                        count--;
+                        return;
+                    }
+                }
             }
         }
 
@@ -33,7 +33,9 @@ import botrino.interaction.privilege.Privileges;
 public interface InteractionListener {
 
     /**
-     * Defines the privilege that must be granted for a user to execute this interaction.
+     * Defines the privilege that must be granted for a user to execute this interaction. The decision made before
+     * executing the interaction is memoized on the context, so if this method returns the same instance on each call,
+     * checking it again from within the listener via {@link Privilege#isGranted} doesn't evaluate it again.
      *
      * @return the privilege
      */
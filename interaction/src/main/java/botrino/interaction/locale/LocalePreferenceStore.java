@@ -0,0 +1,95 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction.locale;
+
+import discord4j.common.util.Snowflake;
+import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * Stores the locales that users and guilds have chosen to use for interactions, typically in a database. Reads are
+ * cached by {@link LocalePreferences}, so implementations don't need to cache anything themselves.
+ */
+public interface LocalePreferenceStore {
+
+    /**
+     * A {@link LocalePreferenceStore} that doesn't store anything.
+     */
+    LocalePreferenceStore NONE = new LocalePreferenceStore() {
+        @Override
+        public Mono<Locale> findUserLocale(Snowflake userId) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Locale> findGuildLocale(Snowflake guildId) {
+            return Mono.empty();
+        }
+
+        @Override
+        public String toString() {
+            return "LocalePreferenceStore.NONE";
+        }
+    };
+
+    /**
+     * Finds the locale chosen by the given user.
+     *
+     * @param userId the ID of the user
+     * @return a Mono emitting the locale, or empty if the user hasn't chosen any
+     */
+    Mono<Locale> findUserLocale(Snowflake userId);
+
+    /**
+     * Finds the locale chosen for the given guild.
+     *
+     * @param guildId the ID of the guild
+     * @return a Mono emitting the locale, or empty if none was chosen for the guild
+     */
+    Mono<Locale> findGuildLocale(Snowflake guildId);
+
+    /**
+     * Saves the locale chosen by the given user. By default, this operation is not supported.
+     *
+     * @param userId the ID of the user
+     * @param locale the locale, or null to remove the preference
+     * @return a Mono completing when the locale is saved
+     */
+    default Mono<Void> saveUserLocale(Snowflake userId, @Nullable Locale locale) {
+        return Mono.error(new UnsupportedOperationException("This store does not support saving locales"));
+    }
+
+    /**
+     * Saves the locale chosen for the given guild. By default, this operation is not supported.
+     *
+     * @param guildId the ID of the guild
+     * @param locale  the locale, or null to remove the preference
+     * @return a Mono completing when the locale is saved
+     */
+    default Mono<Void> saveGuildLocale(Snowflake guildId, @Nullable Locale locale) {
+        return Mono.error(new UnsupportedOperationException("This store does not support saving locales"));
+    }
+}
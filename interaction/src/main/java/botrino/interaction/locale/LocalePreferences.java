@@ -0,0 +1,187 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction.locale;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import discord4j.common.util.Snowflake;
+import discord4j.core.object.command.Interaction;
+import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Resolves the locale chosen by users and guilds from a {@link LocalePreferenceStore}, caching the results for a
+ * certain time. Concurrent lookups of the same preference share a single read from the store. Changes made through this
+ * class are written to the store and applied to the cache immediately, taking precedence over reads that are still in
+ * progress.
+ */
+public final class LocalePreferences {
+
+    /**
+     * The time during which the preferences are cached if not specified otherwise.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    private static final long MAX_SIZE = 100_000;
+
+    private final LocalePreferenceStore store;
+    private final AsyncCache<Snowflake, Optional<Locale>> userLocales;
+    private final AsyncCache<Snowflake, Optional<Locale>> guildLocales;
+
+    private LocalePreferences(LocalePreferenceStore store, Duration ttl, Ticker ticker) {
+        this.store = store;
+        this.userLocales = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(MAX_SIZE).ticker(ticker)
+                .buildAsync();
+        this.guildLocales = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(MAX_SIZE).ticker(ticker)
+                .buildAsync();
+    }
+
+    /**
+     * Creates a new {@link LocalePreferences} backed by the given store, caching the preferences for
+     * {@link #DEFAULT_TTL}.
+     *
+     * @param store the store
+     * @return a new {@link LocalePreferences}
+     */
+    public static LocalePreferences create(LocalePreferenceStore store) {
+        return create(store, DEFAULT_TTL);
+    }
+
+    /**
+     * Creates a new {@link LocalePreferences} backed by the given store, caching the preferences for the given time.
+     *
+     * @param store the store
+     * @param ttl   the time during which a preference is cached after being read or written
+     * @return a new {@link LocalePreferences}
+     */
+    public static LocalePreferences create(LocalePreferenceStore store, Duration ttl) {
+        return create(store, ttl, Ticker.systemTicker());
+    }
+
+    static LocalePreferences create(LocalePreferenceStore store, Duration ttl, Ticker ticker) {
+        return new LocalePreferences(store, ttl, ticker);
+    }
+
+    /**
+     * Gets the store backing this instance.
+     *
+     * @return the store
+     */
+    public LocalePreferenceStore store() {
+        return store;
+    }
+
+    /**
+     * Resolves the locale chosen for the given interaction. The preference of the user takes precedence over the one of
+     * the guild where the interaction happened, if any.
+     *
+     * @param interaction the interaction
+     * @return a Mono emitting the locale, or empty if neither the user nor the guild have chosen any
+     */
+    public Mono<Locale> resolve(Interaction interaction) {
+        if (store == LocalePreferenceStore.NONE) {
+            return Mono.empty();
+        }
+        return findUserLocale(interaction.getUser().getId())
+                .switchIfEmpty(Mono.justOrEmpty(interaction.getGuildId()).flatMap(this::findGuildLocale));
+    }
+
+    /**
+     * Finds the locale chosen by the given user, from the cache if possible.
+     *
+     * @param userId the ID of the user
+     * @return a Mono emitting the locale, or empty if the user hasn't chosen any
+     */
+    public Mono<Locale> findUserLocale(Snowflake userId) {
+        return find(userLocales, userId, store::findUserLocale);
+    }
+
+    /**
+     * Finds the locale chosen for the given guild, from the cache if possible.
+     *
+     * @param guildId the ID of the guild
+     * @return a Mono emitting the locale, or empty if none was chosen for the guild
+     */
+    public Mono<Locale> findGuildLocale(Snowflake guildId) {
+        return find(guildLocales, guildId, store::findGuildLocale);
+    }
+
+    /**
+     * Saves the locale chosen by the given user in the store, and updates the cache once saved.
+     *
+     * @param userId the ID of the user
+     * @param locale the locale, or null to remove the preference
+     * @return a Mono completing when the locale is saved
+     */
+    public Mono<Void> setUserLocale(Snowflake userId, @Nullable Locale locale) {
+        return store.saveUserLocale(userId, locale)
+                .then(Mono.fromRunnable(() -> userLocales.put(userId,
+                        CompletableFuture.completedFuture(Optional.ofNullable(locale)))));
+    }
+
+    /**
+     * Saves the locale chosen for the given guild in the store, and updates the cache once saved.
+     *
+     * @param guildId the ID of the guild
+     * @param locale  the locale, or null to remove the preference
+     * @return a Mono completing when the locale is saved
+     */
+    public Mono<Void> setGuildLocale(Snowflake guildId, @Nullable Locale locale) {
+        return store.saveGuildLocale(guildId, locale)
+                .then(Mono.fromRunnable(() -> guildLocales.put(guildId,
+                        CompletableFuture.completedFuture(Optional.ofNullable(locale)))));
+    }
+
+    /**
+     * Removes all preferences from the cache, so that they are read from the store again. This is useful if the store
+     * was modified without going through this class.
+     */
+    public void invalidateAll() {
+        userLocales.synchronous().invalidateAll();
+        guildLocales.synchronous().invalidateAll();
+    }
+
+    private static Mono<Locale> find(AsyncCache<Snowflake, Optional<Locale>> cache, Snowflake id,
+                                     Function<Snowflake, Mono<Locale>> loader) {
+        // A read that completes after the entry was replaced by a setter or invalidated is discarded by the cache. The
+        // future is shared with the concurrent lookups, so cancelling one of them must not cancel it
+        return Mono.defer(() -> Mono.fromFuture(cache.get(id, (k, executor) -> loader.apply(k)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .toFuture()), true))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    @Override
+    public String toString() {
+        return "LocalePreferences{store=" + store + '}';
+    }
+}
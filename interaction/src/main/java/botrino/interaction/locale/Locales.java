@@ -0,0 +1,61 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction.locale;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides {@link Locale} instances from language tags, reusing the same instance for the same tag.
+ */
+public final class Locales {
+
+    private static final int MAX_INTERNED = 1024;
+    private static final ConcurrentHashMap<String, Locale> INTERNED = new ConcurrentHashMap<>();
+
+    private Locales() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Same as {@link Locale#forLanguageTag(String)}, but returns the same instance when called several times with the
+     * same tag.
+     *
+     * @param languageTag the language tag
+     * @return the locale
+     */
+    public static Locale forLanguageTag(String languageTag) {
+        var locale = INTERNED.get(languageTag);
+        if (locale != null) {
+            return locale;
+        }
+        locale = Locale.forLanguageTag(languageTag);
+        // Tags may come from user input, don't let the table grow indefinitely
+        if (INTERNED.size() < MAX_INTERNED) {
+            var existing = INTERNED.putIfAbsent(languageTag, locale);
+            return existing != null ? existing : locale;
+        }
+        return locale;
+    }
+}
@@ -24,9 +24,12 @@
 package botrino.interaction.privilege;
 
 import botrino.interaction.context.InteractionContext;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.*;
 import java.util.function.BinaryOperator;
+import java.util.function.Function;
 
 /**
  * Represents a requirement to fulfill in order to execute an interaction.
@@ -40,6 +43,94 @@ public interface Privilege {
                 .onErrorResume(PrivilegeException.class, Mono::just);
     }
 
+    private static List<Privilege> sortedByCost(Collection<? extends Privilege> privileges) {
+        var list = new ArrayList<Privilege>(privileges);
+        list.sort(Comparator.comparingInt(Privilege::cost));
+        return List.copyOf(list);
+    }
+
+    private static PrivilegeException suppressAll(List<PrivilegeException> exceptions) {
+        var e = new PrivilegeException();
+        exceptions.forEach(e::addSuppressed);
+        return e;
+    }
+
+    /**
+     * Returns a {@link Privilege} that evaluates as granted only if all the given privileges are granted. The
+     * privileges are evaluated concurrently, in ascending order of {@link #cost()}, and as soon as one of them fails,
+     * the evaluation of the others is cancelled and the exception of the one that failed is forwarded. Because cheap
+     * privileges are evaluated first, a cheap privilege that fails synchronously prevents the expensive ones from being
+     * evaluated at all. If no privileges are given, it is always granted.
+     * <p>
+     * Unlike {@link #and(Privilege)}, this assumes that the privileges don't depend on each other's result.
+     *
+     * @param privileges the privileges to combine
+     * @return a new {@link Privilege}, which cost is the sum of the costs of the given privileges
+     */
+    static Privilege allOf(Collection<? extends Privilege> privileges) {
+        var sorted = sortedByCost(privileges);
+        Privilege combined = ctx -> Flux.fromIterable(sorted)
+                .flatMap(p -> p.checkGranted(ctx), Math.max(1, sorted.size()))
+                .then();
+        return combined.withCost(sorted.stream().mapToInt(Privilege::cost).sum());
+    }
+
+    /**
+     * Same as {@link #allOf(Collection)}, with the privileges given as varargs.
+     *
+     * @param privileges the privileges to combine
+     * @return a new {@link Privilege}
+     */
+    static Privilege allOf(Privilege... privileges) {
+        return allOf(Arrays.asList(privileges));
+    }
+
+    /**
+     * Returns a {@link Privilege} that evaluates as granted if at least one of the given privileges is granted. The
+     * privileges are evaluated concurrently, in ascending order of {@link #cost()}, and as soon as one of them is
+     * granted, the evaluation of the others is cancelled. If all privileges fail, the resulting
+     * {@link PrivilegeException} will be determined by the given aggregator function, which receives the original
+     * exceptions in the same order as the privileges after sorting them by cost. If no privileges are given, the
+     * aggregator is called with an empty list.
+     * <p>
+     * Unlike {@link #or(Privilege, BinaryOperator)}, this assumes that the privileges don't depend on each other's
+     * result.
+     *
+     * @param exceptionAggregator a function that determines the {@link PrivilegeException} to emit if all evaluations
+     *                            fail, based on the original exceptions
+     * @param privileges          the privileges to combine
+     * @return a new {@link Privilege}, which cost is the sum of the costs of the given privileges
+     */
+    static Privilege anyOf(Function<? super List<PrivilegeException>, ? extends PrivilegeException> exceptionAggregator,
+                           Collection<? extends Privilege> privileges) {
+        var sorted = sortedByCost(privileges);
+        Privilege combined = ctx -> Mono.defer(() -> {
+            var exceptions = new PrivilegeException[sorted.size()];
+            return Flux.range(0, sorted.size())
+                    .flatMap(i -> evaluate(sorted.get(i), ctx)
+                            .map(e -> {
+                                exceptions[i] = e;
+                                return false;
+                            })
+                            .defaultIfEmpty(true), Math.max(1, sorted.size()))
+                    .any(Boolean::booleanValue)
+                    .filter(granted -> !granted)
+                    .flatMap(denied -> Mono.error(exceptionAggregator.apply(List.of(exceptions))));
+        });
+        return combined.withCost(sorted.stream().mapToInt(Privilege::cost).sum());
+    }
+
+    /**
+     * Same as {@link #anyOf(Function, Collection)}, with the privileges given as varargs. If all privileges fail, it
+     * will result in a generic {@link PrivilegeException} that adds the original ones as suppressed.
+     *
+     * @param privileges the privileges to combine
+     * @return a new {@link Privilege}
+     */
+    static Privilege anyOf(Privilege... privileges) {
+        return anyOf(Privilege::suppressAll, Arrays.asList(privileges));
+    }
+
     /**
      * Checks if this privilege is granted according to the given context. If the privilege is not granted, it will
      * error with {@link PrivilegeException} possibly carrying details about the missing privilege.
@@ -50,17 +141,52 @@ public interface Privilege {
      */
     Mono<Void> checkGranted(InteractionContext ctx);
 
+    /**
+     * A hint indicating how expensive it is to evaluate this privilege. Combinators such as
+     * {@link #allOf(Collection)} and {@link #anyOf(Function, Collection)} evaluate the cheapest privileges first.
+     * Defaults to 0, which is suitable for privileges that are checked synchronously without I/O.
+     *
+     * @return the cost hint, where higher means more expensive
+     */
+    default int cost() {
+        return 0;
+    }
+
+    /**
+     * Returns a {@link Privilege} that behaves exactly like this one, but with the given {@link #cost() cost hint}.
+     *
+     * @param cost the cost hint, where higher means more expensive
+     * @return a new {@link Privilege}
+     */
+    default Privilege withCost(int cost) {
+        var self = this;
+        return new Privilege() {
+            @Override
+            public Mono<Void> checkGranted(InteractionContext ctx) {
+                return self.checkGranted(ctx);
+            }
+
+            @Override
+            public int cost() {
+                return cost;
+            }
+        };
+    }
+
     /**
      * Checks if this privilege is granted according to the given context. Emits a boolean indicating whether the
      * privilege is granted or not. Use {@link #checkGranted(InteractionContext)} if you need to access the details
      * carried by {@link PrivilegeException} about the missing privilege in case it is not granted.
+     * <p>
+     * The decision is memoized on the context via {@link InteractionContext#checkPrivilege(Privilege)}, so calling
+     * this method again with the same context doesn't evaluate the privilege again.
      *
      * @param ctx the context to evaluate the privilege on
      * @return a {@link Mono} emitting true if granted, false if not. Any error occurring during the evaluation of the
      * privilege, except for {@link PrivilegeException}, will be forwarded as-is through the Mono.
      */
     default Mono<Boolean> isGranted(InteractionContext ctx) {
-        return checkGranted(ctx).thenReturn(true).onErrorReturn(PrivilegeException.class, false);
+        return ctx.checkPrivilege(this).thenReturn(true).onErrorReturn(PrivilegeException.class, false);
     }
 
     /**
@@ -104,11 +230,6 @@ public interface Privilege {
      * @return a new {@link Privilege}
      */
     default Privilege or(Privilege other) {
-        return or(other, (e1, e2) -> {
-            var e = new PrivilegeException();
-            e.addSuppressed(e1);
-            e.addSuppressed(e2);
-            return e;
-        });
+        return or(other, (e1, e2) -> suppressAll(List.of(e1, e2)));
     }
 }
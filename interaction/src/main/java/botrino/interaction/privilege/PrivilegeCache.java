@@ -0,0 +1,303 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction.privilege;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.channel.*;
+import discord4j.core.event.domain.guild.GuildDeleteEvent;
+import discord4j.core.event.domain.guild.GuildUpdateEvent;
+import discord4j.core.event.domain.guild.MemberLeaveEvent;
+import discord4j.core.event.domain.guild.MemberUpdateEvent;
+import discord4j.core.event.domain.role.RoleDeleteEvent;
+import discord4j.core.event.domain.role.RoleUpdateEvent;
+import discord4j.core.object.command.Interaction;
+import discord4j.core.object.entity.Guild;
+import discord4j.core.object.entity.Member;
+import discord4j.core.object.entity.channel.GuildChannel;
+import discord4j.discordjson.json.MemberData;
+import discord4j.discordjson.possible.Possible;
+import discord4j.rest.util.PermissionSet;
+import org.jspecify.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Shared cache for the data needed by the predefined {@link Privileges}, avoiding network calls whenever possible. The
+ * member and permissions sent along with the interaction payload are used first. Otherwise, the data is fetched and
+ * memoized for a short period of time, until a gateway event indicates that it may have changed. The memoized data is
+ * held in a single cache keyed by guild and user. A whole guild is invalidated by recording when it happened, so that
+ * the entries created before are ignored. A fetch that is still in progress when its data is invalidated stores its
+ * result in the entry that was invalidated, so that the outdated data it may have retrieved is not used. The cache is
+ * discarded when the client disconnects.
+ */
+final class PrivilegeCache {
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+    private static final long MAX_GUILDS = 1_000;
+    private static final long MAX_MEMBERS = 100_000;
+    private static final Map<GatewayDiscordClient, PrivilegeCache> CACHES = new ConcurrentHashMap<>();
+
+    private final Cache<MemberKey, MemberEntry> members = Caffeine.newBuilder()
+            .expireAfterWrite(TTL)
+            .maximumSize(MAX_MEMBERS)
+            .build();
+    // The value of the clock when each guild was last invalidated. Forgetting it after the TTL is safe, since all the
+    // entries created before have expired by then.
+    private final Cache<Snowflake, Long> guildInvalidations = Caffeine.newBuilder()
+            .expireAfterWrite(TTL)
+            .maximumSize(MAX_GUILDS)
+            .build();
+    private final AtomicLong clock = new AtomicLong();
+    private final Cache<Snowflake, Snowflake> guildOwners = Caffeine.newBuilder()
+            .expireAfterWrite(TTL)
+            .maximumSize(MAX_GUILDS)
+            .build();
+    // Guild owners are not held in member entries, so a generation tells whether they were invalidated during a fetch
+    private final AtomicLong guildOwnersGeneration = new AtomicLong();
+    private final LongAdder payloadHits = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private PrivilegeCache() {
+    }
+
+    // Only called on the instance that was put in the map, so that removing it on disconnect never runs while the map
+    // is being updated
+    private void listenToEvents(GatewayDiscordClient gateway) {
+        subscriptions.add(Flux.merge(
+                gateway.on(RoleUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                gateway.on(RoleDeleteEvent.class).map(RoleDeleteEvent::getGuildId),
+                gateway.on(TextChannelUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                gateway.on(NewsChannelUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                gateway.on(VoiceChannelUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                gateway.on(ForumChannelUpdateEvent.class).map(event -> event.getCurrent().getGuildId()),
+                gateway.on(CategoryUpdateEvent.class).map(event -> event.getCurrent().getGuildId()))
+                .subscribe(this::invalidateMembers));
+        subscriptions.add(Flux.merge(
+                gateway.on(GuildUpdateEvent.class).map(event -> event.getCurrent().getId()),
+                gateway.on(GuildDeleteEvent.class).map(GuildDeleteEvent::getGuildId))
+                .subscribe(this::invalidateGuild));
+        subscriptions.add(gateway.on(MemberUpdateEvent.class)
+                .subscribe(event -> invalidateMember(event.getGuildId(), event.getMemberId())));
+        subscriptions.add(gateway.on(MemberLeaveEvent.class)
+                .subscribe(event -> invalidateMember(event.getGuildId(), event.getUser().getId())));
+        subscriptions.add(gateway.onDisconnect().subscribe(null, null, () -> {
+            CACHES.remove(gateway, this);
+            subscriptions.dispose();
+        }));
+    }
+
+    /**
+     * Gets the cache associated to the given gateway client, creating it if it doesn't exist yet. The cache is
+     * discarded when the client disconnects.
+     *
+     * @param gateway the gateway client
+     * @return the cache
+     */
+    static PrivilegeCache of(GatewayDiscordClient gateway) {
+        var existing = CACHES.get(gateway);
+        if (existing != null) {
+            return existing;
+        }
+        var created = new PrivilegeCache();
+        existing = CACHES.putIfAbsent(gateway, created);
+        if (existing != null) {
+            return existing;
+        }
+        created.listenToEvents(gateway);
+        return created;
+    }
+
+    /**
+     * Takes a snapshot of the statistics of the cache associated to the given gateway client, without creating it if
+     * it doesn't exist.
+     *
+     * @param gateway the gateway client
+     * @return the statistics, all zero if there is no cache for this client
+     */
+    static PrivilegeCacheStats statsOf(GatewayDiscordClient gateway) {
+        var cache = CACHES.get(gateway);
+        return cache == null ? new PrivilegeCacheStats(0, 0, 0) : cache.stats();
+    }
+
+    /**
+     * Resolves the permissions of the user who initiated the given interaction in the given channel. If the channel is
+     * the one where the interaction was created, the permissions included in the interaction payload are used directly.
+     *
+     * @param interaction the interaction
+     * @param channel     the channel in which permissions are resolved
+     * @return a Mono emitting the effective permissions of the user
+     */
+    Mono<PermissionSet> permissions(Interaction interaction, GuildChannel channel) {
+        var fromPayload = interaction.getChannelId().equals(channel.getId())
+                ? interactionPermissions(interaction) : Optional.<PermissionSet>empty();
+        if (fromPayload.isPresent()) {
+            payloadHits.increment();
+            return Mono.just(fromPayload.get());
+        }
+        var userId = interaction.getUser().getId();
+        return Mono.defer(() -> {
+            var member = member(channel.getGuildId(), userId);
+            return lookup(() -> member.permissions.get(channel.getId()),
+                    permissions -> member.permissions.put(channel.getId(), permissions),
+                    () -> channel.getEffectivePermissions(userId));
+        });
+    }
+
+    /**
+     * Resolves the role IDs of the user who initiated the given interaction in the given guild. If the guild is the
+     * one where the interaction was created, the roles of the member included in the interaction payload are used
+     * directly.
+     *
+     * @param interaction the interaction
+     * @param guildId     the ID of the guild in which roles are resolved
+     * @return a Mono emitting the role IDs of the member, or empty if the user is not a member of the guild
+     */
+    Mono<Set<Snowflake>> roleIds(Interaction interaction, Snowflake guildId) {
+        var fromPayload = interaction.getMember()
+                .filter(member -> member.getGuildId().equals(guildId))
+                .map(Member::getRoleIds);
+        if (fromPayload.isPresent()) {
+            payloadHits.increment();
+            return Mono.just(fromPayload.get());
+        }
+        var userId = interaction.getUser().getId();
+        return Mono.defer(() -> {
+            var member = member(guildId, userId);
+            return lookup(() -> member.roleIds, roleIds -> member.roleIds = roleIds,
+                    () -> interaction.getClient().getMemberById(guildId, userId).map(Member::getRoleIds));
+        });
+    }
+
+    /**
+     * Resolves the ID of the owner of the given guild.
+     *
+     * @param gateway the gateway client
+     * @param guildId the ID of the guild
+     * @return a Mono emitting the ID of the guild owner
+     */
+    Mono<Snowflake> guildOwnerId(GatewayDiscordClient gateway, Snowflake guildId) {
+        return Mono.defer(() -> {
+            var expectedGeneration = guildOwnersGeneration.get();
+            return lookup(() -> guildOwners.getIfPresent(guildId), ownerId -> {
+                guildOwners.put(guildId, ownerId);
+                // Invalidations increment the generation before removing entries, so either the entry put above is
+                // removed by the invalidation, or the change of generation is visible here
+                if (guildOwnersGeneration.get() != expectedGeneration) {
+                    guildOwners.asMap().remove(guildId, ownerId);
+                }
+            }, () -> gateway.getGuildById(guildId).map(Guild::getOwnerId));
+        });
+    }
+
+    /**
+     * Takes a snapshot of the statistics of this cache.
+     *
+     * @return the statistics
+     */
+    PrivilegeCacheStats stats() {
+        return new PrivilegeCacheStats(payloadHits.sum(), cacheHits.sum(), misses.sum());
+    }
+
+    private MemberEntry member(Snowflake guildId, Snowflake userId) {
+        var key = new MemberKey(guildId, userId);
+        var entry = members.getIfPresent(key);
+        if (entry != null && isCurrent(entry, guildId)) {
+            return entry;
+        }
+        return members.asMap().compute(key, (k, existing) -> existing != null && isCurrent(existing, guildId)
+                ? existing : new MemberEntry(clock.get()));
+    }
+
+    private boolean isCurrent(MemberEntry entry, Snowflake guildId) {
+        var invalidatedAt = guildInvalidations.getIfPresent(guildId);
+        return invalidatedAt == null || entry.createdAt >= invalidatedAt;
+    }
+
+    private <V> Mono<V> lookup(Supplier<@Nullable V> cached, Consumer<V> store, Supplier<Mono<V>> fetch) {
+        var value = cached.get();
+        if (value != null) {
+            cacheHits.increment();
+            return Mono.just(value);
+        }
+        misses.increment();
+        return fetch.get().doOnNext(store);
+    }
+
+    private static Optional<PermissionSet> interactionPermissions(Interaction interaction) {
+        return interaction.getData().member().toOptional()
+                .map(MemberData::permissions)
+                .flatMap(Possible::toOptional)
+                .map(Long::parseUnsignedLong)
+                .map(PermissionSet::of);
+    }
+
+    private void invalidateMembers(Snowflake guildId) {
+        // Entries created from now on have a creation time at least equal to this one, so they are kept
+        guildInvalidations.asMap().merge(guildId, clock.incrementAndGet(), Math::max);
+    }
+
+    private void invalidateGuild(Snowflake guildId) {
+        invalidateMembers(guildId);
+        guildOwnersGeneration.incrementAndGet();
+        guildOwners.invalidate(guildId);
+    }
+
+    private void invalidateMember(Snowflake guildId, Snowflake userId) {
+        members.invalidate(new MemberKey(guildId, userId));
+    }
+
+    private record MemberKey(Snowflake guildId, Snowflake userId) {}
+
+    /**
+     * The data memoized for a member. The permissions of a member in all channels expire together, since they are
+     * computed from the same roles.
+     */
+    private static final class MemberEntry {
+
+        private final long createdAt;
+        private final Map<Snowflake, PermissionSet> permissions = new ConcurrentHashMap<>();
+        private volatile @Nullable Set<Snowflake> roleIds;
+
+        private MemberEntry(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction.privilege;
+
+import discord4j.core.GatewayDiscordClient;
+
+/**
+ * Statistics about the data looked up by the predefined {@link Privileges}, as returned by
+ * {@link Privileges#cacheStats(GatewayDiscordClient)}.
+ *
+ * @param payloadHits the number of lookups served by the data included in the interaction payload
+ * @param cacheHits   the number of lookups served by the cache
+ * @param misses      the number of lookups that required to fetch the data from Discord
+ */
+public record PrivilegeCacheStats(long payloadHits, long cacheHits, long misses) {
+
+    /**
+     * Gets the total number of lookups performed.
+     *
+     * @return the number of lookups
+     */
+    public long lookupCount() {
+        return payloadHits + cacheHits + misses;
+    }
+
+    /**
+     * Gets the number of REST calls that were avoided thanks to the interaction payload or the cache. This is an upper
+     * bound, as some data that wasn't cached here may still have been found in the gateway entity store.
+     *
+     * @return the number of avoided REST calls
+     */
+    public long avoidedRestCalls() {
+        return payloadHits + cacheHits;
+    }
+
+    /**
+     * Gets the ratio of lookups that didn't require to fetch the data from Discord, between 0 and 1. Returns 0 if no
+     * lookups were performed yet.
+     *
+     * @return the hit rate
+     */
+    public double hitRate() {
+        var count = lookupCount();
+        return count == 0 ? 0 : (double) avoidedRestCalls() / count;
+    }
+}
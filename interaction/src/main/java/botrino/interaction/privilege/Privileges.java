@@ -25,7 +25,7 @@ package botrino.interaction.privilege;
 
 import botrino.interaction.context.InteractionContext;
 import discord4j.common.util.Snowflake;
-import discord4j.core.object.entity.Member;
+import discord4j.core.GatewayDiscordClient;
 import discord4j.core.object.entity.channel.GuildMessageChannel;
 import discord4j.rest.util.PermissionSet;
 import reactor.core.publisher.Mono;
@@ -80,6 +80,10 @@ public final class Privileges {
      * If the permission check fails, the specified function will determine the {@link PrivilegeException} to emit. If
      * the failure is due to the privilege being checked outside of a guild or due to the inability to retrieve the
      * member, a generic {@link PrivilegeException} will be emitted instead.
+     * <p>
+     * The permissions included in the interaction payload are used when available, so that the check doesn't require
+     * any network call. Otherwise, they are fetched and cached for a short period of time, until role, member or
+     * channel updates are received from the gateway.
      *
      * @param exception           a function specifying the {@link PrivilegeException} instance to emit in case of
      *                            failure
@@ -91,7 +95,8 @@ public final class Privileges {
         return ctx -> Mono.just(ctx.channel())
                 .ofType(GuildMessageChannel.class)
                 .switchIfEmpty(Mono.error(PrivilegeException::new))
-                .filterWhen(channel -> channel.getEffectivePermissions(ctx.user().getId())
+                .filterWhen(channel -> PrivilegeCache.of(channel.getClient())
+                        .permissions(ctx.event().getInteraction(), channel)
                         .map(permissionPredicate::test))
                 .switchIfEmpty(Mono.error(() -> exception.apply(ctx)))
                 .then();
@@ -114,6 +119,9 @@ public final class Privileges {
      * check fails, the specified function will determine the {@link PrivilegeException} to emit. If the failure is due
      * to the privilege being checked outside of a guild or due to the inability to retrieve the member, a generic
      * {@link PrivilegeException} will be emitted instead.
+     * <p>
+     * The roles of the member included in the interaction payload are used when available. Otherwise, they are fetched
+     * and cached for a short period of time, until a member update is received from the gateway.
      *
      * @param exception     a function specifying the {@link PrivilegeException} instance to emit in case of failure
      * @param rolePredicate the predicate that checks for roles
@@ -123,9 +131,9 @@ public final class Privileges {
                                        Predicate<? super Set<Snowflake>> rolePredicate) {
         return ctx -> Mono.justOrEmpty(ctx.channel())
                 .ofType(GuildMessageChannel.class)
-                .flatMap(channel -> channel.getClient().getMemberById(channel.getGuildId(), ctx.user().getId()))
+                .flatMap(channel -> PrivilegeCache.of(channel.getClient())
+                        .roleIds(ctx.event().getInteraction(), channel.getGuildId()))
                 .switchIfEmpty(Mono.error(PrivilegeException::new))
-                .map(Member::getRoleIds)
                 .filter(rolePredicate)
                 .switchIfEmpty(Mono.error(() -> exception.apply(ctx)))
                 .then();
@@ -148,6 +156,9 @@ public final class Privileges {
      * specified function will determine the {@link PrivilegeException} to emit. If the failure is due to the privilege
      * being checked outside of a guild or due to the inability to retrieve the guild, a generic
      * {@link PrivilegeException} will be emitted instead.
+     * <p>
+     * The ID of the guild owner is cached for a short period of time, until a guild update is received from the
+     * gateway.
      *
      * @param exception a function specifying the {@link PrivilegeException} instance to emit in case of failure
      * @return a {@link Privilege}
@@ -155,11 +166,10 @@ public final class Privileges {
     public static Privilege guildOwner(Function<? super InteractionContext, ? extends PrivilegeException> exception) {
         return ctx -> Mono.justOrEmpty(ctx.channel())
                 .ofType(GuildMessageChannel.class)
-                .flatMap(channel -> channel.getClient().getMemberById(channel.getGuildId(), ctx.user().getId()))
+                .flatMap(channel -> PrivilegeCache.of(channel.getClient())
+                        .guildOwnerId(channel.getClient(), channel.getGuildId()))
                 .switchIfEmpty(Mono.error(PrivilegeException::new))
-                .filterWhen(member -> member.getGuild()
-                        .map(guild -> guild.getOwnerId().equals(member.getId()))
-                        .switchIfEmpty(Mono.error(PrivilegeException::new)))
+                .filter(ctx.user().getId()::equals)
                 .switchIfEmpty(Mono.error(() -> exception.apply(ctx)))
                 .then();
     }
@@ -174,4 +184,16 @@ public final class Privileges {
     public static Privilege guildOwner() {
         return guildOwner(ctx -> new PrivilegeException());
     }
+
+    /**
+     * Gets statistics about the lookups performed by the privileges built by this class for the given gateway client,
+     * such as the hit rate of the underlying cache and the number of avoided REST calls. All statistics are zero if
+     * no such privilege was checked yet for this client.
+     *
+     * @param gateway the gateway client
+     * @return the statistics
+     */
+    public static PrivilegeCacheStats cacheStats(GatewayDiscordClient gateway) {
+        return PrivilegeCache.statsOf(gateway);
+    }
 }
@@ -54,6 +54,7 @@ public final class MessagePaginator {
     private static final String NEXT_ID = "_next";
     private static final String CLOSE_ID = "_close";
     private static final SecureRandom RANDOM = new SecureRandom();
+    private static final AtomicInteger ACTIVE_COUNT = new AtomicInteger();
 
     /**
      * Sends a message that can be interacted with in order to navigate through pages. It starts by sending the message
@@ -92,6 +93,7 @@ public final class MessagePaginator {
         return Mono.defer(() -> {
             final var baseCustomId = Integer.toHexString(RANDOM.nextInt());
             LOGGER.debug("Starting paginator {}", baseCustomId);
+            ACTIVE_COUNT.incrementAndGet();
             final var currentPage = new AtomicInteger(initialPage);
             final var active = new AtomicBoolean(true);
             final var previous = button(baseCustomId + PREVIOUS_ID, btnCtx -> {
@@ -140,10 +142,20 @@ public final class MessagePaginator {
                                     .flatMap(message -> ctx.event().editReply(toReplyEditSpec(message)))
                                     .subscribe(null, e -> LOGGER
                                             .error("Error in doFinally of paginator " + baseCustomId, e)))
-                            .then());
+                            .then())
+                    .doFinally(signal -> ACTIVE_COUNT.decrementAndGet());
         });
     }
 
+    /**
+     * Gets the number of paginators that are currently open, across all interaction services.
+     *
+     * @return the number of active paginators
+     */
+    public static int activeCount() {
+        return ACTIVE_COUNT.get();
+    }
+
     /**
      * Holds the state of a paginator.
      */
@@ -0,0 +1,117 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction.util;
+
+import botrino.api.util.NameDirectory;
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.discordjson.json.ApplicationCommandOptionChoiceData;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Utility class to suggest users, roles or channels in the autocomplete of a string option, based on the name typed
+ * so far by the user. The suggestions are looked up in the {@link NameDirectory} of the gateway client, and the value
+ * of each suggestion is the ID of the entity. Example:
+ *
+ * <pre>
+ *     public Publisher&lt;?&gt; autocomplete(ChatInputAutoCompleteEvent event) {
+ *         return NameAutocomplete.roles(event.getClient(), event.getInteraction().getGuildId().orElseThrow(),
+ *                         event.getFocusedOption().getValue().map(ApplicationCommandInteractionOptionValue::asString)
+ *                                 .orElse(""))
+ *                 .flatMap(event::respondWithSuggestions);
+ *     }
+ * </pre>
+ */
+public final class NameAutocomplete {
+
+    /**
+     * The max number of suggestions that can be sent in an autocomplete response.
+     */
+    public static final int MAX_CHOICES = 25;
+
+    private static final int MAX_CHOICE_NAME_LENGTH = 100;
+
+    private NameAutocomplete() {
+    }
+
+    /**
+     * Suggests users which tag starts with the given input.
+     *
+     * @param gateway the gateway client
+     * @param input   the input typed so far
+     * @return a Mono emitting the suggestions
+     */
+    public static Mono<List<ApplicationCommandOptionChoiceData>> users(GatewayDiscordClient gateway, String input) {
+        return NameDirectory.of(gateway).searchUsers(input, MAX_CHOICES).map(NameAutocomplete::toChoices);
+    }
+
+    /**
+     * Suggests roles of the given guild which name starts with the given input.
+     *
+     * @param gateway the gateway client
+     * @param guildId the ID of the guild
+     * @param input   the input typed so far
+     * @return a Mono emitting the suggestions
+     */
+    public static Mono<List<ApplicationCommandOptionChoiceData>> roles(GatewayDiscordClient gateway,
+                                                                      Snowflake guildId, String input) {
+        return NameDirectory.of(gateway).searchRoles(guildId, input, MAX_CHOICES).map(NameAutocomplete::toChoices);
+    }
+
+    /**
+     * Suggests channels of the given guild which name starts with the given input.
+     *
+     * @param gateway the gateway client
+     * @param guildId the ID of the guild
+     * @param input   the input typed so far
+     * @return a Mono emitting the suggestions
+     */
+    public static Mono<List<ApplicationCommandOptionChoiceData>> channels(GatewayDiscordClient gateway,
+                                                                         Snowflake guildId, String input) {
+        return NameDirectory.of(gateway).searchChannels(guildId, input, MAX_CHOICES)
+                .map(NameAutocomplete::toChoices);
+    }
+
+    private static List<ApplicationCommandOptionChoiceData> toChoices(List<NameDirectory.Entry> entries) {
+        return entries.stream()
+                .map(entry -> (ApplicationCommandOptionChoiceData) ApplicationCommandOptionChoiceData.builder()
+                        .name(truncate(entry.name()))
+                        .value(entry.id().asString())
+                        .build())
+                .toList();
+    }
+
+    private static String truncate(String name) {
+        if (name.length() <= MAX_CHOICE_NAME_LENGTH) {
+            return name;
+        }
+        var end = MAX_CHOICE_NAME_LENGTH - 1;
+        if (Character.isHighSurrogate(name.charAt(end - 1))) {
+            end--;
+        }
+        return name.substring(0, end) + '\u2026';
+    }
+}
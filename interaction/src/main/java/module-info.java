@@ -9,6 +9,7 @@ module botrino.interaction {
     exports botrino.interaction.cooldown;
     exports botrino.interaction.grammar;
     exports botrino.interaction.listener;
+    exports botrino.interaction.locale;
     exports botrino.interaction.privilege;
     exports botrino.interaction.util;
 
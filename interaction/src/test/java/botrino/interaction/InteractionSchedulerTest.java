@@ -0,0 +1,604 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction;
+
+import botrino.interaction.annotation.Lane;
+import botrino.interaction.config.ImmutableLaneConfig;
+import botrino.interaction.config.ImmutableSchedulingConfig;
+import botrino.interaction.config.InteractionConfig.SchedulingConfig;
+import botrino.interaction.context.ChatInputInteractionContext;
+import botrino.interaction.context.MessageInteractionContext;
+import botrino.interaction.listener.*;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InteractionSchedulerTest {
+
+    private static final long GUILD = 1;
+
+    private final ManualScheduler clock = new ManualScheduler();
+
+    private static ImmutableSchedulingConfig.Builder config() {
+        return ImmutableSchedulingConfig.builder().queueDeadlineMillis(1000);
+    }
+
+    private InteractionScheduler scheduler(SchedulingConfig config) {
+        return new InteractionScheduler(config, clock);
+    }
+
+    private Run submit(InteractionScheduler scheduler, InteractionListener listener) {
+        return submit(scheduler, listener, Lane.Priority.NORMAL, GUILD);
+    }
+
+    private Run submit(InteractionScheduler scheduler, InteractionListener listener, Lane.Priority lane, long guildId) {
+        return submit(scheduler, listener, lane, guildId, clock.instant());
+    }
+
+    private Run submit(InteractionScheduler scheduler, InteractionListener listener, Lane.Priority lane, long guildId,
+                       Instant createdAt) {
+        final var run = new Run();
+        run.subscription = scheduler.schedule(listener, lane, guildId, createdAt, release -> {
+                    run.release = release;
+                    return run.execution.asMono().doOnSubscribe(__ -> run.started = true);
+                })
+                .subscribe(null, run.error::set, () -> run.completed = true);
+        return run;
+    }
+
+    private static OverloadedException.Reason rejection(Run run) {
+        final var error = run.error.get();
+        assertInstanceOf(OverloadedException.class, error);
+        return ((OverloadedException) error).getReason();
+    }
+
+    @Test
+    public void admitsUpToTheLimitAndQueuesTheRest() {
+        final var scheduler = scheduler(config().maxConcurrency(2).maxQueueSize(2).build());
+        final var listener = new InteractionListener() {};
+        final var first = submit(scheduler, listener);
+        final var second = submit(scheduler, listener);
+        final var third = submit(scheduler, listener);
+        final var fourth = submit(scheduler, listener);
+        final var fifth = submit(scheduler, listener);
+        assertTrue(first.started);
+        assertTrue(second.started);
+        assertFalse(third.started);
+        assertFalse(fourth.started);
+        assertEquals(2, scheduler.inFlight());
+        assertEquals(2, scheduler.queued());
+        assertEquals(OverloadedException.Reason.QUEUE_FULL, rejection(fifth));
+        assertFalse(fifth.started);
+
+        first.finish();
+        assertTrue(first.completed);
+        assertTrue(third.started);
+        assertFalse(fourth.started);
+        assertEquals(2, scheduler.inFlight());
+        assertEquals(1, scheduler.queued());
+
+        second.finish();
+        third.finish();
+        fourth.finish();
+        assertEquals(0, scheduler.inFlight());
+        assertEquals(0, scheduler.queued());
+    }
+
+    @Test
+    public void rejectsQueuedInteractionsAtTheDeadline() {
+        final var scheduler = scheduler(config().maxConcurrency(1).build());
+        final var listener = new InteractionListener() {};
+        final var running = submit(scheduler, listener);
+        final var queued = submit(scheduler, listener);
+        clock.advance(Duration.ofMillis(999));
+        assertNull(queued.error.get());
+        assertEquals(1, scheduler.queued());
+        clock.advance(Duration.ofMillis(1));
+        assertEquals(OverloadedException.Reason.DEADLINE, rejection(queued));
+        assertEquals(0, scheduler.queued());
+
+        // The slot released afterwards does not start the rejected interaction
+        running.finish();
+        assertFalse(queued.started);
+        assertEquals(0, scheduler.inFlight());
+    }
+
+    @Test
+    public void rejectsImmediatelyWhenTheDeadlineHasPassed() {
+        final var scheduler = scheduler(config().maxConcurrency(1).build());
+        final var listener = new InteractionListener() {};
+        final var late = clock.instant().minusSeconds(2);
+        // A late interaction still starts if a slot is free
+        assertTrue(submit(scheduler, listener, Lane.Priority.NORMAL, GUILD, late).started);
+        final var rejected = submit(scheduler, listener, Lane.Priority.NORMAL, GUILD, late);
+        assertEquals(OverloadedException.Reason.DEADLINE, rejection(rejected));
+        assertEquals(0, scheduler.queued());
+    }
+
+    @Test
+    public void cancellingAQueuedInteractionRemovesIt() {
+        final var scheduler = scheduler(config().maxConcurrency(1).build());
+        final var listener = new InteractionListener() {};
+        final var running = submit(scheduler, listener);
+        final var cancelled = submit(scheduler, listener);
+        final var next = submit(scheduler, listener);
+        cancelled.subscription.dispose();
+        assertEquals(1, scheduler.queued());
+
+        running.finish();
+        assertFalse(cancelled.started);
+        assertTrue(next.started);
+        // The deadline of the cancelled interaction has no effect anymore
+        clock.advance(Duration.ofSeconds(1));
+        assertNull(cancelled.error.get());
+        assertEquals(1, scheduler.inFlight());
+    }
+
+    @Test
+    public void cancellingARunningInteractionReleasesItsSlot() {
+        final var scheduler = scheduler(config().maxConcurrency(1).build());
+        final var listener = new InteractionListener() {};
+        final var running = submit(scheduler, listener);
+        final var queued = submit(scheduler, listener);
+        running.subscription.dispose();
+        assertTrue(queued.started);
+        assertEquals(1, scheduler.inFlight());
+    }
+
+    @Test
+    public void releasingASlotEarlyAdmitsTheNextInteraction() {
+        final var scheduler = scheduler(config().maxConcurrency(2).maxConcurrencyPerGuild(1).latencyTargetMillis(100)
+                .build());
+        final var listener = new InteractionListener() {};
+        final var waiting = submit(scheduler, listener);
+        final var queued = submit(scheduler, listener);
+        assertFalse(queued.started);
+        clock.advance(Duration.ofMillis(50));
+        waiting.release.run();
+        assertTrue(queued.started);
+        assertEquals(1, scheduler.inFlight());
+        // Only the time until the release is measured, and releasing again or finishing has no effect
+        clock.advance(Duration.ofMillis(500));
+        waiting.release.run();
+        waiting.finish();
+        assertTrue(waiting.completed);
+        assertEquals(1, scheduler.inFlight());
+        assertEquals(2, scheduler.limit());
+    }
+
+    @Test
+    public void deadlineHasNoEffectOnceGranted() {
+        final var scheduler = scheduler(config().maxConcurrency(1).build());
+        final var listener = new InteractionListener() {};
+        final var running = submit(scheduler, listener);
+        final var queued = submit(scheduler, listener);
+        clock.advance(Duration.ofMillis(500));
+        running.finish();
+        assertTrue(queued.started);
+        clock.advance(Duration.ofSeconds(1));
+        assertNull(queued.error.get());
+        queued.finish();
+        assertTrue(queued.completed);
+        assertEquals(0, scheduler.inFlight());
+    }
+
+    @Test
+    public void perCommandLimitDoesNotHoldBackOtherCommands() {
+        final var scheduler = scheduler(config().maxConcurrency(3).maxConcurrencyPerCommand(1).build());
+        final var a = new InteractionListener() {};
+        final var b = new InteractionListener() {};
+        final var a1 = submit(scheduler, a);
+        final var a2 = submit(scheduler, a);
+        final var b1 = submit(scheduler, b);
+        assertTrue(a1.started);
+        assertFalse(a2.started);
+        assertTrue(b1.started);
+        assertEquals(2, scheduler.inFlight());
+        a1.finish();
+        assertTrue(a2.started);
+    }
+
+    @Test
+    public void adaptiveLimitBacksOffOncePerRoundAndGrowsBack() {
+        final var scheduler = scheduler(config().maxConcurrency(10).minConcurrency(2).latencyTargetMillis(100).build());
+        final var listener = new InteractionListener() {};
+        final var slow = new Run[10];
+        for (var i = 0; i < slow.length; i++) {
+            slow[i] = submit(scheduler, listener);
+        }
+        clock.advance(Duration.ofMillis(200));
+        slow[0].finish();
+        assertEquals(9, scheduler.limit());
+        // Started before the backoff, so they don't lower the limit any further
+        for (var i = 1; i < slow.length; i++) {
+            slow[i].finish();
+        }
+        assertEquals(9, scheduler.limit());
+
+        // Each new round of slow interactions lowers the limit again, down to the minimum
+        for (var round = 0; round < 20; round++) {
+            final var run = submit(scheduler, listener);
+            clock.advance(Duration.ofMillis(200));
+            run.finish();
+        }
+        assertEquals(2, scheduler.limit());
+
+        // Fast interactions grow the limit back while it is in use
+        for (var round = 0; round < 10; round++) {
+            final var first = submit(scheduler, listener);
+            final var second = submit(scheduler, listener);
+            clock.advance(Duration.ofMillis(10));
+            first.finish();
+            second.finish();
+        }
+        assertTrue(scheduler.limit() > 2, "limit = " + scheduler.limit());
+    }
+
+    @Test
+    public void fastInteractionsDoNotGrowAnIdleLimit() {
+        final var scheduler = scheduler(config().maxConcurrency(10).minConcurrency(2).latencyTargetMillis(100).build());
+        final var listener = new InteractionListener() {};
+        for (var round = 0; round < 20; round++) {
+            final var run = submit(scheduler, listener);
+            clock.advance(Duration.ofMillis(200));
+            run.finish();
+        }
+        assertEquals(2, scheduler.limit());
+        // One interaction at a time leaves the limit unused, so it doesn't grow no matter how fast they are
+        for (var round = 0; round < 20; round++) {
+            submit(scheduler, listener).finish();
+        }
+        assertEquals(2, scheduler.limit());
+    }
+
+    @Test
+    public void updateAppliesTheNewLimitAndDrainsTheQueue() {
+        final var scheduler = scheduler(config().maxConcurrency(1).build());
+        final var listener = new InteractionListener() {};
+        final var running = submit(scheduler, listener);
+        final var queued1 = submit(scheduler, listener);
+        final var queued2 = submit(scheduler, listener);
+        scheduler.update(config().maxConcurrency(3).build());
+        assertEquals(3, scheduler.limit());
+        assertTrue(queued1.started);
+        assertTrue(queued2.started);
+        assertEquals(3, scheduler.inFlight());
+
+        // Lowering the limit doesn't interrupt running interactions, but delays the next ones
+        scheduler.update(config().maxConcurrency(1).build());
+        final var next = submit(scheduler, listener);
+        running.finish();
+        queued1.finish();
+        assertFalse(next.started);
+        queued2.finish();
+        assertTrue(next.started);
+    }
+
+    @Test
+    public void remainingIsClampedToTheDeadline() {
+        final var now = Instant.now();
+        final var deadline = Duration.ofSeconds(2);
+        assertEquals(Duration.ofMillis(1500), InteractionScheduler.remaining(now.minusMillis(500), now, deadline));
+        assertEquals(Duration.ZERO, InteractionScheduler.remaining(now.minusSeconds(3), now, deadline));
+        // Clocks out of sync
+        assertEquals(deadline, InteractionScheduler.remaining(now.plusSeconds(1), now, deadline));
+    }
+
+    @Test
+    public void lanesAreServedInProportionToTheirWeight() {
+        final var scheduler = scheduler(config().maxConcurrency(1).build());
+        final var listener = new InteractionListener() {};
+        final var running = submit(scheduler, listener);
+        final var order = new ArrayList<Lane.Priority>();
+        final var waiting = new ArrayList<Run>();
+        for (var i = 0; i < 14; i++) {
+            for (final var lane : List.of(Lane.Priority.LOW, Lane.Priority.NORMAL, Lane.Priority.HIGH)) {
+                final var run = submit(scheduler, listener, lane, GUILD);
+                run.lane = lane;
+                waiting.add(run);
+            }
+        }
+        var current = running;
+        for (var i = 0; i < 14; i++) {
+            current.finish();
+            current = waiting.stream().filter(run -> run.started && !run.finished).findAny().orElseThrow();
+            order.add(current.lane);
+        }
+        assertEquals(8, Collections.frequency(order, Lane.Priority.HIGH), order.toString());
+        assertEquals(4, Collections.frequency(order, Lane.Priority.NORMAL), order.toString());
+        assertEquals(2, Collections.frequency(order, Lane.Priority.LOW), order.toString());
+        // Smooth round-robin: each lane is served at least once every 7 slots
+        for (final var lane : List.of(Lane.Priority.HIGH, Lane.Priority.NORMAL, Lane.Priority.LOW)) {
+            assertTrue(order.subList(0, 7).contains(lane), order.toString());
+            assertTrue(order.subList(7, 14).contains(lane), order.toString());
+        }
+    }
+
+    @Test
+    public void laneAtItsOwnLimitDoesNotBlockOtherLanes() {
+        final var scheduler = scheduler(config()
+                .maxConcurrency(3)
+                .putLanes("high", ImmutableLaneConfig.builder().maxConcurrency(1).build())
+                .build());
+        final var listener = new InteractionListener() {};
+        final var high1 = submit(scheduler, listener, Lane.Priority.HIGH, GUILD);
+        final var high2 = submit(scheduler, listener, Lane.Priority.HIGH, GUILD);
+        final var normal = submit(scheduler, listener, Lane.Priority.NORMAL, GUILD);
+        final var low = submit(scheduler, listener, Lane.Priority.LOW, GUILD);
+        assertTrue(high1.started);
+        assertFalse(high2.started);
+        assertTrue(normal.started);
+        assertTrue(low.started);
+        assertEquals(3, scheduler.inFlight());
+        // A slot freed by another lane is not given to the lane at its limit
+        normal.finish();
+        assertFalse(high2.started);
+        high1.finish();
+        assertTrue(high2.started);
+    }
+
+    @Test
+    public void laneNamesDoNotDependOnTheDefaultLocale() {
+        final var defaultLocale = Locale.getDefault();
+        // The lowercase of "I" is a dotless "ı" in Turkish
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            final var high = ImmutableLaneConfig.builder().maxConcurrency(1).build();
+            final var config = config().putLanes("high", high).build();
+            assertSame(high, config.lane(Lane.Priority.HIGH));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void laneDependsOnTheTypeOfListener() {
+        assertEquals(Lane.Priority.HIGH, InteractionScheduler.laneOf(ComponentInteractionListener.<Void>button("id",
+                ctx -> Mono.empty())));
+        assertEquals(Lane.Priority.NORMAL, InteractionScheduler.laneOf((ChatInputInteractionListener) ctx ->
+                Mono.empty()));
+        assertEquals(Lane.Priority.LOW, InteractionScheduler.laneOf((UserInteractionListener) ctx -> Mono.empty()));
+        assertEquals(Lane.Priority.LOW, InteractionScheduler.laneOf((MessageInteractionListener) ctx ->
+                Mono.empty()));
+        assertEquals(Lane.Priority.HIGH, InteractionScheduler.laneOf(new UrgentCommand()));
+        assertEquals(Lane.Priority.NORMAL, InteractionScheduler.laneOf(new DefaultLaneCommand()));
+    }
+
+    @Test
+    public void guildFloodingTheQueueDoesNotDelayOtherGuilds() {
+        final var scheduler = scheduler(config().maxConcurrency(1).maxQueueSize(20).build());
+        final var listener = new InteractionListener() {};
+        final var running = submit(scheduler, listener, Lane.Priority.NORMAL, 1);
+        final var flood = new ArrayList<Run>();
+        for (var i = 0; i < 10; i++) {
+            flood.add(submit(scheduler, listener, Lane.Priority.NORMAL, 1));
+        }
+        final var other = submit(scheduler, listener, Lane.Priority.NORMAL, 2);
+        assertEquals(Map.of(1L, 10, 2L, 1), scheduler.queuedPerGuild());
+
+        running.finish();
+        assertTrue(flood.get(0).started);
+        assertFalse(other.started);
+        // The guild that was just served goes behind the other one, however many interactions it has waiting
+        flood.get(0).finish();
+        assertTrue(other.started);
+        assertFalse(flood.get(1).started);
+        other.finish();
+        assertTrue(flood.get(1).started);
+        assertEquals(Map.of(1L, 8), scheduler.queuedPerGuild());
+    }
+
+    @Test
+    public void guildAtItsOwnLimitDoesNotBlockOtherGuilds() {
+        final var scheduler = scheduler(config().maxConcurrency(3).maxConcurrencyPerGuild(1).build());
+        final var listener = new InteractionListener() {};
+        final var first1 = submit(scheduler, listener, Lane.Priority.NORMAL, 1);
+        final var first2 = submit(scheduler, listener, Lane.Priority.HIGH, 1);
+        final var second1 = submit(scheduler, listener, Lane.Priority.NORMAL, 2);
+        assertTrue(first1.started);
+        assertFalse(first2.started);
+        assertTrue(second1.started);
+        assertEquals(Map.of(1L, 1), scheduler.queuedPerGuild());
+
+        // A slot freed by another guild is not given to the guild at its limit
+        second1.finish();
+        assertFalse(first2.started);
+        final var second2 = submit(scheduler, listener, Lane.Priority.NORMAL, 2);
+        assertTrue(second2.started);
+        first1.finish();
+        assertTrue(first2.started);
+        assertEquals(Map.of(), scheduler.queuedPerGuild());
+    }
+
+    @Test
+    public void commandAtItsOwnLimitDoesNotStarveOtherGuilds() {
+        final var scheduler = scheduler(config().maxConcurrency(2).maxConcurrencyPerCommand(1).maxQueueSize(100)
+                .build());
+        final var busy = new InteractionListener() {};
+        final var other = new InteractionListener() {};
+        final var runningBusy = submit(scheduler, busy, Lane.Priority.NORMAL, 1);
+        final var runningOther = submit(scheduler, other, Lane.Priority.NORMAL, 3);
+        // The first guild in line only has interactions held back by the limit of their command, however many
+        final var held = new ArrayList<Run>();
+        for (var i = 0; i < 50; i++) {
+            held.add(submit(scheduler, busy, Lane.Priority.NORMAL, 1));
+        }
+        final var waiting = submit(scheduler, other, Lane.Priority.NORMAL, 2);
+        assertFalse(waiting.started);
+
+        runningOther.finish();
+        assertTrue(waiting.started);
+        assertFalse(held.get(0).started);
+        runningBusy.finish();
+        assertTrue(held.get(0).started);
+        assertFalse(held.get(1).started);
+    }
+
+    @Test
+    public void raisingTheGuildLimitStartsWaitingInteractions() {
+        final var scheduler = scheduler(config().maxConcurrency(3).maxConcurrencyPerGuild(1).build());
+        final var listener = new InteractionListener() {};
+        final var running = submit(scheduler, listener, Lane.Priority.NORMAL, 1);
+        final var queued = submit(scheduler, listener, Lane.Priority.NORMAL, 1);
+        assertFalse(queued.started);
+        scheduler.update(config().maxConcurrency(3).maxConcurrencyPerGuild(2).build());
+        assertTrue(queued.started);
+        assertTrue(running.started);
+        assertEquals(2, scheduler.inFlight());
+    }
+
+    @Lane(Lane.Priority.HIGH)
+    private static final class UrgentCommand implements MessageInteractionListener {
+
+        @Override
+        public Publisher<?> run(MessageInteractionContext ctx) {
+            return Mono.empty();
+        }
+    }
+
+    @Lane(Lane.Priority.DEFAULT)
+    private static final class DefaultLaneCommand implements ChatInputInteractionListener {
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return Mono.empty();
+        }
+    }
+
+    private static final class Run {
+
+        private final Sinks.Empty<Void> execution = Sinks.empty();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile boolean started;
+        private volatile boolean completed;
+        private boolean finished;
+        private Lane.Priority lane;
+        private Disposable subscription;
+        private Runnable release;
+
+        private void finish() {
+            assertTrue(started, "finishing an interaction that has not started");
+            finished = true;
+            execution.tryEmitEmpty();
+        }
+    }
+
+    /**
+     * A scheduler with a virtual clock: tasks scheduled without delay run immediately on the calling thread, and
+     * delayed tasks run when the clock is advanced past their due time.
+     */
+    private static final class ManualScheduler implements Scheduler {
+
+        private final PriorityQueue<Timed> timers = new PriorityQueue<>();
+        private long nanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        private long sequence;
+
+        private Instant instant() {
+            return Instant.ofEpochMilli(TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+
+        private void advance(Duration duration) {
+            final var target = nanos + duration.toNanos();
+            Timed next;
+            while ((next = timers.peek()) != null && next.dueAt <= target) {
+                timers.poll();
+                nanos = next.dueAt;
+                if (!next.disposed) {
+                    next.task.run();
+                }
+            }
+            nanos = target;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            task.run();
+            return Disposables.disposed();
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            final var timed = new Timed(nanos + unit.toNanos(delay), sequence++, task);
+            timers.add(timed);
+            return timed;
+        }
+
+        @Override
+        public long now(TimeUnit unit) {
+            return unit.convert(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public Worker createWorker() {
+            throw new UnsupportedOperationException();
+        }
+
+        private static final class Timed implements Disposable, Comparable<Timed> {
+
+            private final long dueAt;
+            private final long sequence;
+            private final Runnable task;
+            private volatile boolean disposed;
+
+            private Timed(long dueAt, long sequence, Runnable task) {
+                this.dueAt = dueAt;
+                this.sequence = sequence;
+                this.task = task;
+            }
+
+            @Override
+            public void dispose() {
+                disposed = true;
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return disposed;
+            }
+
+            @Override
+            public int compareTo(Timed other) {
+                final var byDueTime = Long.compare(dueAt, other.dueAt);
+                return byDueTime != 0 ? byDueTime : Long.compare(sequence, other.sequence);
+            }
+        }
+    }
+}
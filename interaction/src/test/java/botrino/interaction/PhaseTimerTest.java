@@ -0,0 +1,76 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction;
+
+import botrino.interaction.listener.InteractionListener;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhaseTimerTest {
+
+    private static final InteractionListener LISTENER = new InteractionListener() {};
+
+    private final AtomicLong reads = new AtomicLong();
+    // Moves forward by 10 nanoseconds each time it is read
+    private final LongSupplier clock = () -> reads.incrementAndGet() * 10;
+
+    @Test
+    public void noOpMetricsNeverReadTheClock() {
+        final var timer = new PhaseTimer(InteractionMetrics.NO_OP, clock);
+        final var mono = Mono.<Void>empty();
+        assertFalse(timer.isEnabled());
+        assertEquals(0, timer.start());
+        timer.recordSince(LISTENER, InteractionMetrics.Phase.QUEUE_WAIT, 0);
+        assertSame(mono, timer.timed(mono, LISTENER, InteractionMetrics.Phase.RUN));
+        assertEquals(0, reads.get());
+        assertFalse(PhaseTimer.of(InteractionMetrics.NO_OP).isEnabled());
+    }
+
+    @Test
+    public void phasesAreMeasuredFromSubscriptionToTermination() {
+        final var phases = new CopyOnWriteArrayList<String>();
+        final var timer = new PhaseTimer(new InteractionMetrics() {
+            @Override
+            public void recordPhase(InteractionListener listener, Phase phase, long nanos) {
+                phases.add(phase + "=" + nanos);
+            }
+        }, clock);
+        final var run = timer.timed(Mono.empty(), LISTENER, InteractionMetrics.Phase.RUN);
+        // Nothing is measured before the subscription
+        assertEquals(0, reads.get());
+        run.block();
+        timer.timed(Mono.error(new RuntimeException()), LISTENER, InteractionMetrics.Phase.ACK)
+                .onErrorResume(e -> Mono.empty())
+                .block();
+        timer.recordSince(LISTENER, InteractionMetrics.Phase.QUEUE_WAIT, timer.start());
+        assertEquals(List.of("RUN=10", "ACK=10", "QUEUE_WAIT=10"), phases);
+    }
+}
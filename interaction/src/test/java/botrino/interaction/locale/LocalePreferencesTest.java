@@ -0,0 +1,189 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.interaction.locale;
+
+import discord4j.common.util.Snowflake;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalePreferencesTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Snowflake USER = Snowflake.of(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final TestStore store = new TestStore();
+    private final LocalePreferences preferences = LocalePreferences.create(store, TTL, nanos::get);
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    public void preferencesAreCachedUntilTheTtlExpires() {
+        store.userLocales.put(USER, Locale.FRENCH);
+        assertEquals(Locale.FRENCH, preferences.findUserLocale(USER).block());
+        advance(TTL.minusSeconds(1));
+        assertEquals(Locale.FRENCH, preferences.findUserLocale(USER).block());
+        assertEquals(1, store.reads.get());
+
+        advance(Duration.ofSeconds(2));
+        assertEquals(Locale.FRENCH, preferences.findUserLocale(USER).block());
+        assertEquals(2, store.reads.get());
+    }
+
+    @Test
+    public void absentPreferencesAreCached() {
+        assertNull(preferences.findUserLocale(USER).block());
+        assertNull(preferences.findUserLocale(USER).block());
+        assertEquals(1, store.reads.get());
+    }
+
+    @Test
+    public void lookupIsDeferredUntilSubscription() {
+        final var lookup = preferences.findUserLocale(USER);
+        store.userLocales.put(USER, Locale.FRENCH);
+        assertEquals(0, store.reads.get());
+        assertEquals(Locale.FRENCH, lookup.block());
+    }
+
+    @Test
+    public void setterWritesThrough() {
+        store.userLocales.put(USER, Locale.FRENCH);
+        assertEquals(Locale.FRENCH, preferences.findUserLocale(USER).block());
+        preferences.setUserLocale(USER, Locale.GERMAN).block();
+        assertEquals(Locale.GERMAN, store.userLocales.get(USER));
+        assertEquals(Locale.GERMAN, preferences.findUserLocale(USER).block());
+        preferences.setUserLocale(USER, null).block();
+        assertNull(preferences.findUserLocale(USER).block());
+        assertEquals(1, store.reads.get());
+    }
+
+    @Test
+    public void concurrentLookupsShareOneRead() {
+        final var read = Sinks.<Locale>one();
+        store.pendingRead = read;
+        final var first = preferences.findUserLocale(USER).toFuture();
+        final var second = preferences.findUserLocale(USER).toFuture();
+        read.tryEmitValue(Locale.FRENCH);
+        assertEquals(Locale.FRENCH, first.join());
+        assertEquals(Locale.FRENCH, second.join());
+        assertEquals(1, store.reads.get());
+    }
+
+    @Test
+    public void setterDuringReadWins() {
+        store.userLocales.put(USER, Locale.FRENCH);
+        final var read = Sinks.<Locale>one();
+        store.pendingRead = read;
+        final var lookup = preferences.findUserLocale(USER).toFuture();
+        preferences.setUserLocale(USER, Locale.GERMAN).block();
+        // The read started before the change completes with the old value
+        read.tryEmitValue(Locale.FRENCH);
+        assertEquals(Locale.FRENCH, lookup.join());
+        assertEquals(Locale.GERMAN, preferences.findUserLocale(USER).block());
+        assertEquals(1, store.reads.get());
+    }
+
+    @Test
+    public void failedReadsAreNotCached() {
+        final var read = Sinks.<Locale>one();
+        store.pendingRead = read;
+        final var lookup = preferences.findUserLocale(USER).toFuture();
+        read.tryEmitError(new IllegalStateException("Store unavailable"));
+        assertThrows(Exception.class, lookup::join);
+        store.userLocales.put(USER, Locale.FRENCH);
+        assertEquals(Locale.FRENCH, preferences.findUserLocale(USER).block());
+        assertEquals(2, store.reads.get());
+    }
+
+    @Test
+    public void guildSetterWritesThrough() {
+        final var guild = Snowflake.of(2);
+        preferences.setGuildLocale(guild, Locale.ITALIAN).block();
+        assertEquals(Locale.ITALIAN, store.guildLocales.get(guild));
+        assertEquals(Locale.ITALIAN, preferences.findGuildLocale(guild).block());
+        // Users and guilds are cached separately even if their IDs are equal
+        assertNull(preferences.findUserLocale(guild).block());
+    }
+
+    private static final class TestStore implements LocalePreferenceStore {
+
+        private final Map<Snowflake, Locale> userLocales = new ConcurrentHashMap<>();
+        private final Map<Snowflake, Locale> guildLocales = new ConcurrentHashMap<>();
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile Sinks.@Nullable One<Locale> pendingRead;
+
+        @Override
+        public Mono<Locale> findUserLocale(Snowflake userId) {
+            return Mono.defer(() -> {
+                reads.incrementAndGet();
+                final var pending = pendingRead;
+                if (pending != null) {
+                    pendingRead = null;
+                    return pending.asMono();
+                }
+                return Mono.justOrEmpty(userLocales.get(userId));
+            });
+        }
+
+        @Override
+        public Mono<Locale> findGuildLocale(Snowflake guildId) {
+            return Mono.justOrEmpty(guildLocales.get(guildId));
+        }
+
+        @Override
+        public Mono<Void> saveUserLocale(Snowflake userId, @Nullable Locale locale) {
+            return Mono.fromRunnable(() -> {
+                if (locale == null) {
+                    userLocales.remove(userId);
+                } else {
+                    userLocales.put(userId, locale);
+                }
+            });
+        }
+
+        @Override
+        public Mono<Void> saveGuildLocale(Snowflake guildId, @Nullable Locale locale) {
+            return Mono.fromRunnable(() -> {
+                if (locale == null) {
+                    guildLocales.remove(guildId);
+                } else {
+                    guildLocales.put(guildId, locale);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+/**
+ * The REST endpoints served by {@link LocalDiscord}.
+ */
+public enum Endpoint {
+    /**
+     * Get the information of the current application.
+     */
+    APPLICATION_INFO,
+    /**
+     * Overwrite the global or guild application commands.
+     */
+    COMMANDS_OVERWRITE,
+    /**
+     * Get a channel.
+     */
+    CHANNEL_GET,
+    /**
+     * Get a guild.
+     */
+    GUILD_GET,
+    /**
+     * Get a guild member.
+     */
+    MEMBER_GET,
+    /**
+     * Respond to an interaction, including deferring it.
+     */
+    INTERACTION_CALLBACK,
+    /**
+     * Create a followup message.
+     */
+    FOLLOWUP_CREATE,
+    /**
+     * Get the original response or a followup message.
+     */
+    MESSAGE_GET,
+    /**
+     * Edit the original response or a followup message.
+     */
+    MESSAGE_EDIT,
+    /**
+     * Delete the original response or a followup message.
+     */
+    MESSAGE_DELETE;
+
+    /**
+     * Whether this endpoint is called while processing interactions, as opposed to once at startup.
+     *
+     * @return a boolean
+     */
+    public boolean isInteractionEndpoint() {
+        return this != APPLICATION_INFO && this != COMMANDS_OVERWRITE;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import discord4j.core.event.domain.interaction.InteractionCreateEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Publishes interactions to a {@link LocalDiscord} and measures how long it takes for each of them to be replied to.
+ * The load is closed-loop: a fixed number of interactions are in flight at any time, and a new one is published as
+ * soon as one is replied to or times out.
+ *
+ * <pre>
+ *     var report = LoadGenerator.create(discord)
+ *             .run(10_000, 64, i -&gt; discord.chatInputEvent("ping"))
+ *             .block();
+ *     System.out.println(report);
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    /**
+     * The default time after which an interaction that wasn't replied to is counted as a failure.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final LocalDiscord discord;
+    private final Duration timeout;
+
+    private LoadGenerator(LocalDiscord discord, Duration timeout) {
+        this.discord = discord;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Creates a load generator for the given {@link LocalDiscord} with the default timeout.
+     *
+     * @param discord the local Discord to publish interactions to
+     * @return a new {@link LoadGenerator}
+     */
+    public static LoadGenerator create(LocalDiscord discord) {
+        return create(discord, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a load generator for the given {@link LocalDiscord}.
+     *
+     * @param discord the local Discord to publish interactions to
+     * @param timeout the time after which an interaction that wasn't replied to is counted as a failure
+     * @return a new {@link LoadGenerator}
+     */
+    public static LoadGenerator create(LocalDiscord discord, Duration timeout) {
+        Objects.requireNonNull(discord);
+        Objects.requireNonNull(timeout);
+        return new LoadGenerator(discord, timeout);
+    }
+
+    /**
+     * Publishes the given number of interactions and reports their latency.
+     *
+     * @param interactions the total number of interactions to publish
+     * @param concurrency  the number of interactions in flight at any time
+     * @param eventFactory a function creating the event of the n-th interaction, typically via
+     *                     {@link LocalDiscord#chatInputEvent(String)}
+     * @return a Mono emitting the report when all interactions are replied to or timed out
+     */
+    public Mono<LoadReport> run(int interactions, int concurrency,
+                                IntFunction<? extends InteractionCreateEvent> eventFactory) {
+        if (interactions < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("interactions and concurrency must be >= 1");
+        }
+        Objects.requireNonNull(eventFactory);
+        return Mono.defer(() -> {
+            final var latencies = new long[interactions];
+            final var replied = new AtomicInteger();
+            final var failures = new AtomicInteger();
+            final var start = System.nanoTime();
+            return Flux.range(0, interactions)
+                    .flatMap(i -> Mono.defer(() -> {
+                        final var event = eventFactory.apply(i);
+                        final var reply = discord.awaitReply(event.getInteraction().getToken());
+                        final var publishedAt = System.nanoTime();
+                        discord.publish(event);
+                        return reply.timeout(timeout)
+                                .then(Mono.fromRunnable(() -> latencies[replied.getAndIncrement()] =
+                                        System.nanoTime() - publishedAt))
+                                .onErrorResume(e -> Mono.fromRunnable(failures::incrementAndGet));
+                    }), concurrency)
+                    .then(Mono.fromCallable(() -> {
+                        final var count = replied.get();
+                        final var measured = new long[count];
+                        System.arraycopy(latencies, 0, measured, 0, count);
+                        return LoadReport.of(measured, failures.get(), Duration.ofNanos(System.nanoTime() - start));
+                    }));
+        });
+    }
+}
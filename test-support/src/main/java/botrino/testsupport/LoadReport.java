@@ -0,0 +1,76 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The result of a run of {@link LoadGenerator}. Latencies are measured from the moment an interaction is published to
+ * the moment it is replied to, and only include the interactions that were replied to before the timeout.
+ *
+ * @param interactions the number of interactions published
+ * @param failures     the number of interactions that were not replied to before the timeout
+ * @param elapsed      the total duration of the run
+ * @param p50          the median latency
+ * @param p99          the 99th percentile latency
+ * @param max          the maximum latency
+ */
+public record LoadReport(int interactions, int failures, Duration elapsed, Duration p50, Duration p99,
+                         Duration max) {
+
+    static LoadReport of(long[] latencyNanos, int failures, Duration elapsed) {
+        final var sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+        return new LoadReport(sorted.length + failures, failures, elapsed,
+                percentile(sorted, 0.50), percentile(sorted, 0.99),
+                Duration.ofNanos(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    private static Duration percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Duration.ZERO;
+        }
+        // Nearest-rank method
+        final var rank = (int) Math.ceil(p * sorted.length);
+        return Duration.ofNanos(sorted[Math.max(rank, 1) - 1]);
+    }
+
+    /**
+     * Gets the number of interactions replied to per second over the whole run.
+     *
+     * @return the throughput
+     */
+    public double throughput() {
+        final var seconds = elapsed.toNanos() / 1e9;
+        return seconds == 0 ? 0 : (interactions - failures) / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d interactions (%d failed) in %.2f s: %.1f/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                interactions, failures, elapsed.toNanos() / 1e9, throughput(), p50.toNanos() / 1e6,
+                p99.toNanos() / 1e6, max.toNanos() / 1e6);
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import discord4j.common.JacksonResources;
+import discord4j.common.retry.ReconnectOptions;
+import discord4j.common.store.Store;
+import discord4j.common.store.action.gateway.GatewayActions;
+import discord4j.common.store.impl.LocalStoreLayout;
+import discord4j.common.util.Snowflake;
+import discord4j.core.DiscordClientBuilder;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.GatewayResources;
+import discord4j.core.event.EventDispatcher;
+import discord4j.core.event.domain.Event;
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.Interaction;
+import discord4j.core.retriever.EntityRetrievalStrategy;
+import discord4j.core.shard.LocalShardCoordinator;
+import discord4j.core.shard.MemberRequestFilter;
+import discord4j.discordjson.json.ApplicationCommandInteractionData;
+import discord4j.discordjson.json.ApplicationCommandInteractionOptionData;
+import discord4j.discordjson.json.ChannelData;
+import discord4j.discordjson.json.InteractionData;
+import discord4j.discordjson.json.MemberData;
+import discord4j.discordjson.json.gateway.ChannelCreate;
+import discord4j.gateway.GatewayClient;
+import discord4j.gateway.GatewayClientGroup;
+import discord4j.gateway.GatewayReactorResources;
+import discord4j.gateway.ShardInfo;
+import discord4j.gateway.intent.IntentSet;
+import discord4j.gateway.json.GatewayPayload;
+import discord4j.gateway.json.ShardGatewayPayload;
+import discord4j.rest.request.RouterOptions;
+import discord4j.voice.VoiceReactorResources;
+import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * An in-memory stand-in for Discord, allowing to run the interaction library end to end without network access. It
+ * provides a {@link GatewayDiscordClient} which does not connect to the Discord gateway: events are instead published
+ * locally via {@link #publish(Event)}, and the REST requests made by the framework are served by a server on the
+ * loopback interface. See {@link Endpoint} for the list of supported REST endpoints.
+ * <p>
+ * Latency and errors can be injected in the REST responses, and {@link #awaitReply(String)} allows to know when an
+ * interaction has been replied to, which is used by {@link LoadGenerator} to measure the latency of interactions.
+ *
+ * <pre>
+ *     try (var discord = LocalDiscord.builder().setLatency(Duration.ofMillis(20)).build()) {
+ *         var service = InteractionService.create(InteractionConfig.withDefaults(), discord.gateway());
+ *         service.registerChatInputCommand(new PingCommand());
+ *         service.run().subscribe();
+ *         service.onCommandsDeployed().block();
+ *         var event = discord.chatInputEvent("ping");
+ *         var reply = discord.awaitReply(event.getInteraction().getToken());
+ *         discord.publish(event);
+ *         reply.block();
+ *     }
+ * </pre>
+ */
+public final class LocalDiscord implements AutoCloseable {
+
+    /**
+     * The ID of the application, which is also the ID of the bot user.
+     */
+    public static final Snowflake APPLICATION_ID = Snowflake.of(100);
+
+    /**
+     * The ID of the guild of the interactions created without specifying a guild.
+     */
+    public static final Snowflake DEFAULT_GUILD_ID = Snowflake.of(200);
+
+    /**
+     * The ID of the user of the interactions created without specifying a user.
+     */
+    public static final Snowflake DEFAULT_USER_ID = Snowflake.of(400);
+
+    private static final ShardInfo SHARD = ShardInfo.create(0, 1);
+
+    private final LocalEntities entities = new LocalEntities();
+    private final AtomicLong lastInteractionId = new AtomicLong();
+    private final boolean channelsCached;
+    private final Store store;
+    private final EventDispatcher eventDispatcher;
+    private final LocalRestServer restServer;
+    private final GatewayDiscordClient gateway;
+
+    private LocalDiscord(Faults faults, boolean channelsCached) {
+        this.channelsCached = channelsCached;
+        final var jacksonResources = JacksonResources.create();
+        this.restServer = new LocalRestServer(faults, entities, jacksonResources.getObjectMapper());
+        final var baseUrl = restServer.baseUrl();
+        // The ID of the bot is read from the first part of the token
+        final var token = Base64.getEncoder()
+                .encodeToString(APPLICATION_ID.asString().getBytes(StandardCharsets.UTF_8)) + ".local.token";
+        final var client = DiscordClientBuilder.create(token)
+                .setJacksonResources(jacksonResources)
+                .setExtraOptions(o -> new RouterOptions(o.getToken(), o.getReactorResources(),
+                        o.getExchangeStrategies(), o.getResponseTransformers(), o.getGlobalRateLimiter(),
+                        o.getRequestQueueFactory(), baseUrl))
+                .build();
+        this.store = Store.fromLayout(LocalStoreLayout.create());
+        this.eventDispatcher = EventDispatcher.builder().build();
+        final var resources = new GatewayResources(store, eventDispatcher, LocalShardCoordinator.create(),
+                MemberRequestFilter.none(), GatewayReactorResources.create(), VoiceReactorResources.create(),
+                ReconnectOptions.create(), IntentSet.nonPrivileged());
+        this.gateway = new GatewayDiscordClient(client, resources, Mono.never(), new LocalGatewayClientGroup(),
+                options -> Mono.error(new UnsupportedOperationException("Voice is not supported")),
+                EntityRetrievalStrategy.STORE_FALLBACK_REST, Set.of());
+    }
+
+    /**
+     * Creates a new {@link LocalDiscord} without latency nor errors.
+     *
+     * @return a new {@link LocalDiscord}
+     */
+    public static LocalDiscord create() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a builder allowing to configure the latency and the errors of the REST endpoints.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the gateway client to give to the code under test.
+     *
+     * @return the gateway client
+     */
+    public GatewayDiscordClient gateway() {
+        return gateway;
+    }
+
+    /**
+     * Creates a chat input interaction event for the given command without options, as if the default user used it
+     * in the default guild.
+     *
+     * @param commandName the name of the command
+     * @return a new event, not published yet
+     */
+    public ChatInputInteractionEvent chatInputEvent(String commandName) {
+        return chatInputEvent(commandName, DEFAULT_GUILD_ID, DEFAULT_USER_ID, List.of());
+    }
+
+    /**
+     * Creates a chat input interaction event for the given command. The ID of the interaction is generated from the
+     * current time, like the IDs generated by Discord.
+     *
+     * @param commandName the name of the command
+     * @param guildId     the ID of the guild where the command is used, or <code>null</code> if it is used in DMs
+     * @param userId      the ID of the user who used the command
+     * @param options     the options of the command
+     * @return a new event, not published yet
+     */
+    public ChatInputInteractionEvent chatInputEvent(String commandName, @Nullable Snowflake guildId, Snowflake userId,
+                                                    List<ApplicationCommandInteractionOptionData> options) {
+        Objects.requireNonNull(commandName);
+        Objects.requireNonNull(options);
+        return new ChatInputInteractionEvent(gateway, SHARD, interaction(guildId, userId, 2, id ->
+                ApplicationCommandInteractionData.builder()
+                        .id(String.valueOf(id))
+                        .name(commandName)
+                        .type(1)
+                        .options(options)
+                        .build()));
+    }
+
+    /**
+     * Creates a button interaction event for the given custom ID, as if the default user clicked the button in the
+     * default guild.
+     *
+     * @param customId the custom ID of the button
+     * @return a new event, not published yet
+     */
+    public ButtonInteractionEvent buttonEvent(String customId) {
+        return buttonEvent(customId, DEFAULT_GUILD_ID, DEFAULT_USER_ID);
+    }
+
+    /**
+     * Creates a button interaction event for the given custom ID. The ID of the interaction is generated from the
+     * current time, like the IDs generated by Discord.
+     *
+     * @param customId the custom ID of the button
+     * @param guildId  the ID of the guild where the button is clicked, or <code>null</code> if it is clicked in DMs
+     * @param userId   the ID of the user who clicked the button
+     * @return a new event, not published yet
+     */
+    public ButtonInteractionEvent buttonEvent(String customId, @Nullable Snowflake guildId, Snowflake userId) {
+        Objects.requireNonNull(customId);
+        return new ButtonInteractionEvent(gateway, SHARD, interaction(guildId, userId, 3, id ->
+                ApplicationCommandInteractionData.builder()
+                        .customId(customId)
+                        .componentType(2)
+                        .build()));
+    }
+
+    private Interaction interaction(@Nullable Snowflake guildId, Snowflake userId, int type,
+                                    LongFunction<ApplicationCommandInteractionData> dataFactory) {
+        Objects.requireNonNull(userId);
+        final var nowId = Snowflake.of(Instant.now()).asLong();
+        final var interactionId = lastInteractionId.accumulateAndGet(nowId, (last, now) -> Math.max(last + 1, now));
+        final var channel = guildId == null ? entities.dmChannel(userId) : entities.guildChannel(guildId);
+        if (channelsCached) {
+            cacheChannel(channel);
+        }
+        final var data = InteractionData.builder()
+                .id(interactionId)
+                .applicationId(APPLICATION_ID.asLong())
+                .type(type)
+                .token("token-" + interactionId)
+                .version(1)
+                .data(dataFactory.apply(interactionId))
+                .channelId(channel.id().asLong())
+                .locale("en-US");
+        if (guildId == null) {
+            data.user(entities.user(userId));
+        } else {
+            // Like Discord, the permissions of the member in the channel are included in the payload
+            data.guildId(guildId.asLong())
+                    .member(MemberData.builder()
+                            .from(entities.member(userId))
+                            .permissions(String.valueOf(entities.permissions(userId).getRawValue()))
+                            .build())
+                    .guildLocale("en-US");
+        }
+        return new Interaction(gateway, data.build());
+    }
+
+    /**
+     * Publishes an event to the subscribers of {@link GatewayDiscordClient#on(Class)}.
+     *
+     * @param event the event to publish
+     */
+    public void publish(Event event) {
+        eventDispatcher.publish(event);
+    }
+
+    /**
+     * Returns a Mono completing when the interaction with the given token is replied to, that is when a message is
+     * sent in response to it, when its deferred response is edited, or when a followup message is sent. Deferring the
+     * interaction does not count as a reply. This method must be called before the event is published.
+     *
+     * @param interactionToken the token of the interaction
+     * @return a Mono completing when the interaction is replied to
+     */
+    public Mono<Void> awaitReply(String interactionToken) {
+        return restServer.awaitReply(interactionToken);
+    }
+
+    /**
+     * Gets the number of requests received by the given endpoint, including those that failed due to error
+     * injection.
+     *
+     * @param endpoint the endpoint
+     * @return the number of requests
+     */
+    public long requestCount(Endpoint endpoint) {
+        return restServer.requestCount(endpoint);
+    }
+
+    /**
+     * Gets the number of errors injected in the responses of the given endpoint.
+     *
+     * @param endpoint the endpoint
+     * @return the number of errors
+     */
+    public long errorCount(Endpoint endpoint) {
+        return restServer.errorCount(endpoint);
+    }
+
+    /**
+     * Stops the event dispatcher and the REST server.
+     */
+    @Override
+    public void close() {
+        eventDispatcher.shutdown();
+        restServer.dispose();
+    }
+
+    private void cacheChannel(ChannelData channel) {
+        Mono.from(store.execute(GatewayActions.channelCreate(SHARD.getIndex(), ChannelCreate.builder()
+                .channel(channel)
+                .build()))).block();
+    }
+
+    record Faults(Duration latencyMin, Duration latencyMax, double errorRate, int errorStatus,
+                  Set<Endpoint> endpoints) {}
+
+    /**
+     * Builder for {@link LocalDiscord}.
+     */
+    public static final class Builder {
+
+        private Duration latencyMin = Duration.ZERO;
+        private Duration latencyMax = Duration.ZERO;
+        private double errorRate;
+        private int errorStatus = 500;
+        private Set<Endpoint> faultyEndpoints = EnumSet.noneOf(Endpoint.class);
+        private boolean channelsCached;
+
+        private Builder() {
+            for (final var endpoint : Endpoint.values()) {
+                if (endpoint.isInteractionEndpoint()) {
+                    faultyEndpoints.add(endpoint);
+                }
+            }
+        }
+
+        /**
+         * Sets a fixed latency applied to all REST responses. Default is zero.
+         *
+         * @param latency the latency
+         * @return this builder
+         */
+        public Builder setLatency(Duration latency) {
+            return setLatency(latency, latency);
+        }
+
+        /**
+         * Sets a latency chosen randomly between the given bounds for each REST response. Default is zero.
+         *
+         * @param min the minimum latency
+         * @param max the maximum latency
+         * @return this builder
+         */
+        public Builder setLatency(Duration min, Duration max) {
+            if (min.isNegative() || max.compareTo(min) < 0) {
+                throw new IllegalArgumentException("Invalid latency bounds: " + min + ", " + max);
+            }
+            this.latencyMin = min;
+            this.latencyMax = max;
+            return this;
+        }
+
+        /**
+         * Sets the proportion of requests that fail with an error, between 0 and 1. Default is 0.
+         *
+         * @param errorRate the error rate
+         * @return this builder
+         */
+        public Builder setErrorRate(double errorRate) {
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("errorRate must be between 0 and 1");
+            }
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Sets the HTTP status of the injected errors. Default is 500. Note that Discord4J retries some server errors
+         * on its own.
+         *
+         * @param errorStatus the HTTP status
+         * @return this builder
+         */
+        public Builder setErrorStatus(int errorStatus) {
+            if (errorStatus < 400 || errorStatus > 599) {
+                throw new IllegalArgumentException("errorStatus must be a 4xx or 5xx status");
+            }
+            this.errorStatus = errorStatus;
+            return this;
+        }
+
+        /**
+         * Sets the endpoints where errors are injected. By default, errors are injected in all the endpoints called
+         * while processing interactions, but not in the ones called at startup.
+         *
+         * @param endpoints the endpoints
+         * @return this builder
+         */
+        public Builder setFaultyEndpoints(Set<Endpoint> endpoints) {
+            this.faultyEndpoints = endpoints.isEmpty() ? EnumSet.noneOf(Endpoint.class) : EnumSet.copyOf(endpoints);
+            return this;
+        }
+
+        /**
+         * Sets whether the channels of the interactions are put in the gateway cache, as if they had been received
+         * from the gateway. If false, the framework fetches them via REST. Default is false.
+         *
+         * @param channelsCached whether channels are cached
+         * @return this builder
+         */
+        public Builder setChannelsCached(boolean channelsCached) {
+            this.channelsCached = channelsCached;
+            return this;
+        }
+
+        /**
+         * Builds the {@link LocalDiscord} and starts its REST server.
+         *
+         * @return a new {@link LocalDiscord}
+         */
+        public LocalDiscord build() {
+            return new LocalDiscord(new Faults(latencyMin, latencyMax, errorRate, errorStatus,
+                    Set.copyOf(faultyEndpoints)), channelsCached);
+        }
+    }
+
+    private static final class LocalGatewayClientGroup implements GatewayClientGroup {
+
+        @Override
+        public Optional<GatewayClient> find(int shardId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public int getShardCount() {
+            return 1;
+        }
+
+        @Override
+        public Mono<Void> multicast(GatewayPayload<?> payload) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> unicast(ShardGatewayPayload<?> payload) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> logout() {
+            return Mono.empty();
+        }
+    }
+}
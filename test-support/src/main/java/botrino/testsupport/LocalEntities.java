@@ -0,0 +1,109 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import discord4j.common.util.Snowflake;
+import discord4j.discordjson.json.ChannelData;
+import discord4j.discordjson.json.GuildUpdateData;
+import discord4j.discordjson.json.MemberData;
+import discord4j.discordjson.json.UserData;
+import discord4j.rest.util.PermissionSet;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The channels, users and members known by {@link LocalDiscord}, created on demand when interactions are generated.
+ * To keep things simple, the text channel of a guild has the same ID as the guild, and the DM channel of a user has the
+ * same ID as the user. Guilds have no roles and are owned by {@link LocalDiscord#DEFAULT_USER_ID}, so the default user
+ * has all permissions while the other users have none.
+ */
+final class LocalEntities {
+
+    private final Map<Snowflake, ChannelData> channels = new ConcurrentHashMap<>();
+    private final Map<Snowflake, GuildUpdateData> guilds = new ConcurrentHashMap<>();
+    private final Map<Snowflake, MemberData> members = new ConcurrentHashMap<>();
+
+    ChannelData guildChannel(Snowflake guildId) {
+        return channels.computeIfAbsent(guildId, id -> ChannelData.builder()
+                .id(id.asLong())
+                .type(0)
+                .guildId(id.asLong())
+                .name("channel-" + id.asString())
+                .build());
+    }
+
+    ChannelData dmChannel(Snowflake userId) {
+        return channels.computeIfAbsent(userId, id -> ChannelData.builder()
+                .id(id.asLong())
+                .type(1)
+                .recipients(List.of(user(userId)))
+                .build());
+    }
+
+    GuildUpdateData guild(Snowflake guildId) {
+        return guilds.computeIfAbsent(guildId, id -> GuildUpdateData.builder()
+                .id(id.asLong())
+                .name("guild-" + id.asString())
+                .ownerId(LocalDiscord.DEFAULT_USER_ID.asLong())
+                .verificationLevel(0)
+                .nsfwLevel(0)
+                .afkTimeout(0)
+                .defaultMessageNotifications(0)
+                .explicitContentFilter(0)
+                .mfaLevel(0)
+                .premiumTier(0)
+                .preferredLocale("en-US")
+                .build());
+    }
+
+    PermissionSet permissions(Snowflake userId) {
+        return userId.equals(LocalDiscord.DEFAULT_USER_ID) ? PermissionSet.all() : PermissionSet.none();
+    }
+
+    Optional<ChannelData> channel(Snowflake channelId) {
+        return Optional.ofNullable(channels.get(channelId));
+    }
+
+    UserData user(Snowflake userId) {
+        return member(userId).user();
+    }
+
+    MemberData member(Snowflake userId) {
+        return members.computeIfAbsent(userId, id -> MemberData.builder()
+                .user(UserData.builder()
+                        .id(id.asLong())
+                        .username("user-" + id.asString())
+                        .discriminator("0")
+                        .avatar(Optional.empty())
+                        .build())
+                .joinedAt("2020-01-01T00:00:00Z")
+                .deaf(false)
+                .mute(false)
+                .flags(0)
+                .build());
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import discord4j.common.util.Snowflake;
+import discord4j.discordjson.json.ApplicationInfoData;
+import discord4j.discordjson.json.MessageData;
+import discord4j.discordjson.json.UserData;
+import io.netty.handler.codec.http.HttpMethod;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * HTTP server on the loopback interface standing in for the Discord REST API. It serves the endpoints listed in
+ * {@link Endpoint} from the entities known by {@link LocalDiscord}, applies the configured latency and errors, and
+ * keeps track of the interactions that have been replied to. Like Discord, it rejects a second response to the same
+ * interaction, and responds with a 404 error to requests for a channel that doesn't exist.
+ */
+final class LocalRestServer {
+
+    private static final String PREFIX = "/api/v10";
+    // Interaction callback types, see https://discord.com/developers/docs/interactions/receiving-and-responding
+    private static final int CHANNEL_MESSAGE_WITH_SOURCE = 4;
+    private static final int UPDATE_MESSAGE = 7;
+    // JSON error codes, see https://discord.com/developers/docs/topics/opcodes-and-status-codes
+    private static final int ALREADY_ACKNOWLEDGED = 40060;
+    private static final int UNKNOWN_CHANNEL = 10003;
+
+    private final LocalDiscord.Faults faults;
+    private final LocalEntities entities;
+    private final ObjectMapper mapper;
+    private final Map<Endpoint, LongAdder> requestCounts = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errorCounts = new EnumMap<>(Endpoint.class);
+    private final Map<String, Sinks.Empty<Void>> pendingReplies = new ConcurrentHashMap<>();
+    private final Set<String> acknowledged = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextMessageId = new AtomicLong(Snowflake.of(Instant.now()).asLong());
+    private final DisposableServer server;
+
+    LocalRestServer(LocalDiscord.Faults faults, LocalEntities entities, ObjectMapper mapper) {
+        this.faults = faults;
+        this.entities = entities;
+        this.mapper = mapper;
+        for (final var endpoint : Endpoint.values()) {
+            requestCounts.put(endpoint, new LongAdder());
+            errorCounts.put(endpoint, new LongAdder());
+        }
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get(PREFIX + "/oauth2/applications/@me", handle(Endpoint.APPLICATION_INFO,
+                                req -> json(applicationInfo())))
+                        .put(PREFIX + "/applications/{app}/commands", handle(Endpoint.COMMANDS_OVERWRITE,
+                                req -> Mono.just("[]")))
+                        .put(PREFIX + "/applications/{app}/guilds/{guild}/commands",
+                                handle(Endpoint.COMMANDS_OVERWRITE, req -> Mono.just("[]")))
+                        .get(PREFIX + "/channels/{channel}", handle(Endpoint.CHANNEL_GET,
+                                req -> Mono.justOrEmpty(entities.channel(Snowflake.of(param(req, "channel"))))
+                                        .switchIfEmpty(Mono.error(new ErrorResponse(404, UNKNOWN_CHANNEL,
+                                                "Unknown Channel")))
+                                        .flatMap(this::json)))
+                        .get(PREFIX + "/guilds/{guild}", handle(Endpoint.GUILD_GET,
+                                req -> json(entities.guild(Snowflake.of(param(req, "guild"))))))
+                        .get(PREFIX + "/guilds/{guild}/members/{user}", handle(Endpoint.MEMBER_GET,
+                                req -> json(entities.member(Snowflake.of(param(req, "user"))))))
+                        .post(PREFIX + "/interactions/{id}/{token}/callback", handle(Endpoint.INTERACTION_CALLBACK,
+                                req -> req.receive().aggregate().asString()
+                                        .flatMap(body -> {
+                                            final var token = param(req, "token");
+                                            // An interaction can only be responded to once
+                                            if (!acknowledged.add(token)) {
+                                                return Mono.error(new ErrorResponse(400, ALREADY_ACKNOWLEDGED,
+                                                        "Interaction has already been acknowledged."));
+                                            }
+                                            final var type = readTree(body).path("type").asInt();
+                                            if (type == CHANNEL_MESSAGE_WITH_SOURCE || type == UPDATE_MESSAGE) {
+                                                onReply(token);
+                                            }
+                                            return Mono.<String>empty();
+                                        })))
+                        .post(PREFIX + "/webhooks/{app}/{token}", handle(Endpoint.FOLLOWUP_CREATE,
+                                req -> req.receive().then(Mono.fromRunnable(() -> onReply(param(req, "token"))))
+                                        .then(json(message()))))
+                        .get(PREFIX + "/webhooks/{app}/{token}/messages/{message}", handle(Endpoint.MESSAGE_GET,
+                                req -> json(message())))
+                        // HttpServerRoutes has no shortcut for PATCH, so the token is extracted from the path manually
+                        .route(req -> req.method().equals(HttpMethod.PATCH) &&
+                                        req.fullPath().startsWith(PREFIX + "/webhooks/"), handle(Endpoint.MESSAGE_EDIT,
+                                req -> req.receive().then(Mono.fromRunnable(() -> onReply(webhookToken(req))))
+                                        .then(json(message()))))
+                        .delete(PREFIX + "/webhooks/{app}/{token}/messages/{message}",
+                                handle(Endpoint.MESSAGE_DELETE, req -> Mono.empty())))
+                .bindNow();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.port() + PREFIX;
+    }
+
+    Mono<Void> awaitReply(String interactionToken) {
+        final var sink = Sinks.<Void>empty();
+        pendingReplies.put(interactionToken, sink);
+        return sink.asMono().doFinally(signal -> pendingReplies.remove(interactionToken, sink));
+    }
+
+    long requestCount(Endpoint endpoint) {
+        return requestCounts.get(endpoint).sum();
+    }
+
+    long errorCount(Endpoint endpoint) {
+        return errorCounts.get(endpoint).sum();
+    }
+
+    void dispose() {
+        server.disposeNow();
+    }
+
+    private void onReply(String interactionToken) {
+        final var sink = pendingReplies.remove(interactionToken);
+        if (sink != null) {
+            sink.tryEmitEmpty();
+        }
+    }
+
+    private BiFunction<HttpServerRequest, HttpServerResponse, Mono<Void>> handle(
+            Endpoint endpoint, Function<HttpServerRequest, Mono<String>> handler) {
+        return (req, res) -> {
+            requestCounts.get(endpoint).increment();
+            final var latency = faults.latencyMin().equals(faults.latencyMax()) ? faults.latencyMin() :
+                    Duration.ofNanos(ThreadLocalRandom.current().nextLong(faults.latencyMin().toNanos(),
+                            faults.latencyMax().toNanos() + 1));
+            final var fail = faults.endpoints().contains(endpoint) && faults.errorRate() > 0 &&
+                    ThreadLocalRandom.current().nextDouble() < faults.errorRate();
+            final Mono<Void> response;
+            if (fail) {
+                errorCounts.get(endpoint).increment();
+                response = req.receive().then(res.status(faults.errorStatus())
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.just("{\"message\":\"Injected error\",\"code\":0}"))
+                        .then());
+            } else {
+                response = handler.apply(req)
+                        .flatMap(body -> res.header("Content-Type", "application/json")
+                                .sendString(Mono.just(body))
+                                .then())
+                        .switchIfEmpty(Mono.defer(() -> res.status(204).send()))
+                        .onErrorResume(ErrorResponse.class, e -> res.status(e.status)
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just("{\"message\":\"" + e.getMessage() + "\",\"code\":" + e.code +
+                                        "}"))
+                                .then());
+            }
+            return latency.isZero() ? response : Mono.delay(latency).then(response);
+        };
+    }
+
+    private ApplicationInfoData applicationInfo() {
+        return ApplicationInfoData.builder()
+                .id(LocalDiscord.APPLICATION_ID.asLong())
+                .name("Local application")
+                .description("")
+                .summary("")
+                .botPublic(true)
+                .botRequireCodeGrant(false)
+                .verifyKey("")
+                .flags(0)
+                .build();
+    }
+
+    private MessageData message() {
+        return MessageData.builder()
+                .id(nextMessageId.incrementAndGet())
+                .channelId(LocalDiscord.DEFAULT_GUILD_ID.asLong())
+                .author(UserData.builder()
+                        .id(LocalDiscord.APPLICATION_ID.asLong())
+                        .username("bot")
+                        .discriminator("0")
+                        .bot(true)
+                        .build())
+                .content("")
+                .timestamp(Instant.now().toString())
+                .tts(false)
+                .mentionEveryone(false)
+                .pinned(false)
+                .type(0)
+                .build();
+    }
+
+    private Mono<String> json(Object value) {
+        return Mono.fromCallable(() -> mapper.writeValueAsString(value));
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return mapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed request body", e);
+        }
+    }
+
+    private static String webhookToken(HttpServerRequest req) {
+        // /api/v10/webhooks/{app}/{token}/messages/{message}
+        final var segments = req.fullPath().substring(PREFIX.length() + 1).split("/");
+        if (segments.length < 3) {
+            throw new IllegalArgumentException("Malformed webhook path " + req.fullPath());
+        }
+        return segments[2];
+    }
+
+    private static String param(HttpServerRequest req, String name) {
+        final var value = req.param(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing path parameter " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Makes a handler respond with an error status and a JSON error body, as Discord does for invalid requests.
+     */
+    private static final class ErrorResponse extends RuntimeException {
+
+        private final int status;
+        private final int code;
+
+        private ErrorResponse(int status, int code, String message) {
+            super(message, null, false, false);
+            this.status = status;
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+module botrino.testsupport {
+    exports botrino.testsupport;
+
+    requires transitive botrino.api;
+    requires discord4j.voice;
+    requires io.netty.codec.http;
+    requires reactor.netty.http;
+    requires reactor.netty.core;
+}
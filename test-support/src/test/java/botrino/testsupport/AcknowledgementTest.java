@@ -0,0 +1,170 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import botrino.interaction.InteractionService;
+import botrino.interaction.annotation.Acknowledge;
+import botrino.interaction.annotation.ChatInputCommand;
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.context.ChatInputInteractionContext;
+import botrino.interaction.listener.ChatInputInteractionListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AcknowledgementTest {
+
+    private static final long AUTO_DEFER_THRESHOLD_MILLIS = 20;
+    // Long enough for a reply sent as soon as the listener starts to always be received before the automatic deferral
+    private static final long SLOW_AUTO_DEFER_THRESHOLD_MILLIS = 1000;
+
+    private LocalDiscord discord;
+    private Disposable running;
+
+    @AfterEach
+    public void tearDown() {
+        if (running != null) {
+            running.dispose();
+        }
+        if (discord != null) {
+            discord.close();
+        }
+    }
+
+    private void start(ChatInputInteractionListener command) {
+        start(command, AUTO_DEFER_THRESHOLD_MILLIS);
+    }
+
+    private void start(ChatInputInteractionListener command, long autoDeferThresholdMillis) {
+        discord = LocalDiscord.create();
+        final var config = InteractionConfig.builder()
+                .from(InteractionConfig.withDefaults())
+                .autoDeferThresholdMillis(autoDeferThresholdMillis)
+                .build();
+        final var service = InteractionService.create(config, discord.gateway());
+        service.registerChatInputCommand(command);
+        running = service.run().subscribe();
+        service.onCommandsDeployed().block(Duration.ofSeconds(10));
+    }
+
+    private LoadReport run(int interactions) {
+        final var report = LoadGenerator.create(discord)
+                .run(interactions, 16, i -> discord.chatInputEvent("race"))
+                .block(Duration.ofSeconds(30));
+        assertNotNull(report);
+        return report;
+    }
+
+    @Test
+    public void concurrentRespondAndDeferAcknowledgeOnce() {
+        final var command = new RespondAndDeferCommand();
+        start(command);
+        final var report = run(100);
+        assertEquals(0, report.failures());
+        assertEquals(0, command.errors.get());
+        // The losing call waits for the winning one instead of acknowledging again
+        assertEquals(100, discord.requestCount(Endpoint.INTERACTION_CALLBACK));
+    }
+
+    @Test
+    public void automaticDeferralRacingWithRespondAcknowledgesOnce() {
+        final var command = new AutoRespondCommand();
+        start(command);
+        final var report = run(100);
+        assertEquals(0, report.failures());
+        assertEquals(0, command.errors.get());
+        assertEquals(100, discord.requestCount(Endpoint.INTERACTION_CALLBACK));
+        // Responses sent after the automatic deferral are followups
+        assertTrue(discord.requestCount(Endpoint.FOLLOWUP_CREATE) <= 100);
+    }
+
+    @Test
+    public void automaticDeferralAfterDirectReplyIsRejected() throws InterruptedException {
+        final var command = new DirectReplyCommand();
+        start(command, SLOW_AUTO_DEFER_THRESHOLD_MILLIS);
+        final var report = run(1);
+        assertEquals(0, report.failures());
+        assertTrue(command.done.await(10, TimeUnit.SECONDS));
+        // The automatic deferral doesn't know about the reply, Discord rejects it and the listener is unaffected
+        assertEquals(2, discord.requestCount(Endpoint.INTERACTION_CALLBACK));
+        assertEquals(0, command.errors.get());
+    }
+
+    @Acknowledge(Acknowledge.Mode.NONE)
+    @ChatInputCommand(name = "race", description = "Responds and defers at the same time.")
+    static final class RespondAndDeferCommand implements ChatInputInteractionListener {
+
+        private final AtomicInteger errors = new AtomicInteger();
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return Mono.when(ctx.respond("Pong!").subscribeOn(Schedulers.parallel()),
+                            ctx.deferIfUnacknowledged(false).subscribeOn(Schedulers.parallel()))
+                    .doOnError(e -> errors.incrementAndGet());
+        }
+    }
+
+    @Acknowledge(Acknowledge.Mode.AUTO)
+    @ChatInputCommand(name = "race", description = "Responds around the automatic deferral threshold.")
+    static final class AutoRespondCommand implements ChatInputInteractionListener {
+
+        private final AtomicInteger errors = new AtomicInteger();
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            final var delay = ThreadLocalRandom.current().nextLong(AUTO_DEFER_THRESHOLD_MILLIS * 2);
+            return Mono.delay(Duration.ofMillis(delay))
+                    .then(ctx.respond("Pong!"))
+                    .doOnError(e -> errors.incrementAndGet());
+        }
+    }
+
+    @Acknowledge(Acknowledge.Mode.AUTO)
+    @ChatInputCommand(name = "race", description = "Replies on the event, bypassing the context.")
+    static final class DirectReplyCommand implements ChatInputInteractionListener {
+
+        private final AtomicInteger errors = new AtomicInteger();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return ctx.event().reply("Pong!")
+                    // Keeps running until the automatic deferral has been attempted
+                    .then(Mono.delay(Duration.ofMillis(SLOW_AUTO_DEFER_THRESHOLD_MILLIS * 2)))
+                    .doOnError(e -> errors.incrementAndGet())
+                    .doFinally(signal -> done.countDown());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import botrino.interaction.InteractionMetrics;
+import botrino.interaction.InteractionService;
+import botrino.interaction.annotation.ChatInputCommand;
+import botrino.interaction.config.ImmutableSchedulingConfig;
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.context.ChatInputInteractionContext;
+import botrino.interaction.listener.ChatInputInteractionListener;
+import botrino.interaction.listener.InteractionListener;
+import botrino.interaction.util.MessagePaginator;
+import discord4j.core.object.component.ActionRow;
+import discord4j.core.object.component.Button;
+import discord4j.core.spec.MessageCreateSpec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlTest {
+
+    private LocalDiscord discord;
+    private Disposable running;
+
+    @AfterEach
+    public void tearDown() {
+        if (running != null) {
+            running.dispose();
+        }
+        if (discord != null) {
+            discord.close();
+        }
+    }
+
+    @Test
+    public void rejectedInteractionIsRespondedToWithoutUnhandledError() throws InterruptedException {
+        discord = LocalDiscord.create();
+        final var config = InteractionConfig.builder()
+                .from(InteractionConfig.withDefaults())
+                .scheduling(ImmutableSchedulingConfig.builder()
+                        .maxConcurrency(1)
+                        .maxQueueSize(0)
+                        .build())
+                .build();
+        final var metrics = new CountingMetrics();
+        final var command = new SlowCommand();
+        final var service = InteractionService.builder(config, discord.gateway())
+                .setMetrics(metrics)
+                .build();
+        service.registerChatInputCommand(command);
+        running = service.run().subscribe();
+        service.onCommandsDeployed().block(Duration.ofSeconds(10));
+
+        // Takes the only slot until released
+        discord.publish(discord.chatInputEvent("slow"));
+        assertTrue(command.started.await(10, TimeUnit.SECONDS));
+
+        final var report = LoadGenerator.create(discord)
+                .run(1, 1, i -> discord.chatInputEvent("slow"))
+                .block(Duration.ofSeconds(30));
+        command.release.tryEmitEmpty();
+        assertNotNull(report);
+        assertEquals(0, report.failures());
+        assertEquals(1, metrics.overloaded.get());
+        assertEquals(0, metrics.unhandledErrors.get());
+    }
+
+    @Test
+    public void paginatorDoesNotHoldItsSlotWhileWaitingForAClick() throws InterruptedException {
+        discord = LocalDiscord.create();
+        final var config = InteractionConfig.builder()
+                .from(InteractionConfig.withDefaults())
+                .scheduling(ImmutableSchedulingConfig.builder()
+                        .maxConcurrency(1)
+                        .maxConcurrencyPerGuild(1)
+                        .build())
+                .build();
+        final var metrics = new CountingMetrics();
+        final var command = new PagesCommand();
+        final var service = InteractionService.builder(config, discord.gateway())
+                .setMetrics(metrics)
+                .build();
+        service.registerChatInputCommand(command);
+        running = service.run().subscribe();
+        service.onCommandsDeployed().block(Duration.ofSeconds(10));
+
+        final var event = discord.chatInputEvent("pages");
+        final var firstPage = discord.awaitReply(event.getInteraction().getToken());
+        discord.publish(event);
+        firstPage.block(Duration.ofSeconds(10));
+        awaitCondition(() -> metrics.gauges.inFlightInteractions() == 0);
+
+        discord.publish(discord.buttonEvent(command.nextId));
+        awaitCondition(() -> command.pages.equals(List.of(0, 1)));
+        // The paginator waits for the buttons again once the message is edited
+        awaitCondition(() -> discord.requestCount(Endpoint.MESSAGE_EDIT) == 1);
+        Thread.sleep(100);
+        discord.publish(discord.buttonEvent(command.closeId));
+        assertTrue(command.closed.await(10, TimeUnit.SECONDS));
+        assertEquals(0, metrics.overloaded.get());
+        assertEquals(0, metrics.unhandledErrors.get());
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    @ChatInputCommand(name = "slow", description = "Runs until released.")
+    static final class SlowCommand implements ChatInputInteractionListener {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final Sinks.Empty<Void> release = Sinks.empty();
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return Mono.fromRunnable(started::countDown).then(release.asMono());
+        }
+    }
+
+    @ChatInputCommand(name = "pages", description = "Shows pages until closed.")
+    static final class PagesCommand implements ChatInputInteractionListener {
+
+        private final List<Integer> pages = new CopyOnWriteArrayList<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile String nextId;
+        private volatile String closeId;
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return MessagePaginator.paginate(ctx, 3, state -> {
+                        if (state.isActive()) {
+                            pages.add(state.getPage());
+                        }
+                        return Mono.just(MessageCreateSpec.builder()
+                                .content("Page " + state.getPage())
+                                .addComponent(ActionRow.of(
+                                        state.nextButton(id -> Button.primary(nextId = id, "Next")),
+                                        state.closeButton(id -> Button.danger(closeId = id, "Close"))))
+                                .build());
+                    })
+                    .doOnSuccess(__ -> closed.countDown());
+        }
+    }
+
+    static final class CountingMetrics implements InteractionMetrics {
+
+        private final AtomicInteger overloaded = new AtomicInteger();
+        private final AtomicInteger unhandledErrors = new AtomicInteger();
+        private volatile Gauges gauges;
+
+        @Override
+        public void bindGauges(Gauges gauges) {
+            this.gauges = gauges;
+        }
+
+        @Override
+        public void recordOutcome(InteractionListener listener, Outcome outcome) {
+            if (outcome == Outcome.OVERLOADED) {
+                overloaded.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void recordUnhandledError(Throwable error) {
+            unhandledErrors.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import botrino.interaction.InteractionService;
+import botrino.interaction.annotation.Acknowledge;
+import botrino.interaction.annotation.Blocking;
+import botrino.interaction.annotation.ChatInputCommand;
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.context.ChatInputInteractionContext;
+import botrino.interaction.listener.ChatInputInteractionListener;
+import botrino.interaction.privilege.Privilege;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockingListenerTest {
+
+    private LocalDiscord discord;
+    private Disposable running;
+    private Scheduler blockingScheduler;
+
+    @AfterEach
+    public void tearDown() {
+        if (running != null) {
+            running.dispose();
+        }
+        if (discord != null) {
+            discord.close();
+        }
+        if (blockingScheduler != null) {
+            blockingScheduler.dispose();
+        }
+    }
+
+    private void run(RecordingCommand command, @Nullable Scheduler blockingScheduler) {
+        final var service = InteractionService.builder(InteractionConfig.withDefaults(), discord.gateway())
+                .setBlockingScheduler(blockingScheduler)
+                .build();
+        service.registerChatInputCommand(command);
+        running = service.run().subscribe();
+        service.onCommandsDeployed().block(Duration.ofSeconds(10));
+        final var event = discord.chatInputEvent(command.name());
+        final var reply = discord.awaitReply(event.getInteraction().getToken());
+        discord.publish(event);
+        reply.block(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void blockingListenerRunsOnTheBlockingScheduler() {
+        discord = LocalDiscord.create();
+        blockingScheduler = Schedulers.newSingle("blocking-listeners");
+        final RecordingCommand command = new BlockingCommand(discord);
+        run(command, blockingScheduler);
+        assertTrue(command.runThread.startsWith("blocking-listeners"), command.runThread);
+    }
+
+    @Test
+    public void blockingListenerRunsOnBoundedElasticByDefault() {
+        discord = LocalDiscord.create();
+        final RecordingCommand command = new BlockingCommand(discord);
+        run(command, null);
+        assertTrue(command.runThread.startsWith("boundedElastic"), command.runThread);
+    }
+
+    @Test
+    public void nonBlockingListenerDoesNotRunOnTheBlockingScheduler() {
+        discord = LocalDiscord.create();
+        blockingScheduler = Schedulers.newSingle("blocking-listeners");
+        final RecordingCommand command = new NonBlockingCommand(discord);
+        run(command, blockingScheduler);
+        assertFalse(command.runThread.startsWith("blocking-listeners"), command.runThread);
+    }
+
+    @Test
+    public void ackAndPreChecksRunBeforeTheBlockingListener() {
+        discord = LocalDiscord.create();
+        blockingScheduler = Schedulers.newSingle("blocking-listeners");
+        final RecordingCommand command = new BlockingCommand(discord);
+        run(command, blockingScheduler);
+        assertEquals(List.of("privilege", "run"), command.steps);
+        assertFalse(command.privilegeThread.startsWith("blocking-listeners"), command.privilegeThread);
+        // The interaction was deferred before the listener started
+        assertEquals(1, command.callbacksBeforeRun);
+    }
+
+    abstract static class RecordingCommand implements ChatInputInteractionListener {
+
+        private final LocalDiscord discord;
+        private final List<String> steps = new CopyOnWriteArrayList<>();
+        private volatile String privilegeThread;
+        private volatile String runThread;
+        private volatile long callbacksBeforeRun;
+
+        RecordingCommand(LocalDiscord discord) {
+            this.discord = discord;
+        }
+
+        String name() {
+            return getClass().getAnnotation(ChatInputCommand.class).name();
+        }
+
+        @Override
+        public Privilege privilege() {
+            return ctx -> Mono.fromRunnable(() -> {
+                privilegeThread = Thread.currentThread().getName();
+                steps.add("privilege");
+            });
+        }
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            runThread = Thread.currentThread().getName();
+            callbacksBeforeRun = discord.requestCount(Endpoint.INTERACTION_CALLBACK);
+            steps.add("run");
+            return ctx.respond("Done");
+        }
+    }
+
+    @Blocking
+    @Acknowledge(Acknowledge.Mode.DEFER)
+    @ChatInputCommand(name = "blocking", description = "Runs on the blocking scheduler.")
+    static final class BlockingCommand extends RecordingCommand {
+
+        BlockingCommand(LocalDiscord discord) {
+            super(discord);
+        }
+    }
+
+    @Acknowledge(Acknowledge.Mode.DEFER)
+    @ChatInputCommand(name = "non-blocking", description = "Runs on the thread that received the event.")
+    static final class NonBlockingCommand extends RecordingCommand {
+
+        NonBlockingCommand(LocalDiscord discord) {
+            super(discord);
+        }
+    }
+}
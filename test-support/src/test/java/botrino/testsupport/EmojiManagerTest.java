@@ -0,0 +1,125 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import botrino.api.util.EmojiManager;
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.guild.EmojisUpdateEvent;
+import discord4j.core.object.entity.GuildEmoji;
+import discord4j.discordjson.json.EmojiData;
+import discord4j.gateway.ShardInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("deprecation")
+public class EmojiManagerTest {
+
+    private static final Snowflake OTHER_GUILD_ID = Snowflake.of(201);
+
+    private final LocalDiscord discord = LocalDiscord.create();
+    private Disposable listening;
+
+    @AfterEach
+    public void tearDown() {
+        if (listening != null) {
+            listening.dispose();
+        }
+        discord.close();
+    }
+
+    private GuildEmoji emoji(Snowflake guildId, long id, String name) {
+        return new GuildEmoji(discord.gateway(), EmojiData.builder().id(id).name(name).build(), guildId.asLong());
+    }
+
+    private void publish(Snowflake guildId, GuildEmoji... emojis) {
+        discord.publish(new EmojisUpdateEvent(discord.gateway(), ShardInfo.create(0, 1), guildId.asLong(),
+                Set.of(emojis), null));
+    }
+
+    private static boolean isLoaded(EmojiManager manager, String name) {
+        try {
+            manager.get(name);
+            return true;
+        } catch (NoSuchElementException e) {
+            return false;
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        final var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void updatesReplaceEmojisOfTheUpdatedGuild() throws InterruptedException {
+        final var manager = EmojiManager.create(Set.of(LocalDiscord.DEFAULT_GUILD_ID));
+        listening = manager.listenToUpdates(discord.gateway());
+
+        final var wave = emoji(LocalDiscord.DEFAULT_GUILD_ID, 1, "Wave");
+        publish(LocalDiscord.DEFAULT_GUILD_ID, wave);
+        await(() -> isLoaded(manager, "wave"));
+        assertEquals(wave, manager.get("WAVE"));
+
+        final var smile = emoji(LocalDiscord.DEFAULT_GUILD_ID, 2, "smile");
+        publish(LocalDiscord.DEFAULT_GUILD_ID, smile);
+        await(() -> isLoaded(manager, "smile"));
+        assertThrows(NoSuchElementException.class, () -> manager.get("wave"));
+    }
+
+    @Test
+    public void updatesOfOtherGuildsAreIgnored() throws InterruptedException {
+        final var manager = EmojiManager.create(Set.of(LocalDiscord.DEFAULT_GUILD_ID));
+        listening = manager.listenToUpdates(discord.gateway());
+
+        publish(OTHER_GUILD_ID, emoji(OTHER_GUILD_ID, 1, "foreign"));
+        publish(LocalDiscord.DEFAULT_GUILD_ID, emoji(LocalDiscord.DEFAULT_GUILD_ID, 2, "local"));
+        await(() -> isLoaded(manager, "local"));
+        assertThrows(NoSuchElementException.class, () -> manager.get("foreign"));
+    }
+
+    @Test
+    public void emojiAlreadyLoadedFromAnotherGuildIsKept() throws InterruptedException {
+        final var manager = EmojiManager.create(Set.of(LocalDiscord.DEFAULT_GUILD_ID, OTHER_GUILD_ID));
+        listening = manager.listenToUpdates(discord.gateway());
+
+        final var first = emoji(OTHER_GUILD_ID, 1, "shared");
+        publish(OTHER_GUILD_ID, first);
+        await(() -> isLoaded(manager, "shared"));
+        publish(LocalDiscord.DEFAULT_GUILD_ID, emoji(LocalDiscord.DEFAULT_GUILD_ID, 2, "shared"),
+                emoji(LocalDiscord.DEFAULT_GUILD_ID, 3, "marker"));
+        await(() -> isLoaded(manager, "marker"));
+        assertEquals(first, manager.get("shared"));
+    }
+}
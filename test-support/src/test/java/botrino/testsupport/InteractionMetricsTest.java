@@ -0,0 +1,282 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import botrino.interaction.InteractionErrorHandler;
+import botrino.interaction.InteractionFailedException;
+import botrino.interaction.InteractionMetrics;
+import botrino.interaction.InteractionService;
+import botrino.interaction.annotation.Acknowledge;
+import botrino.interaction.annotation.ChatInputCommand;
+import botrino.interaction.config.ImmutableSchedulingConfig;
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.context.ChatInputInteractionContext;
+import botrino.interaction.context.InteractionContext;
+import botrino.interaction.cooldown.Cooldown;
+import botrino.interaction.cooldown.CooldownException;
+import botrino.interaction.listener.ChatInputInteractionListener;
+import botrino.interaction.listener.InteractionListener;
+import botrino.interaction.privilege.Privilege;
+import botrino.interaction.privilege.PrivilegeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InteractionMetricsTest {
+
+    private final RecordingMetrics metrics = new RecordingMetrics();
+    private final SlowCommand slow = new SlowCommand();
+    private LocalDiscord discord;
+    private Disposable running;
+
+    @BeforeEach
+    public void setUp() {
+        discord = LocalDiscord.create();
+        final var config = InteractionConfig.builder()
+                .from(InteractionConfig.withDefaults())
+                .scheduling(ImmutableSchedulingConfig.builder()
+                        .maxConcurrency(8)
+                        .build())
+                .build();
+        final var service = InteractionService.builder(config, discord.gateway())
+                .setMetrics(metrics)
+                .setErrorHandler(new RespondingErrorHandler())
+                .build();
+        List.of(new OkCommand(), new DeniedCommand(), new LimitedCommand(), new RejectedCommand(),
+                new FailingCommand(), new AwaitingCommand(), slow).forEach(service::registerChatInputCommand);
+        running = service.run().subscribe();
+        service.onCommandsDeployed().block(Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        slow.release.tryEmitEmpty();
+        running.dispose();
+        discord.close();
+    }
+
+    private void use(String command) {
+        final var event = discord.chatInputEvent(command);
+        final var reply = discord.awaitReply(event.getInteraction().getToken());
+        discord.publish(event);
+        reply.block(Duration.ofSeconds(10));
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void successRecordsEachPhaseAndTheOutcome() throws InterruptedException {
+        use("ok");
+        awaitCondition(() -> metrics.outcomes.size() == 1);
+        assertEquals(List.of(InteractionMetrics.Outcome.SUCCESS), metrics.outcomes);
+        assertEquals(Set.of(InteractionMetrics.Phase.values()), Set.copyOf(metrics.phases));
+        assertEquals(InteractionMetrics.Phase.values().length, metrics.phases.size());
+        assertEquals(0, metrics.negativeDurations.get());
+        assertEquals(List.of(), metrics.unhandledErrors);
+    }
+
+    @Test
+    public void failedChecksAndHandledErrorsRecordTheirOutcome() throws InterruptedException {
+        use("denied");
+        use("limited");
+        use("limited");
+        use("rejected");
+        awaitCondition(() -> metrics.outcomes.size() == 4);
+        assertEquals(List.of(InteractionMetrics.Outcome.PRIVILEGE_DENIED, InteractionMetrics.Outcome.SUCCESS,
+                InteractionMetrics.Outcome.COOLDOWN, InteractionMetrics.Outcome.INTERACTION_FAILED), metrics.outcomes);
+        // Listeners that did not pass their checks never run
+        assertEquals(2, metrics.phases.stream().filter(InteractionMetrics.Phase.RUN::equals).count());
+        assertEquals(List.of(), metrics.unhandledErrors);
+    }
+
+    @Test
+    public void unhandledErrorIsRecorded() throws InterruptedException {
+        discord.publish(discord.chatInputEvent("failing"));
+        awaitCondition(() -> metrics.unhandledErrors.size() == 1);
+        assertInstanceOf(IllegalStateException.class, metrics.unhandledErrors.get(0));
+        assertEquals(List.of(InteractionMetrics.Outcome.ERROR), metrics.outcomes);
+    }
+
+    @Test
+    public void gaugesReflectTheStateOfTheService() throws InterruptedException {
+        final var gauges = metrics.gauges;
+        assertEquals(8, gauges.concurrencyLimit());
+        assertEquals(0, gauges.inFlightInteractions());
+        use("limited");
+        assertEquals(1, gauges.cooldownBuckets());
+        use("awaiting");
+        awaitCondition(() -> gauges.singleUseComponentListeners() == 1);
+        discord.publish(discord.chatInputEvent("slow"));
+        awaitCondition(() -> gauges.inFlightInteractions() == 1);
+        assertEquals(0, gauges.queuedInteractions());
+        slow.release.tryEmitEmpty();
+        awaitCondition(() -> gauges.inFlightInteractions() == 0);
+    }
+
+    static final class RecordingMetrics implements InteractionMetrics {
+
+        private final List<Phase> phases = new CopyOnWriteArrayList<>();
+        private final List<Outcome> outcomes = new CopyOnWriteArrayList<>();
+        private final List<Throwable> unhandledErrors = new CopyOnWriteArrayList<>();
+        private final AtomicInteger negativeDurations = new AtomicInteger();
+        private volatile Gauges gauges;
+
+        @Override
+        public void bindGauges(Gauges gauges) {
+            this.gauges = gauges;
+        }
+
+        @Override
+        public void recordPhase(InteractionListener listener, Phase phase, long nanos) {
+            phases.add(phase);
+            if (nanos < 0) {
+                negativeDurations.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void recordOutcome(InteractionListener listener, Outcome outcome) {
+            outcomes.add(outcome);
+        }
+
+        @Override
+        public void recordUnhandledError(Throwable error) {
+            unhandledErrors.add(error);
+        }
+    }
+
+    static final class RespondingErrorHandler implements InteractionErrorHandler {
+
+        @Override
+        public Publisher<?> handleInteractionFailed(InteractionFailedException e, InteractionContext ctx) {
+            return ctx.respond("Failed");
+        }
+
+        @Override
+        public Publisher<?> handlePrivilege(PrivilegeException e, InteractionContext ctx) {
+            return ctx.respond("Denied");
+        }
+
+        @Override
+        public Publisher<?> handleCooldown(CooldownException e, InteractionContext ctx) {
+            return ctx.respond("On cooldown");
+        }
+    }
+
+    @Acknowledge(Acknowledge.Mode.DEFER)
+    @ChatInputCommand(name = "ok", description = "Succeeds.")
+    static final class OkCommand implements ChatInputInteractionListener {
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return ctx.respond("Done");
+        }
+    }
+
+    @ChatInputCommand(name = "denied", description = "Is never granted.")
+    static final class DeniedCommand implements ChatInputInteractionListener {
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return ctx.respond("Done");
+        }
+
+        @Override
+        public Privilege privilege() {
+            return ctx -> Mono.error(new PrivilegeException());
+        }
+    }
+
+    @ChatInputCommand(name = "limited", description = "Can be used once per hour.")
+    static final class LimitedCommand implements ChatInputInteractionListener {
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return ctx.respond("Done");
+        }
+
+        @Override
+        public Cooldown cooldown() {
+            return Cooldown.of(1, Duration.ofHours(1));
+        }
+    }
+
+    @ChatInputCommand(name = "rejected", description = "Fails with a message for the user.")
+    static final class RejectedCommand implements ChatInputInteractionListener {
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return Mono.error(new InteractionFailedException("Rejected"));
+        }
+    }
+
+    @ChatInputCommand(name = "failing", description = "Fails unexpectedly.")
+    static final class FailingCommand implements ChatInputInteractionListener {
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return Mono.error(new IllegalStateException("Failing"));
+        }
+    }
+
+    @ChatInputCommand(name = "awaiting", description = "Waits for a button.")
+    static final class AwaitingCommand implements ChatInputInteractionListener {
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return ctx.respond("Click").then(ctx.awaitButtonInteraction("button"));
+        }
+    }
+
+    @ChatInputCommand(name = "slow", description = "Runs until released.")
+    static final class SlowCommand implements ChatInputInteractionListener {
+
+        private final Sinks.Empty<Void> release = Sinks.empty();
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return release.asMono();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import botrino.interaction.InteractionService;
+import botrino.interaction.annotation.ChatInputCommand;
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.context.ChatInputInteractionContext;
+import botrino.interaction.listener.ChatInputInteractionListener;
+import discord4j.common.util.Snowflake;
+import discord4j.rest.http.client.ClientException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalDiscordTest {
+
+    private LocalDiscord discord;
+    private Disposable running;
+
+    @AfterEach
+    public void tearDown() {
+        if (running != null) {
+            running.dispose();
+        }
+        if (discord != null) {
+            discord.close();
+        }
+    }
+
+    private void start(LocalDiscord discord) {
+        this.discord = discord;
+        final var service = InteractionService.create(InteractionConfig.withDefaults(), discord.gateway());
+        service.registerChatInputCommand(new PingCommand());
+        running = service.run().subscribe();
+        service.onCommandsDeployed().block(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void repliesToInteractionsUnderLoad() {
+        start(LocalDiscord.builder().setLatency(Duration.ZERO, Duration.ofMillis(5)).build());
+        final var report = LoadGenerator.create(discord, Duration.ofSeconds(5))
+                .run(200, 16, i -> discord.chatInputEvent("ping", i % 2 == 0 ? null : LocalDiscord.DEFAULT_GUILD_ID,
+                        Snowflake.of(1000 + i % 10), List.of()))
+                .block(Duration.ofSeconds(30));
+        assertNotNull(report);
+        assertEquals(200, report.interactions());
+        assertEquals(0, report.failures());
+        assertTrue(report.p50().compareTo(report.p99()) <= 0);
+        assertTrue(report.p99().compareTo(report.max()) <= 0);
+        assertEquals(200, discord.requestCount(Endpoint.INTERACTION_CALLBACK));
+    }
+
+    @Test
+    public void injectsErrorsInConfiguredEndpoints() {
+        start(LocalDiscord.builder()
+                .setErrorRate(1)
+                .setErrorStatus(400)
+                .setFaultyEndpoints(Set.of(Endpoint.INTERACTION_CALLBACK))
+                .build());
+        final var report = LoadGenerator.create(discord, Duration.ofMillis(500))
+                .run(5, 5, i -> discord.chatInputEvent("ping"))
+                .block(Duration.ofSeconds(30));
+        assertNotNull(report);
+        assertEquals(5, report.failures());
+        assertTrue(discord.errorCount(Endpoint.INTERACTION_CALLBACK) >= 5);
+        assertEquals(0, discord.errorCount(Endpoint.APPLICATION_INFO));
+    }
+
+    @Test
+    public void cachedChannelsAreNotFetched() {
+        start(LocalDiscord.builder().setChannelsCached(true).build());
+        final var report = LoadGenerator.create(discord)
+                .run(10, 2, i -> discord.chatInputEvent("ping"))
+                .block(Duration.ofSeconds(30));
+        assertNotNull(report);
+        assertEquals(0, report.failures());
+        assertEquals(0, discord.requestCount(Endpoint.CHANNEL_GET));
+    }
+
+    @Test
+    public void unknownChannelIsNotFound() {
+        discord = LocalDiscord.create();
+        final var e = assertThrows(ClientException.class,
+                () -> discord.gateway().getChannelById(Snowflake.of(999)).block(Duration.ofSeconds(10)));
+        assertEquals(404, e.getStatus().code());
+        assertEquals(10003, e.getErrorResponse().orElseThrow().getFields().get("code"));
+    }
+
+    @ChatInputCommand(name = "ping", description = "Replies with pong.")
+    static final class PingCommand implements ChatInputInteractionListener {
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return ctx.event().createFollowup("Pong!");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import botrino.api.util.NameDirectory;
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.guild.MemberJoinEvent;
+import discord4j.core.event.domain.guild.MemberLeaveEvent;
+import discord4j.core.object.entity.Member;
+import discord4j.core.object.entity.User;
+import discord4j.discordjson.json.MemberData;
+import discord4j.discordjson.json.UserData;
+import discord4j.gateway.ShardInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameDirectoryTest {
+
+    private static final ShardInfo SHARD = ShardInfo.create(0, 1);
+    private static final Snowflake USER_ID = Snowflake.of(500);
+    private static final UserData USER = UserData.builder()
+            .id(USER_ID.asLong())
+            .username("alice")
+            .discriminator("0")
+            .avatar(Optional.empty())
+            .build();
+
+    private LocalDiscord discord;
+    private NameDirectory directory;
+
+    @BeforeEach
+    public void setUp() {
+        discord = LocalDiscord.create();
+        directory = NameDirectory.of(discord.gateway());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        discord.close();
+    }
+
+    private List<NameDirectory.Entry> searchUsers(String query) {
+        return directory.searchUsers(query, 10).block(Duration.ofSeconds(10));
+    }
+
+    private void awaitUsers(String query, List<NameDirectory.Entry> expected) throws InterruptedException {
+        // Events are dispatched asynchronously
+        final var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!searchUsers(query).equals(expected)) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + expected);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void memberIsIndexedOnJoinAndPrunedOnLeave() throws InterruptedException {
+        final var member = new Member(discord.gateway(), MemberData.builder()
+                .user(USER)
+                .nick("Wonderland")
+                .joinedAt("2020-01-01T00:00:00Z")
+                .deaf(false)
+                .mute(false)
+                .flags(0)
+                .build(), LocalDiscord.DEFAULT_GUILD_ID.asLong());
+        assertEquals(List.of(), searchUsers("ali"));
+        discord.publish(new MemberJoinEvent(discord.gateway(), SHARD, member,
+                LocalDiscord.DEFAULT_GUILD_ID.asLong()));
+        awaitUsers("ali", List.of(new NameDirectory.Entry(USER_ID, "alice")));
+        assertEquals(List.of(new NameDirectory.Entry(USER_ID, "alice")), searchUsers("wonder"));
+        discord.publish(new MemberLeaveEvent(discord.gateway(), SHARD, new User(discord.gateway(), USER),
+                LocalDiscord.DEFAULT_GUILD_ID.asLong(), member));
+        awaitUsers("ali", List.of());
+        assertEquals(List.of(), searchUsers("wonder"));
+    }
+
+    @Test
+    public void directoryIsSharedPerClient() {
+        assertSame(directory, NameDirectory.of(discord.gateway()));
+    }
+}
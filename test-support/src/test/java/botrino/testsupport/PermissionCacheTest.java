@@ -0,0 +1,230 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import botrino.interaction.InteractionService;
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.context.ChatInputInteractionContext;
+import botrino.interaction.privilege.Privilege;
+import botrino.interaction.privilege.PrivilegeCacheStats;
+import botrino.interaction.privilege.Privileges;
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.guild.MemberUpdateEvent;
+import discord4j.core.event.domain.role.RoleDeleteEvent;
+import discord4j.core.event.domain.role.RoleUpdateEvent;
+import discord4j.core.object.entity.Role;
+import discord4j.core.object.entity.channel.MessageChannel;
+import discord4j.core.object.entity.channel.TextChannel;
+import discord4j.discordjson.json.ChannelData;
+import discord4j.discordjson.json.RoleColorData;
+import discord4j.discordjson.json.RoleData;
+import discord4j.gateway.ShardInfo;
+import discord4j.rest.util.Permission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PermissionCacheTest {
+
+    private static final ShardInfo SHARD = ShardInfo.create(0, 1);
+    private static final Snowflake OTHER_CHANNEL_ID = Snowflake.of(201);
+    private static final Snowflake OTHER_GUILD_ID = Snowflake.of(300);
+    private static final Privilege ADMINISTRATOR =
+            Privileges.checkPermissions(permissions -> permissions.contains(Permission.ADMINISTRATOR));
+    private static final Privilege NO_ROLE = Privileges.checkRoles(Set::isEmpty);
+
+    private LocalDiscord discord;
+    private InteractionService service;
+
+    @AfterEach
+    public void tearDown() {
+        if (discord != null) {
+            discord.close();
+        }
+    }
+
+    private void start(LocalDiscord discord) {
+        this.discord = discord;
+        // The service is only needed to create contexts, it doesn't have to run
+        this.service = InteractionService.create(InteractionConfig.withDefaults(), discord.gateway());
+    }
+
+    private TextChannel channel(Snowflake channelId) {
+        return channel(LocalDiscord.DEFAULT_GUILD_ID, channelId);
+    }
+
+    private TextChannel channel(Snowflake guildId, Snowflake channelId) {
+        return new TextChannel(discord.gateway(), ChannelData.builder()
+                .id(channelId.asLong())
+                .type(0)
+                .guildId(guildId.asLong())
+                .name("channel-" + channelId.asString())
+                .build());
+    }
+
+    private Mono<Void> check(MessageChannel channel) {
+        return check(ADMINISTRATOR, channel);
+    }
+
+    private Mono<Void> check(Privilege privilege, MessageChannel channel) {
+        final var ctx = new ChatInputInteractionContext(service, Locale.ENGLISH, discord.chatInputEvent("check"),
+                channel);
+        return privilege.checkGranted(ctx);
+    }
+
+    private void publishMemberUpdate() {
+        publishMemberUpdate(LocalDiscord.DEFAULT_GUILD_ID);
+    }
+
+    private void publishMemberUpdate(Snowflake guildId) {
+        discord.publish(new MemberUpdateEvent(discord.gateway(), SHARD, guildId.asLong(),
+                LocalDiscord.DEFAULT_USER_ID.asLong(), null, Set.of(), null, null, null, null, null, null, null,
+                null));
+    }
+
+    private void publishRoleUpdate() {
+        final var role = new Role(discord.gateway(), RoleData.builder()
+                .id(LocalDiscord.DEFAULT_GUILD_ID.asLong())
+                .name("@everyone")
+                .color(0)
+                .colors(RoleColorData.builder().primaryColor(0).build())
+                .hoist(false)
+                .position(0)
+                .permissions(0)
+                .managed(false)
+                .mentionable(false)
+                .flags(0)
+                .build(), LocalDiscord.DEFAULT_GUILD_ID.asLong());
+        discord.publish(new RoleUpdateEvent(discord.gateway(), SHARD, role, null));
+    }
+
+    private void publishRoleDelete(Snowflake guildId) {
+        discord.publish(new RoleDeleteEvent(discord.gateway(), SHARD, guildId.asLong(), guildId.asLong(), null));
+    }
+
+    private static void awaitRequests(LocalDiscord discord, Endpoint endpoint, long count) {
+        final var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (discord.requestCount(endpoint) < count) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + endpoint);
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    public void payloadPermissionsAreOnlyUsedInTheInteractionChannel() {
+        start(LocalDiscord.create());
+        check(channel(LocalDiscord.DEFAULT_GUILD_ID)).block(Duration.ofSeconds(10));
+        assertEquals(0, discord.requestCount(Endpoint.MEMBER_GET));
+        check(channel(OTHER_CHANNEL_ID)).block(Duration.ofSeconds(10));
+        assertEquals(1, discord.requestCount(Endpoint.MEMBER_GET));
+    }
+
+    @Test
+    public void fetchedPermissionsAreMemoized() {
+        start(LocalDiscord.create());
+        final var channel = channel(OTHER_CHANNEL_ID);
+        check(channel).block(Duration.ofSeconds(10));
+        check(channel).block(Duration.ofSeconds(10));
+        assertEquals(1, discord.requestCount(Endpoint.MEMBER_GET));
+        assertEquals(1, discord.requestCount(Endpoint.GUILD_GET));
+    }
+
+    @Test
+    public void memberUpdateInvalidatesPermissions() throws InterruptedException {
+        start(LocalDiscord.create());
+        final var channel = channel(OTHER_CHANNEL_ID);
+        check(channel).block(Duration.ofSeconds(10));
+        publishMemberUpdate();
+        // Events are dispatched asynchronously
+        Thread.sleep(100);
+        check(channel).block(Duration.ofSeconds(10));
+        assertEquals(2, discord.requestCount(Endpoint.MEMBER_GET));
+    }
+
+    @Test
+    public void roleUpdateInvalidatesPermissions() throws InterruptedException {
+        start(LocalDiscord.create());
+        final var channel = channel(OTHER_CHANNEL_ID);
+        check(channel).block(Duration.ofSeconds(10));
+        publishRoleUpdate();
+        Thread.sleep(100);
+        check(channel).block(Duration.ofSeconds(10));
+        assertEquals(2, discord.requestCount(Endpoint.MEMBER_GET));
+    }
+
+    @Test
+    public void roleDeleteInvalidatesRoles() throws InterruptedException {
+        start(LocalDiscord.create());
+        // The interaction payload only has the roles of the member in the guild of the interaction
+        final var channel = channel(OTHER_GUILD_ID, OTHER_GUILD_ID);
+        check(NO_ROLE, channel).block(Duration.ofSeconds(10));
+        check(NO_ROLE, channel).block(Duration.ofSeconds(10));
+        assertEquals(1, discord.requestCount(Endpoint.MEMBER_GET));
+        publishRoleDelete(OTHER_GUILD_ID);
+        Thread.sleep(100);
+        check(NO_ROLE, channel).block(Duration.ofSeconds(10));
+        assertEquals(2, discord.requestCount(Endpoint.MEMBER_GET));
+    }
+
+    @Test
+    public void invalidationDuringFetchIsNotOverwritten() {
+        start(LocalDiscord.builder().setLatency(Duration.ofMillis(300)).build());
+        // The interaction payload only has the roles of the member in the guild of the interaction
+        final var channel = channel(OTHER_GUILD_ID, OTHER_GUILD_ID);
+        final var inFlight = check(NO_ROLE, channel).toFuture();
+        awaitRequests(discord, Endpoint.MEMBER_GET, 1);
+        publishMemberUpdate(OTHER_GUILD_ID);
+        assertDoesNotThrow(() -> inFlight.get(10, TimeUnit.SECONDS));
+        check(NO_ROLE, channel).block(Duration.ofSeconds(10));
+        assertEquals(2, discord.requestCount(Endpoint.MEMBER_GET));
+    }
+
+    @Test
+    public void statsCountPayloadHitsCacheHitsAndMisses() {
+        start(LocalDiscord.create());
+        check(channel(LocalDiscord.DEFAULT_GUILD_ID)).block(Duration.ofSeconds(10));
+        final var channel = channel(OTHER_CHANNEL_ID);
+        check(channel).block(Duration.ofSeconds(10));
+        check(channel).block(Duration.ofSeconds(10));
+        final var stats = Privileges.cacheStats(discord.gateway());
+        assertEquals(new PrivilegeCacheStats(1, 1, 1), stats);
+        assertEquals(2, stats.avoidedRestCalls());
+        assertEquals(2.0 / 3, stats.hitRate());
+    }
+
+    @Test
+    public void statsAreZeroWhenNoPrivilegeWasChecked() {
+        start(LocalDiscord.create());
+        final var stats = Privileges.cacheStats(discord.gateway());
+        assertEquals(new PrivilegeCacheStats(0, 0, 0), stats);
+        assertEquals(0, stats.hitRate());
+    }
+}
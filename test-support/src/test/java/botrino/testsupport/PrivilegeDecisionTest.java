@@ -0,0 +1,213 @@
+/*
+ * This file is part of the Botrino project and is licensed under the MIT license.
+ *
+ * Copyright (c) 2020 Alexandre Miranda
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package botrino.testsupport;
+
+import botrino.interaction.InteractionService;
+import botrino.interaction.annotation.Acknowledge;
+import botrino.interaction.annotation.ChatInputCommand;
+import botrino.interaction.config.InteractionConfig;
+import botrino.interaction.context.ChatInputInteractionContext;
+import botrino.interaction.context.InteractionContext;
+import botrino.interaction.listener.ChatInputInteractionListener;
+import botrino.interaction.privilege.Privilege;
+import botrino.interaction.privilege.PrivilegeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrivilegeDecisionTest {
+
+    private LocalDiscord discord;
+    private Disposable running;
+
+    @AfterEach
+    public void tearDown() {
+        if (running != null) {
+            running.dispose();
+        }
+        if (discord != null) {
+            discord.close();
+        }
+    }
+
+    private void run(ChatInputInteractionListener command) {
+        discord = LocalDiscord.create();
+        final var service = InteractionService.create(InteractionConfig.withDefaults(), discord.gateway());
+        service.registerChatInputCommand(command);
+        running = service.run().subscribe();
+        service.onCommandsDeployed().block(Duration.ofSeconds(10));
+        final var report = LoadGenerator.create(discord)
+                .run(1, 1, i -> discord.chatInputEvent("check"))
+                .block(Duration.ofSeconds(30));
+        assertNotNull(report);
+        assertEquals(0, report.failures());
+    }
+
+    @Test
+    public void grantsAndRefusalsAreMemoized() {
+        final var granted = new CountingPrivilege(Mono.empty());
+        final var refused = new CountingPrivilege(Mono.error(new PrivilegeException()));
+        final var command = new CheckTwiceCommand(granted, refused);
+        run(command);
+        assertEquals(List.of("granted", "granted", "PrivilegeException", "PrivilegeException"), command.outcomes);
+        assertEquals(1, granted.evaluations.get());
+        assertEquals(1, refused.evaluations.get());
+    }
+
+    @Test
+    public void otherErrorsAreEvaluatedAgain() {
+        final var flaky = new CountingPrivilege(Mono.error(new IOException("Connection reset")));
+        final var command = new CheckTwiceCommand(flaky);
+        run(command);
+        assertEquals(List.of("IOException", "IOException"), command.outcomes);
+        assertEquals(2, flaky.evaluations.get());
+    }
+
+    @Test
+    public void anyOfCancelsRemainingChecksAfterFirstGrant() {
+        final var events = new CopyOnWriteArrayList<String>();
+        final var granted = new TrackingPrivilege("granted", events, Mono.delay(Duration.ofMillis(50)).then());
+        final var pending = new TrackingPrivilege("pending", events, Mono.never());
+        final var command = new CheckTwiceCommand(Privilege.anyOf(granted, pending.withCost(1)));
+        run(command);
+        assertEquals(List.of("granted", "granted"), command.outcomes);
+        assertEquals(List.of("granted", "pending", "pending cancelled"), events);
+    }
+
+    @Test
+    public void allOfFailsWithFirstRefusal() {
+        final var events = new CopyOnWriteArrayList<String>();
+        final var first = new TrackingPrivilege("first", events,
+                Mono.delay(Duration.ofMillis(50)).then(Mono.error(new FirstRefusalException())));
+        final var second = new TrackingPrivilege("second", events,
+                Mono.delay(Duration.ofSeconds(5)).then(Mono.error(new PrivilegeException())));
+        final var command = new CheckTwiceCommand(Privilege.allOf(second.withCost(1), first));
+        run(command);
+        assertEquals(List.of("FirstRefusalException", "FirstRefusalException"), command.outcomes);
+        assertEquals(List.of("first", "second", "second cancelled"), events);
+    }
+
+    @Test
+    public void costHintsOrderTheChecks() {
+        final var events = new CopyOnWriteArrayList<String>();
+        final var expensive = new TrackingPrivilege("expensive", events, Mono.empty()).withCost(10);
+        final var medium = new TrackingPrivilege("medium", events, Mono.error(new PrivilegeException())).withCost(5);
+        final var cheap = new TrackingPrivilege("cheap", events, Mono.empty()).withCost(1);
+        final var all = Privilege.allOf(expensive, medium, cheap);
+        final var any = Privilege.anyOf(expensive, medium);
+        assertEquals(16, all.cost());
+        assertEquals(15, any.cost());
+        final var command = new CheckTwiceCommand(all, any);
+        run(command);
+        assertEquals(List.of("PrivilegeException", "PrivilegeException", "granted", "granted"), command.outcomes);
+        // The medium privilege fails synchronously, so the expensive one is not evaluated by allOf
+        assertEquals(List.of("cheap", "medium", "medium", "expensive"), events);
+    }
+
+    static final class FirstRefusalException extends PrivilegeException {}
+
+    static final class TrackingPrivilege implements Privilege {
+
+        private final String name;
+        private final List<String> events;
+        private final Mono<Void> decision;
+
+        TrackingPrivilege(String name, List<String> events, Mono<Void> decision) {
+            this.name = name;
+            this.events = events;
+            this.decision = decision;
+        }
+
+        @Override
+        public Mono<Void> checkGranted(InteractionContext ctx) {
+            return Mono.defer(() -> {
+                // Combinators may cancel a privilege while it is emitting its decision, which is not worth tracking
+                final var decided = new AtomicBoolean();
+                return decision
+                        .doOnSubscribe(s -> events.add(name))
+                        .doOnTerminate(() -> decided.set(true))
+                        .doOnCancel(() -> {
+                            if (!decided.get()) {
+                                events.add(name + " cancelled");
+                            }
+                        });
+            });
+        }
+    }
+
+    static final class CountingPrivilege implements Privilege {
+
+        private final AtomicInteger evaluations = new AtomicInteger();
+        private final Mono<Void> decision;
+
+        CountingPrivilege(Mono<Void> decision) {
+            this.decision = decision;
+        }
+
+        @Override
+        public Mono<Void> checkGranted(InteractionContext ctx) {
+            return Mono.defer(() -> {
+                evaluations.incrementAndGet();
+                return decision;
+            });
+        }
+    }
+
+    @Acknowledge(Acknowledge.Mode.DEFER)
+    @ChatInputCommand(name = "check", description = "Checks the given privileges twice each.")
+    static final class CheckTwiceCommand implements ChatInputInteractionListener {
+
+        private final List<String> outcomes = new CopyOnWriteArrayList<>();
+        private final List<Privilege> privileges;
+
+        CheckTwiceCommand(Privilege... privileges) {
+            this.privileges = List.of(privileges);
+        }
+
+        private Mono<Void> check(ChatInputInteractionContext ctx, Privilege privilege) {
+            return ctx.checkPrivilege(privilege)
+                    .doOnSuccess(v -> outcomes.add("granted"))
+                    .onErrorResume(e -> Mono.fromRunnable(() -> outcomes.add(e.getClass().getSimpleName())));
+        }
+
+        @Override
+        public Publisher<?> run(ChatInputInteractionContext ctx) {
+            return Flux.fromIterable(privileges)
+                    .concatMap(privilege -> check(ctx, privilege).then(check(ctx, privilege)))
+                    .then(ctx.respond("Done"));
+        }
+    }
+}
@@ -42,6 +42,9 @@ module.exports = {
             'interaction-library/cooldowns',
             'interaction-library/handling-errors',
             'interaction-library/filtering-and-adapting-events',
+            'interaction-library/scheduling-interactions',
+            'interaction-library/metrics',
+            'interaction-library/testing',
         ]
     },
 };